@@ -0,0 +1,222 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the BatchReadTest program, which checks that a batch
+ * of records read with BinReader.readRecords, or looked up with
+ * IndexReader.fetchRecords, through a buffer pool costs fewer page pins
+ * than reading or looking up the same records one at a time, and that
+ * both return the same records.
+ *
+ * The BatchReadTest program performs the following responsibilities:
+ * 1. Writes a small dataset to temporary fixed-width and paged binary
+ *    files.
+ * 2. Reads a shuffled batch of records from each file one at a time and
+ *    as one batch, each through its own fresh buffer pool.
+ * 3. Builds the hash index of each file and looks up a shuffled batch
+ *    of Data.entry values, some absent, one at a time and as one batch.
+ * 4. Compares the records and the pool's pin counts, printing PASS or
+ *    FAIL for each check and exiting with -1 if any check fails.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac BatchReadTest.java
+ *   Execution: make test, which runs java BatchReadTest in an empty
+ *              temporary directory, since the index is always written
+ *              to lhl.idx in the current directory
+ *   Input: None
+ *   Output: One result line per check
+ */
+
+import java.io.*;
+import java.util.*;
+
+class BatchReadTest {
+
+    private static final int NUM_ROWS = 2000;   // Rows of the generated dataset
+    private static final int BATCH_STRIDE = 3;  // Every third record is in the batch
+
+    /*
+     * Method writeCSV(csvFilePath)
+     *
+     * Purpose: Writes a CSV file of NUM_ROWS rows in the dataset's
+     *          column order.
+     * Pre-condition: csvFilePath is writable.
+     * Post-condition: The file holds a header and NUM_ROWS rows.
+     * Parameters: csvFilePath - File to write.
+     */
+    public static void writeCSV(File csvFilePath) throws IOException {
+        try (PrintWriter out = new PrintWriter(new FileWriter(csvFilePath))) {
+            out.println("Dataset_sequence_ID,Data.entry,Cave.data.series,Biogeographical.realm,"
+                        + "Continent,Biome classification,Country.record,Cave.site,"
+                        + "Lattitude,Longitude,Species.name");
+
+            for (int i = 0; i < NUM_ROWS; i++)
+                out.println(i + ",BC " + (1000000 + i * 7) + ",S " + (i % 40) + ",Realm " + (i % 5)
+                            + ",Continent " + (i % 6) + ",Biome " + (i % 9) + ",Country " + (i % 30)
+                            + ",Cave " + i + "," + (i % 90) + ".5," + (i % 180) + ".25,Species " + (i % 70));
+        }
+    }
+
+    /*
+     * Method checkFormat(name, records, layout, paged)
+     *
+     * Purpose: Writes the records to a temporary binary file and compares
+     *          single and batched reads of a shuffled batch of them.
+     * Pre-condition: records is sorted by Data.entry.
+     * Post-condition: The temporary file is deleted and a result line is
+     *                 printed.
+     * Parameters: name    - Name of the format, for the result line
+     *             records - Records to write
+     *             layout  - Field widths of the records
+     *             paged   - True to write slotted pages
+     * Returns: True if every check passed.
+     */
+    public static boolean checkFormat(String name, ArrayList<Record> records,
+                                      RecordLayout layout, boolean paged) throws IOException {
+        File binFilePath = File.createTempFile("batch", ".bin");
+
+        try {
+            BinWriter binWriter = new BinWriter(binFilePath, layout);
+            if (paged)
+                binWriter.writePages();
+            binWriter.writeRecords(records);
+            binWriter.writeLengths();
+            binWriter.close();
+
+            // Pointers of every BATCH_STRIDE-th record, out of order
+            BinReader plain = new BinReader(binFilePath);
+            ArrayList<Long> ptrList = new ArrayList<Long>();
+            for (int i = 0; i < plain.getNumRecords(); i += BATCH_STRIDE)
+                ptrList.add(plain.getRecordPointer(i));
+            plain.close();
+
+            Collections.shuffle(ptrList, new Random(460));
+            long[] recordPtrs = ptrList.stream().mapToLong(Long::longValue).toArray();
+
+            BufferPool singlePool = new BufferPool(Consts.BUFFER_POOL_BYTES, Consts.PAGE_BYTES);
+            BinReader single = new BinReader(binFilePath, singlePool);
+            String[] expected = new String[recordPtrs.length];
+            for (int i = 0; i < recordPtrs.length; i++)
+                expected[i] = single.readRecord(recordPtrs[i]).toString();
+            single.close();
+
+            BufferPool batchPool = new BufferPool(Consts.BUFFER_POOL_BYTES, Consts.PAGE_BYTES);
+            BinReader batch = new BinReader(binFilePath, batchPool);
+            Record[] actual = batch.readRecords(recordPtrs);
+            batch.close();
+
+            boolean same = true; // Batch returned the single reads' records
+            for (int i = 0; i < recordPtrs.length; i++)
+                same &= actual[i].toString().equals(expected[i]);
+
+            long singlePins = singlePool.getHits() + singlePool.getMisses();
+            long batchPins = batchPool.getHits() + batchPool.getMisses();
+            boolean pass = same && batchPins < singlePins;
+
+            System.out.println((pass ? "PASS " : "FAIL ") + name + ": " + recordPtrs.length
+                               + " records, " + singlePins + " pins one at a time, "
+                               + batchPins + " pins batched" + (same ? "" : ", records differ"));
+
+            // Every BATCH_STRIDE-th value and one absent value, out of order
+            ArrayList<String> entryList = new ArrayList<String>();
+            for (int i = 0; i < records.size(); i += BATCH_STRIDE)
+                entryList.add(records.get(i).getEntry().trim());
+            entryList.add("BC 0000000");
+            Collections.shuffle(entryList, new Random(460));
+
+            return checkIndex(name, binFilePath, entryList.toArray(new String[0])) && pass;
+        } finally {
+            binFilePath.delete();
+        }
+    }
+
+    /*
+     * Method checkIndex(name, binFilePath, entryIDs)
+     *
+     * Purpose: Builds the hash index of a binary file and compares
+     *          looking up each value with fetchRecord against looking
+     *          them all up with one fetchRecords call.
+     * Pre-condition: The current directory holds no index file.
+     * Post-condition: The index file is deleted and a result line is
+     *                 printed.
+     * Parameters: name        - Name of the format, for the result line
+     *             binFilePath - Binary file to index
+     *             entryIDs    - Data.entry values to look up
+     * Returns: True if every check passed.
+     */
+    public static boolean checkIndex(String name, File binFilePath, String[] entryIDs)
+            throws IOException {
+        File indexFilePath = new File(Consts.INDEX_FILE_NAME);
+
+        try {
+            IndexWriter indexWriter = new IndexWriter();
+            indexWriter.clearIndex();
+            indexWriter.open(binFilePath);
+            indexWriter.populateIndex();
+            indexWriter.writeDirectory();
+            indexWriter.close();
+
+            BufferPool singlePool = new BufferPool(Consts.BUFFER_POOL_BYTES, Consts.PAGE_BYTES);
+            IndexReader single = new IndexReader(indexFilePath, binFilePath, singlePool);
+            String[] expected = new String[entryIDs.length];
+            for (int i = 0; i < entryIDs.length; i++)
+                expected[i] = String.valueOf(single.fetchRecord(entryIDs[i]));
+            single.close();
+
+            BufferPool batchPool = new BufferPool(Consts.BUFFER_POOL_BYTES, Consts.PAGE_BYTES);
+            IndexReader batch = new IndexReader(indexFilePath, binFilePath, batchPool);
+            Record[] actual = batch.fetchRecords(entryIDs);
+            batch.close();
+
+            boolean same = true; // Batch found the single lookups' records
+            for (int i = 0; i < entryIDs.length; i++)
+                same &= String.valueOf(actual[i]).equals(expected[i]);
+
+            long singlePins = singlePool.getHits() + singlePool.getMisses();
+            long batchPins = batchPool.getHits() + batchPool.getMisses();
+            boolean pass = same && batchPins < singlePins;
+
+            System.out.println((pass ? "PASS " : "FAIL ") + name + " index: " + entryIDs.length
+                               + " lookups, " + singlePins + " pins one at a time, "
+                               + batchPins + " pins batched" + (same ? "" : ", records differ"));
+            return pass;
+        } finally {
+            indexFilePath.delete();
+        }
+    }
+
+    public static void main(String[] args) {
+        // The index is written to the current directory; never replace a real one
+        if (new File(Consts.INDEX_FILE_NAME).exists()) {
+            System.out.println("Error: Run BatchReadTest where there is no "
+                               + Consts.INDEX_FILE_NAME + " (make test does)");
+            System.exit(-1);
+        }
+
+        try {
+            File csvFilePath = File.createTempFile("batch", ".csv");
+            writeCSV(csvFilePath);
+
+            CSVParser csvParser = new CSVParser(csvFilePath);
+            ArrayList<Record> records = csvParser.parseCSV();
+            records.sort(Record.compareEntry);
+            csvFilePath.delete();
+
+            boolean pass = checkFormat("fixed-width", records, csvParser.getLayout(), false);
+            pass &= checkFormat("paged", records, csvParser.getLayout(), true);
+
+            if (!pass)
+                System.exit(-1);
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+
+}
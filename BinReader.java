@@ -14,23 +14,43 @@
  * for each variable-width field.
  *
  * The BinReader class performs the following responsibilities:
- * 1. Reads footer metadata to determine record structure and field sizes.
+ * 1. Reads footer metadata to determine record structure and field sizes,
+ *    including the dictionaries of a dictionary-encoded file and the
+ *    run table an append leaves after the footer.
  * 2. Calculates the size and total number of records in the binary file.
- * 3. Reads individual records using random access.
+ * 3. Reads individual records using positional reads, either through a
+ *    file channel or straight from a memory mapping of the file, so one
+ *    reader can be shared by many threads.
  * 4. Provides record count and record size information.
- * 5. Closes the binary file stream safely.
+ * 5. Reads block-compressed files, decompressing only the blocks that
+ *    hold the records asked for and caching the most recently used.
+ * 6. Reads paged files, unpacking a record from its page and slot, and
+ *    gives the pointer of any record number in any format.
+ * 7. Optionally reads records through a shared BufferPool, so pages hit
+ *    again are served from memory within a fixed budget.
+ * 8. Reads batches of records in file order, merging nearby records
+ *    into single larger reads.
+ * 9. Streams all or a range of the records in file order, reading large
+ *    chunks ahead of the consumer, as a Stream that can run in parallel.
+ * 10. Closes the binary file stream safely.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac BinReader.java
- *   Usage: Instantiated by Prog1B
+ *   Usage: Instantiated by IndexWriter, IndexReader, SortedReader,
+ *          ExternalSort, and Prog1A's append path; also read through by
+ *          RecordSpliterator and ColumnWriter
  *   Input: Binary file produced by Prog1A
  *   Output: Record objects and metadata for querying
  */
 
 import java.io.*;
 import java.util.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.stream.*;
+import java.util.zip.*;
 
 /*
  * Class: BinReader
@@ -39,24 +59,74 @@ import java.nio.charset.StandardCharsets;
  *          interpreting a fixed-width binary file produced by Prog1A.
  *          Each binary record corresponds to an immutable Record object,
  *          and the file includes a footer containing maximum string
- *          lengths required for correct parsing.
+ *          lengths required for correct parsing. In mapped mode the
+ *          file is mapped once and records are decoded from memory,
+ *          so a random read costs memory loads instead of syscalls.
+ *          Every read names its own file position and no read changes
+ *          shared state, so a BinReader is safe to use from many threads.
+ *          A block-compressed file is never mapped; a read inflates the
+ *          block holding the record, unless the block is in the cache
+ *          of recently used blocks, which is shared under its own lock.
+ *          In a paged file a pointer is a page's file offset plus a
+ *          slot; a read unpacks that slot of the page, mapped or read
+ *          whole, into the view's fixed-width bytes. A reader given a
+ *          BufferPool reads through it instead of mapping or issuing
+ *          its own reads, except for compressed files, which keep their
+ *          cache of inflated blocks.
  * Inherits From: None
  * Interfaces: None
- * Constants: None
+ * Constants: MAP_SEGMENT_BYTES
  * Constructors: BinReader(File binFilePath)
- * Class Methods: None
+ *               BinReader(File binFilePath, boolean mapped)
+ *               BinReader(File binFilePath, BufferPool pool)
+ * Class Methods: void readFully(FileChannel channel, ByteBuffer buf,
+ *                               long position)
+ *                RecordLayout readLayout(FileChannel channel, long footerEnd)
  * Inst. Methods: int getNumRecords()
+ *                int[] getRunStarts()
  *                long getSizeOfRecord()
+ *                RecordLayout getLayout()
+ *                boolean isCompressed()
+ *                boolean isPaged()
+ *                long getRecordPointer(int recordNum)
  *                void cacheLengths()
+ *                RecordView newView()
  *                Record readRecord(long recordPtr)
+ *                void readRecord(long recordPtr, RecordView view)
+ *                Record[] readRecords(long[] recordPtrs)
+ *                Stream<Record> stream()
+ *                Stream<Record> stream(int fromRecord, int toRecord)
  *                void close()
  */
 class BinReader {
 
+    private static final long MAP_SEGMENT_BYTES = 1L << 30;
+        // Bytes of the file addressed by each mapped segment
+
     private File binFilePath;               // Binary file path
-    private RandomAccessFile binFileStream; // Binary file stream
+    private FileChannel binFileChannel;     // Binary file channel (positional reads only)
+    private long binFileSize;               // Size of the binary file in bytes
     private int numRecords;                 // Number of records in file
     private long recordSizeBytes;           // Size of one record in bytes
+    private RecordLayout layout;            // Field widths and offsets from the footer
+
+    private MappedByteBuffer[] segments;    // Mapped file segments (mapped mode only)
+
+    private long[] blockOffsets;            // Start of each block, then the end of the
+                                            // last (compressed files only)
+    private int recordsPerBlock;            // Records in each full block
+    private LinkedHashMap<Integer, byte[]> blockCache; // Recently inflated blocks
+
+    private int[] pageFirstRecord;          // Number of the first record of each
+                                            // page (paged files only)
+    private int pageBytes;                  // Size of each page
+
+    private int[] runStarts;                // First record of each sorted run
+
+    private BufferPool pool;                // Pool records are read through, or null
+    private int poolFileId;                 // Id of this file in the pool
+
+    private AsynchronousFileChannel scanChannel; // Channel scans read ahead with
 
     /*
      * Method getNumRecords()
@@ -70,10 +140,26 @@ class BinReader {
         return numRecords;
     }
 
+    /*
+     * Method getRunStarts()
+     *
+     * Purpose: Returns the first record of each sorted run of the file,
+     *          as recorded by the appends that made the runs. A file with
+     *          no run table, which includes every file Prog1A wrote whole,
+     *          is one run.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: A copy of the run starts, in file order, beginning with 0.
+     */
+    public int[] getRunStarts() {
+        return runStarts.clone();
+    }
+
     /*
      * Method getSizeOfRecord()
      *
-     * Purpose: Returns the size in bytes of a single fixed-width record.
+     * Purpose: Returns the size in bytes of a single fixed-width record,
+     *          which in a paged file is the size of a record unpacked.
      * Pre-condition: cacheLengths() has been executed.
      * Post-condition: No state is modified.
      * Returns: Size of one record in bytes.
@@ -82,6 +168,65 @@ class BinReader {
         return recordSizeBytes;
     }
 
+    /*
+     * Method getLayout()
+     *
+     * Purpose: Returns the record layout described by the file's footer.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: The RecordLayout of this file.
+     */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /*
+     * Method isCompressed()
+     *
+     * Purpose: Reports whether the file's records are block compressed.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: True if the file has a block index.
+     */
+    public boolean isCompressed() {
+        return blockOffsets != null;
+    }
+
+    /*
+     * Method isPaged()
+     *
+     * Purpose: Reports whether the file's records are packed in pages.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: True if the file has a page index.
+     */
+    public boolean isPaged() {
+        return pageFirstRecord != null;
+    }
+
+    /*
+     * Method getRecordPointer(recordNum)
+     *
+     * Purpose: Returns the pointer readRecord() takes for a record
+     *          number: its offset in a fixed-width or compressed file, or
+     *          its page's offset plus its slot in a paged file.
+     * Pre-condition: 0 <= recordNum < getNumRecords().
+     * Post-condition: No state is modified.
+     * Parameters: recordNum - Number of the record, in file order
+     * Returns: The record's pointer.
+     */
+    public long getRecordPointer(int recordNum) {
+        if (pageFirstRecord == null)
+            return recordNum * recordSizeBytes;
+
+        // The last page whose first record is at most recordNum
+        int pageNum = Arrays.binarySearch(pageFirstRecord, recordNum);
+        if (pageNum < 0)
+            pageNum = -pageNum - 2;
+
+        return (long) pageNum * pageBytes + (recordNum - pageFirstRecord[pageNum]);
+    }
+
     /*
      * Constructor BinReader(binFilePath)
      *
@@ -92,10 +237,74 @@ class BinReader {
      * Parameters: binFilePath - Reference to the binary file.
      */
     public BinReader(File binFilePath) throws IOException {
+        this(binFilePath, false);
+    }
+
+    /*
+     * Constructor BinReader(binFilePath, mapped)
+     *
+     * Purpose: Initializes a BinReader object, loads footer metadata, and
+     *          in mapped mode maps the record region of the file into
+     *          memory. The mapping is split into segments of
+     *          MAP_SEGMENT_BYTES, each extended by one record so that no
+     *          record straddles two segments; this supports files larger
+     *          than a single 2 GB buffer.
+     * Pre-condition: binFilePath references a valid, readable binary file.
+     * Post-condition: Footer metadata is cached, record size calculated,
+     *                 and the file is mapped if requested.
+     * Parameters: binFilePath - Reference to the binary file.
+     *             mapped      - True to decode records from a memory mapping.
+     */
+    public BinReader(File binFilePath, boolean mapped) throws IOException {
         this.binFilePath = binFilePath; // Store binary file reference
-        binFileStream = new RandomAccessFile(this.binFilePath, "r"); // Open file
+        binFileChannel = FileChannel.open(binFilePath.toPath(),
+                                          StandardOpenOption.READ); // Open file
 
         cacheLengths(); // Load metadata from footer
+
+        if (mapped && !isCompressed())
+            mapRecords();
+    }
+
+    /*
+     * Constructor BinReader(binFilePath, pool)
+     *
+     * Purpose: Initializes a BinReader object that reads records through
+     *          a buffer pool, which other readers may share.
+     * Pre-condition: binFilePath references a valid, readable binary file.
+     * Post-condition: Footer metadata is cached and the file is registered
+     *                 with the pool.
+     * Parameters: binFilePath - Reference to the binary file.
+     *             pool        - Buffer pool to read pages through.
+     */
+    public BinReader(File binFilePath, BufferPool pool) throws IOException {
+        this(binFilePath, false);
+
+        this.pool = pool;
+        poolFileId = pool.addFile(binFileChannel);
+    }
+
+    /*
+     * Method mapRecords()
+     *
+     * Purpose: Maps the record region of the binary file (everything
+     *          before the footer) as a sequence of read-only segments.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: segments covers every record in the file.
+     */
+    private void mapRecords() throws IOException {
+        long dataSize = isPaged() ? (long) pageFirstRecord.length * pageBytes
+                                  : numRecords * recordSizeBytes; // Bytes of record data
+        int numSegments = (int) ((dataSize + MAP_SEGMENT_BYTES - 1) / MAP_SEGMENT_BYTES);
+
+        segments = new MappedByteBuffer[numSegments];
+
+        for (int i = 0; i < numSegments; i++) {
+            long start = i * MAP_SEGMENT_BYTES;
+            long size = Math.min(dataSize - start, MAP_SEGMENT_BYTES + recordSizeBytes);
+
+            segments[i] = binFileChannel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        }
     }
 
     /*
@@ -106,82 +315,187 @@ class BinReader {
      *          information, it computes the size of each record and the
      *          total number of records in the file.
      * Pre-condition: The binary file exists and follows the expected format.
-     * Post-condition: RecordLengths values are populated and record size
+     * Post-condition: The file's RecordLayout is loaded and record size
      *                 and record count are computed.
      */
     public void cacheLengths() throws IOException {
-        long binFileSize = binFilePath.length(); // Total file size in bytes
-        int footerSize = Integer.BYTES * 9;      // Footer contains 9 integers
+        binFileSize = binFilePath.length();         // Total file size in bytes
+        int footerSize = RecordLayout.FOOTER_BYTES; // Footer contains at least 9 integers
+        runStarts = new int[] { 0 };                // One run unless a run table says otherwise
 
-        // If the binary file is improperly formatted or empty, set the
-        // lengths and record size and quantity to 0 and early return
+        // If the binary file is improperly formatted or empty, use an
+        // empty layout and set the record size and quantity to 0
         if (binFileSize <= footerSize) {
-            RecordLengths.maxSeqIDLen     = 0;
-            RecordLengths.maxEntryLen     = 0;
-            RecordLengths.maxSeriesLen    = 0;
-            RecordLengths.maxRealmLen     = 0;
-            RecordLengths.maxContinentLen = 0;
-            RecordLengths.maxBiomeLen     = 0;
-            RecordLengths.maxCountryLen   = 0;
-            RecordLengths.maxCaveLen      = 0;
-            RecordLengths.maxSpeciesLen   = 0;
-
+            layout = RecordLayout.EMPTY;
             recordSizeBytes = 0;
             numRecords = 0;
 
             return;
         }
 
-        // Seek to footer location
-        binFileStream.seek(binFileSize - footerSize);
-
-        // Read maximum string lengths
-        RecordLengths.maxSeqIDLen     = binFileStream.readInt();
-        RecordLengths.maxEntryLen     = binFileStream.readInt();
-        RecordLengths.maxSeriesLen    = binFileStream.readInt();
-        RecordLengths.maxRealmLen     = binFileStream.readInt();
-        RecordLengths.maxContinentLen = binFileStream.readInt();
-        RecordLengths.maxBiomeLen     = binFileStream.readInt();
-        RecordLengths.maxCountryLen   = binFileStream.readInt();
-        RecordLengths.maxCaveLen      = binFileStream.readInt();
-        RecordLengths.maxSpeciesLen   = binFileStream.readInt();
-
-        // Compute total record size in bytes
-        recordSizeBytes =
-            RecordLengths.maxSeqIDLen +
-            RecordLengths.maxEntryLen +
-            RecordLengths.maxSeriesLen +
-            RecordLengths.maxRealmLen +
-            RecordLengths.maxContinentLen +
-            RecordLengths.maxBiomeLen +
-            RecordLengths.maxCountryLen +
-            RecordLengths.maxCaveLen +
-            Double.BYTES * 2 +
-            RecordLengths.maxSpeciesLen;
+        // A compressed or paged file ends with its block or page index instead
+        ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES * 4);
+        readFully(binFileChannel, trailer, binFileSize - trailer.capacity());
+        trailer.flip();
+
+        if (trailer.getInt(Integer.BYTES * 3) == Consts.BIN_FORMAT_COMPRESSED) {
+            cacheBlockIndex(trailer);
+            return;
+        }
+
+        if (trailer.getInt(Integer.BYTES * 3) == Consts.BIN_FORMAT_PAGED) {
+            cachePageIndex(trailer);
+            return;
+        }
+
+        // An appended file may end with a run table after its footer
+        long footerEnd = binFileSize; // File offset just past the layout footer
+        if (trailer.getInt(Integer.BYTES * 3) == Consts.BIN_FORMAT_RUNS)
+            footerEnd = cacheRunTable(trailer);
+
+        // Read maximum string lengths and any dictionaries, and derive
+        // the field offsets
+        layout = readLayout(binFileChannel, footerEnd);
+        recordSizeBytes = layout.recordSize;
 
         // Compute number of records stored before footer
-        numRecords = (int) ((binFileSize - footerSize) / recordSizeBytes);
+        numRecords = (int) ((footerEnd - layout.getFooterBytes()) / recordSizeBytes);
+    }
+
+    /*
+     * Method cacheRunTable(trailer)
+     *
+     * Purpose: Reads the run table that an append wrote after the footer
+     *          of a fixed-width file.
+     * Pre-condition: trailer holds the last four ints of a file ending
+     *                in a run table, the last two of which are the run
+     *                count and Consts.BIN_FORMAT_RUNS.
+     * Post-condition: runStarts holds the first record of each run.
+     * Parameters: trailer - Buffer holding the end of the file
+     * Returns: The file offset where the run table starts, which is
+     *          just past the layout footer.
+     */
+    private long cacheRunTable(ByteBuffer trailer) throws IOException {
+        int numRuns = trailer.getInt(Integer.BYTES * 2);
+
+        ByteBuffer table = ByteBuffer.allocate(numRuns * Integer.BYTES);
+        long tableStart = binFileSize - Integer.BYTES * 2 - table.capacity();
+        readFully(binFileChannel, table, tableStart);
+        table.flip();
+
+        runStarts = new int[numRuns];
+        table.asIntBuffer().get(runStarts);
+
+        return tableStart;
     }
 
     /*
-     * Method readString(len)
+     * Method cacheBlockIndex(trailer)
      *
-     * Purpose: Reads a fixed-length ASCII string from the current
-     *          file position.
-     * Pre-condition: The file pointer is positioned at the start of
-     *                the string to read.
-     * Post-condition: The file pointer advances by len bytes.
-     * Parameters: len - Number of bytes to read.
-     * Returns: String containing the read characters.
+     * Purpose: Reads the block index of a compressed file and the layout
+     *          footer that precedes it.
+     * Pre-condition: trailer holds the last four ints of a compressed
+     *                file: block count, records per block, record count,
+     *                and format code.
+     * Post-condition: The layout, record count, and block offsets are
+     *                 loaded and the block cache is empty.
+     * Parameters: trailer - Buffer holding the end of the file
      */
-    private String readString(int len) throws IOException {
-        if (len == 0)
-            return ""; // No bytes to read
+    private void cacheBlockIndex(ByteBuffer trailer) throws IOException {
+        int numBlocks = trailer.getInt();
+        recordsPerBlock = trailer.getInt();
+        numRecords = trailer.getInt();
+
+        // The index holds one more offset than blocks: the end of the last
+        ByteBuffer index = ByteBuffer.allocate((numBlocks + 1) * Long.BYTES);
+        long indexStart = binFileSize - trailer.capacity() - index.capacity();
+        readFully(binFileChannel, index, indexStart);
+        index.flip();
+
+        blockOffsets = new long[numBlocks + 1];
+        index.asLongBuffer().get(blockOffsets);
 
-        byte[] bytes = new byte[len];
-        binFileStream.readFully(bytes); // Read exact number of bytes
+        layout = readLayout(binFileChannel, indexStart);
+        recordSizeBytes = layout.recordSize;
 
-        return new String(bytes, StandardCharsets.US_ASCII);
+        blockCache = new LinkedHashMap<Integer, byte[]>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+                return size() > Consts.BLOCK_CACHE_BLOCKS;
+            }
+        };
+    }
+
+    /*
+     * Method cachePageIndex(trailer)
+     *
+     * Purpose: Reads the page index of a paged file and the layout footer
+     *          that precedes it.
+     * Pre-condition: trailer holds the last four ints of a paged file:
+     *                page count, page size, record count, and format code.
+     * Post-condition: The layout, record count, and first record of each
+     *                 page are loaded.
+     * Parameters: trailer - Buffer holding the end of the file
+     */
+    private void cachePageIndex(ByteBuffer trailer) throws IOException {
+        int numPages = trailer.getInt();
+        pageBytes = trailer.getInt();
+        numRecords = trailer.getInt();
+
+        ByteBuffer index = ByteBuffer.allocate(numPages * Integer.BYTES);
+        long indexStart = binFileSize - trailer.capacity() - index.capacity();
+        readFully(binFileChannel, index, indexStart);
+        index.flip();
+
+        pageFirstRecord = new int[numPages];
+        index.asIntBuffer().get(pageFirstRecord);
+
+        layout = readLayout(binFileChannel, indexStart);
+        recordSizeBytes = layout.recordSize;
+    }
+
+    /*
+     * Method readLayout(channel, footerEnd)
+     *
+     * Purpose: Reads the layout footer that ends at the given offset,
+     *          first reading its last FOOTER_BYTES to learn its size and
+     *          then, for a dictionary-encoded footer, the whole of it.
+     * Pre-condition: A layout footer ends at footerEnd.
+     * Post-condition: The channel's position is unchanged.
+     * Parameters: channel   - Channel of the file
+     *             footerEnd - File offset just past the layout footer
+     * Returns: The layout the footer describes.
+     */
+    public static RecordLayout readLayout(FileChannel channel, long footerEnd)
+            throws IOException {
+        int footerSize = RecordLayout.FOOTER_BYTES; // Footer contains at least 9 integers
+
+        // Read the end of the footer in one transfer
+        ByteBuffer footer = ByteBuffer.allocate(footerSize);
+        readFully(channel, footer, footerEnd - footerSize);
+        footer.flip();
+
+        // A dictionary-encoded footer is longer; read all of it
+        if (RecordLayout.footerSize(footer) != footerSize) {
+            footerSize = RecordLayout.footerSize(footer);
+            footer = ByteBuffer.allocate(footerSize);
+            readFully(channel, footer, footerEnd - footerSize);
+            footer.flip();
+        }
+
+        return RecordLayout.read(footer);
+    }
+
+    /*
+     * Method newView()
+     *
+     * Purpose: Creates a RecordView sized for this file's records, to be
+     *          reused across calls to readRecord(recordPtr, view).
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: An empty RecordView.
+     */
+    public RecordView newView() {
+        return new RecordView(layout);
     }
 
     /*
@@ -190,45 +504,599 @@ class BinReader {
      * Purpose: Reads a single record at the specified byte offset and
      *          returns it as an immutable Record object.
      * Pre-condition: recordPtr references a valid record location.
-     * Post-condition: The file pointer advances by one record.
-     * Parameters: recordPtr - Byte offset of record in file.
+     * Post-condition: No shared state is modified.
+     * Parameters: recordPtr - Byte offset of record in file, or its page
+     *                         and slot in a paged file.
      * Returns: Populated Record object.
      */
     public Record readRecord(long recordPtr) throws IOException {
-        if (binFilePath.length() == 0) return null;
+        if (binFileSize == 0) return null;
+
+        RecordView view = newView();
+        readRecord(recordPtr, view);
+
+        return view.toRecord();
+    }
+
+    /*
+     * Method readRecord(recordPtr, view)
+     *
+     * Purpose: Loads the record at the specified byte offset into a
+     *          reusable view without decoding any of its fields. The
+     *          whole record is fetched in one transfer, or copied out of
+     *          the mapping in mapped mode or out of its inflated block in
+     *          a compressed file. A paged file's record is unpacked from
+     *          its page.
+     * Pre-condition: recordPtr references a valid record location and
+     *                view was created by newView().
+     * Post-condition: The view holds the record's bytes. The view must
+     *                 not be shared with another thread during the call.
+     * Parameters: recordPtr - Byte offset of record in file, or its page
+     *                         and slot in a paged file.
+     *             view      - View receiving the record.
+     */
+    public void readRecord(long recordPtr, RecordView view) throws IOException {
+        checkPointer(recordPtr);
+
+        if (pageFirstRecord != null) {
+            readSlot(recordPtr, view.getBytes());
+            return;
+        }
+
+        byte[] bytes = view.getBytes(); // Buffer backing the view
+
+        if (blockOffsets != null) {
+            // Copy out of the inflated block holding the record
+            long blockBytes = recordsPerBlock * recordSizeBytes;
+            byte[] block = getBlock((int) (recordPtr / blockBytes));
+            System.arraycopy(block, (int) (recordPtr % blockBytes), bytes, 0, bytes.length);
+        }
+        else if (segments != null) {
+            // Copy straight out of the segment holding the record; an
+            // absolute get leaves the segment's position untouched
+            MappedByteBuffer segment = segments[(int) (recordPtr / MAP_SEGMENT_BYTES)];
+            segment.get((int) (recordPtr % MAP_SEGMENT_BYTES), bytes);
+        }
+        else if (pool != null) {
+            // Copy out of the pool's page or pages holding the record
+            pool.read(poolFileId, recordPtr, bytes, 0, bytes.length);
+        }
+        else {
+            // Read the whole record at its own position
+            readFully(binFileChannel, ByteBuffer.wrap(bytes), recordPtr);
+        }
+    }
+
+    /*
+     * Method checkPointer(recordPtr)
+     *
+     * Purpose: Rejects a pointer that names no record of the file: an
+     *          offset past the last record, or in a paged file a page or
+     *          slot that does not exist.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified.
+     * Parameters: recordPtr - Pointer to check
+     */
+    private void checkPointer(long recordPtr) throws IOException {
+        boolean valid; // Whether the pointer names a record
 
-        if (recordPtr < 0 || recordPtr >= numRecords * recordSizeBytes) {
+        if (pageFirstRecord != null) {
+            long pageNum = recordPtr / pageBytes;
+            valid = recordPtr >= 0 && pageNum < pageFirstRecord.length
+                 && recordPtr % pageBytes < (pageNum + 1 < pageFirstRecord.length
+                                             ? pageFirstRecord[(int) pageNum + 1] : numRecords)
+                                            - pageFirstRecord[(int) pageNum];
+        } else {
+            valid = recordPtr >= 0 && recordPtr < numRecords * recordSizeBytes;
+        }
+
+        if (!valid) {
             throw new IOException(
                 "Attempted to read record at invalid pointer: " + recordPtr);
         }
+    }
+
+    /*
+     * Method readRecords(recordPtrs)
+     *
+     * Purpose: Reads a batch of records. The pointers are sorted and
+     *          duplicates dropped, so the file is visited front to back
+     *          once. Through a buffer pool, each page the batch touches
+     *          is pinned once and every record on it copied out before
+     *          the next page is pinned. Without a mapping, pool, or block
+     *          cache to read from, pointers whose records lie within
+     *          Consts.COALESCE_GAP_BYTES of each other are merged into
+     *          one read of up to Consts.MAX_COALESCED_READ_BYTES, and the
+     *          records are decoded out of that read.
+     * Pre-condition: Every pointer references a valid record location.
+     * Post-condition: No shared state is modified.
+     * Parameters: recordPtrs - Pointers of the records, in any order and
+     *                          possibly repeated
+     * Returns: The record of each pointer, in the order of recordPtrs;
+     *          repeated pointers share one Record.
+     */
+    public Record[] readRecords(long[] recordPtrs) throws IOException {
+        long[] sorted = recordPtrs.clone(); // Distinct pointers, ascending
+        Arrays.sort(sorted);
+
+        int numDistinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1])
+                sorted[numDistinct++] = sorted[i];
+        }
+
+        Record[] distinct = new Record[numDistinct]; // Record of each distinct pointer
+        RecordView view = newView();                  // Reused for every record
+
+        for (int i = 0; i < numDistinct; i++)
+            checkPointer(sorted[i]);
+
+        if (pool != null && blockOffsets == null)
+            readPooled(sorted, numDistinct, distinct, view);
+        else if (segments != null || blockOffsets != null) {
+            // Reads are already cheap or cached; only the order helps
+            for (int i = 0; i < numDistinct; i++) {
+                readRecord(sorted[i], view);
+                distinct[i] = view.toRecord();
+            }
+        }
+        else {
+            for (int first = 0; first < numDistinct; ) {
+                // Extend the run while the next record is close enough
+                long start = extentStart(sorted[first]);
+                long end = start + extentBytes();
+                int last = first;
+
+                while (last + 1 < numDistinct) {
+                    long nextStart = extentStart(sorted[last + 1]);
+                    long nextEnd = nextStart + extentBytes();
+
+                    if (nextStart - end > Consts.COALESCE_GAP_BYTES
+                        || nextEnd - start > Consts.MAX_COALESCED_READ_BYTES)
+                        break;
+
+                    end = Math.max(end, nextEnd);
+                    last++;
+                }
+
+                ByteBuffer run = ByteBuffer.allocate((int) (end - start));
+                readFully(binFileChannel, run, start);
+
+                for (int i = first; i <= last; i++) {
+                    int offset = (int) (extentStart(sorted[i]) - start); // Extent in the run
+
+                    if (pageFirstRecord != null)
+                        SlottedPage.load(run, offset, (int) (sorted[i] % pageBytes),
+                                         layout, view.getBytes());
+                    else
+                        System.arraycopy(run.array(), offset, view.getBytes(), 0,
+                                         (int) recordSizeBytes);
+
+                    distinct[i] = view.toRecord();
+                }
+
+                first = last + 1;
+            }
+        }
+
+        // Hand each caller's pointer its record
+        Record[] records = new Record[recordPtrs.length];
+        for (int i = 0; i < recordPtrs.length; i++)
+            records[i] = distinct[Arrays.binarySearch(sorted, 0, numDistinct, recordPtrs[i])];
+
+        return records;
+    }
+
+    /*
+     * Method readPooled(sorted, numDistinct, distinct, view)
+     *
+     * Purpose: Copies a sorted batch of records out of the buffer pool,
+     *          pinning each page the batch touches once. Neighbouring
+     *          records share the pin of their page, so a batch of k
+     *          records on p pages costs p pins instead of at least k.
+     *          A paged file whose page size is the pool's is unpacked
+     *          straight from the pinned frame.
+     * Pre-condition: The reader has a pool, the file is not compressed,
+     *                and the first numDistinct pointers of sorted are
+     *                ascending and were accepted by checkPointer().
+     * Post-condition: distinct holds the record of each pointer; no page
+     *                 is left pinned.
+     * Parameters: sorted      - Distinct pointers, ascending
+     *             numDistinct - Number of pointers in sorted
+     *             distinct    - Receives the record of each pointer
+     *             view        - View each record is loaded into
+     */
+    private void readPooled(long[] sorted, int numDistinct, Record[] distinct,
+                            RecordView view) throws IOException {
+        int framePageBytes = pool.getPageBytes();
+        boolean direct = pageFirstRecord != null && framePageBytes == pageBytes;
+            // Slots are unpacked straight from the frame
+        byte[] extent = new byte[extentBytes()]; // Bytes of a record, or of its page
+        long pinnedPage = -1; // Pool page currently pinned
+        int frame = -1;       // Its frame, or -1 if none is pinned
+        ByteBuffer page = null; // Bytes of the pinned page
+
+        try {
+            for (int i = 0; i < numDistinct; i++) {
+                long start = extentStart(sorted[i]); // File offset of the record's bytes
+
+                // Pin the pages holding the bytes in turn, one at a time
+                for (int done = 0; done < extent.length; ) {
+                    long pageNum = (start + done) / framePageBytes;
+
+                    if (pageNum != pinnedPage) {
+                        if (frame >= 0) {
+                            pool.unpin(frame);
+                            frame = -1; // Nothing to unpin if the next pin fails
+                        }
+
+                        frame = pool.pin(poolFileId, pageNum);
+                        pinnedPage = pageNum;
+                        page = pool.getPage(frame);
+                    }
+
+                    if (direct)
+                        break;
+
+                    int offset = (int) ((start + done) % framePageBytes); // Start in the page
+                    int n = Math.min(extent.length - done, page.limit() - offset);
+                    if (n <= 0)
+                        throw new EOFException("Unexpected end of file at offset " + (start + done));
+
+                    page.get(offset, extent, done, n);
+                    done += n;
+                }
+
+                if (direct)
+                    SlottedPage.load(page, 0, (int) (sorted[i] % pageBytes), layout, view.getBytes());
+                else if (pageFirstRecord != null)
+                    SlottedPage.load(ByteBuffer.wrap(extent), 0, (int) (sorted[i] % pageBytes),
+                                     layout, view.getBytes());
+                else
+                    System.arraycopy(extent, 0, view.getBytes(), 0, extent.length);
+
+                distinct[i] = view.toRecord();
+            }
+        } finally {
+            if (frame >= 0)
+                pool.unpin(frame);
+        }
+    }
+
+    /*
+     * The following methods describe the bytes one read of a record must
+     * cover: the record itself, or in a paged file its whole page. Both
+     * follow the same pattern:
+     *
+     * Pre-conditions: cacheLengths() has been executed
+     * Post-conditions: No state is modified
+     * Parameters: recordPtr - Pointer of the record
+     * Returns: The file offset of the bytes, or their size
+     */
+    private long extentStart(long recordPtr) {
+        return pageFirstRecord != null ? recordPtr / pageBytes * pageBytes : recordPtr;
+    }
+    private int extentBytes() {
+        return pageFirstRecord != null ? pageBytes : (int) recordSizeBytes;
+    }
+
+    /*
+     * Method readSlot(recordPtr, bytes)
+     *
+     * Purpose: Unpacks the record at a page and slot of a paged file,
+     *          straight out of the mapping in mapped mode or the pinned
+     *          page of a buffer pool with the same page size, or from the
+     *          page read whole otherwise.
+     * Pre-condition: The file is paged and checkPointer() accepted
+     *                recordPtr.
+     * Post-condition: bytes holds the record in fixed-width form.
+     * Parameters: recordPtr - Page offset plus slot of the record
+     *             bytes     - Buffer receiving the record
+     */
+    private void readSlot(long recordPtr, byte[] bytes) throws IOException {
+        long pageNum = recordPtr / pageBytes;    // Page holding the record
+        int slot = (int) (recordPtr % pageBytes); // Slot of the record in its page
+
+        long pageStart = pageNum * pageBytes; // File offset of the page
+
+        if (segments != null) {
+            // Pages never straddle segments, whose size is a multiple of theirs
+            MappedByteBuffer segment = segments[(int) (pageStart / MAP_SEGMENT_BYTES)];
+            SlottedPage.load(segment, (int) (pageStart % MAP_SEGMENT_BYTES), slot, layout, bytes);
+        }
+        else if (pool != null && pool.getPageBytes() == pageBytes) {
+            int frame = pool.pin(poolFileId, pageNum);
 
-        // Seek to beginning of record
-        binFileStream.seek(recordPtr);
+            try {
+                SlottedPage.load(pool.getPage(frame), 0, slot, layout, bytes);
+            } finally {
+                pool.unpin(frame);
+            }
+        }
+        else {
+            ByteBuffer page = ByteBuffer.allocate(pageBytes);
 
-        // Construct Record from fixed-width fields
-        return new Record(
-            readString(RecordLengths.maxSeqIDLen),
-            readString(RecordLengths.maxEntryLen),
-            readString(RecordLengths.maxSeriesLen),
-            readString(RecordLengths.maxRealmLen),
-            readString(RecordLengths.maxContinentLen),
-            readString(RecordLengths.maxBiomeLen),
-            readString(RecordLengths.maxCountryLen),
-            readString(RecordLengths.maxCaveLen),
-            binFileStream.readDouble(),
-            binFileStream.readDouble(),
-            readString(RecordLengths.maxSpeciesLen)
-        );
+            if (pool != null)
+                pool.read(poolFileId, pageStart, page.array(), 0, pageBytes);
+            else
+                readFully(binFileChannel, page, pageStart);
+
+            SlottedPage.load(page, 0, slot, layout, bytes);
+        }
+    }
+
+    /*
+     * Method getBlock(blockNum)
+     *
+     * Purpose: Returns a block of a compressed file, inflated. A cached
+     *          block is returned as is; otherwise only this block's bytes
+     *          are read and inflated, outside the cache's lock, and the
+     *          block replaces the least recently used one in the cache.
+     * Pre-condition: The file is compressed and blockNum is one of its
+     *                blocks.
+     * Post-condition: The block is in the cache.
+     * Parameters: blockNum - Number of the block
+     * Returns: The block's records, which the caller must not modify.
+     */
+    private byte[] getBlock(int blockNum) throws IOException {
+        synchronized (blockCache) {
+            byte[] block = blockCache.get(blockNum);
+            if (block != null)
+                return block;
+        }
+
+        ByteBuffer deflated = ByteBuffer.allocate(
+            (int) (blockOffsets[blockNum + 1] - blockOffsets[blockNum]));
+        readFully(binFileChannel, deflated, blockOffsets[blockNum]);
+
+        byte[] block = inflate(deflated.array(), deflated.capacity(), blockNum);
+
+        synchronized (blockCache) {
+            blockCache.put(blockNum, block);
+        }
+
+        return block;
+    }
+
+    /*
+     * Method inflate(deflated, len, blockNum)
+     *
+     * Purpose: Inflates the records of one block of a compressed file.
+     * Pre-condition: The first len bytes of deflated are the block's
+     *                bytes as stored in the file.
+     * Post-condition: No shared state is modified.
+     * Parameters: deflated - Stored bytes of the block
+     *             len      - Number of stored bytes
+     *             blockNum - Number of the block
+     * Returns: The block's records.
+     */
+    private byte[] inflate(byte[] deflated, int len, int blockNum) throws IOException {
+        int numBlockRecords = Math.min(recordsPerBlock, numRecords - blockNum * recordsPerBlock);
+        byte[] block = new byte[(int) (numBlockRecords * recordSizeBytes)];
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(deflated, 0, len);
+
+            for (int n = 0; n < block.length; ) {
+                int inflated = inflater.inflate(block, n, block.length - n);
+
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+                    throw new IOException("Error: Block " + blockNum + " of "
+                                          + binFilePath + " is truncated");
+                n += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Error: Block " + blockNum + " of "
+                                  + binFilePath + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        return block;
+    }
+
+    /*
+     * Method stream()
+     *
+     * Purpose: Returns every record of the file, in file order, as a
+     *          sequential Stream; call parallel() on it to scan with
+     *          every core.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified until the stream is used.
+     * Returns: A stream of the file's records.
+     */
+    public Stream<Record> stream() {
+        return stream(0, numRecords);
+    }
+
+    /*
+     * Method stream(fromRecord, toRecord)
+     *
+     * Purpose: Returns a range of records, in file order, as a
+     *          sequential Stream. The records are read in large chunks
+     *          with read-ahead by a RecordSpliterator.
+     * Pre-condition: cacheLengths() has been executed.
+     * Post-condition: No state is modified until the stream is used.
+     * Parameters: fromRecord - Number of the first record
+     *             toRecord   - Number one past the last record
+     * Returns: A stream of the records in the range; an
+     *          IndexOutOfBoundsException is thrown instead unless
+     *          0 <= fromRecord <= toRecord <= getNumRecords().
+     */
+    public Stream<Record> stream(int fromRecord, int toRecord) {
+        Objects.checkFromToIndex(fromRecord, toRecord, numRecords);
+
+        return StreamSupport.stream(new RecordSpliterator(this, fromRecord, toRecord), false);
+    }
+
+    /*
+     * The following methods divide the file into the chunks a scan
+     * reads whole: runs of about Consts.SCAN_BUFFER_BYTES of records at
+     * aligned offsets, the same size in whole pages of a paged file, or
+     * single blocks of a compressed file. Chunk getNumChunks() stands
+     * for the end of the file. All follow the same pattern:
+     *
+     * Pre-conditions: cacheLengths() has been executed and the file has
+     *                 records
+     * Post-conditions: No state is modified
+     * Parameters: recordNum - Number of a record, or
+     *             chunk     - Number of a chunk
+     * Returns: The number of chunks, the chunk holding a record, the
+     *          first record of a chunk, or the file offset and size of
+     *          a chunk's stored bytes
+     */
+    int getNumChunks() {
+        return chunkOf(numRecords - 1) + 1;
+    }
+    int chunkOf(int recordNum) {
+        if (blockOffsets != null)
+            return recordNum / recordsPerBlock;
+        if (pageFirstRecord != null)
+            return (int) (getRecordPointer(recordNum) / pageBytes / pagesPerChunk());
+        return recordNum / recordsPerChunk();
+    }
+    int chunkFirstRecord(int chunk) {
+        if (blockOffsets != null)
+            return (int) Math.min(numRecords, (long) chunk * recordsPerBlock);
+        if (pageFirstRecord != null)
+            return (long) chunk * pagesPerChunk() < pageFirstRecord.length
+                 ? pageFirstRecord[chunk * pagesPerChunk()] : numRecords;
+        return (int) Math.min(numRecords, (long) chunk * recordsPerChunk());
+    }
+    long chunkStart(int chunk) {
+        if (blockOffsets != null)
+            return blockOffsets[chunk];
+        if (pageFirstRecord != null)
+            return (long) chunk * pagesPerChunk() * pageBytes;
+        return chunkFirstRecord(chunk) * recordSizeBytes;
+    }
+    int chunkBytes(int chunk) {
+        if (blockOffsets != null)
+            return (int) (blockOffsets[chunk + 1] - blockOffsets[chunk]);
+        if (pageFirstRecord != null)
+            return (Math.min(pageFirstRecord.length, (chunk + 1) * pagesPerChunk())
+                    - chunk * pagesPerChunk()) * pageBytes;
+        return (int) ((chunkFirstRecord(chunk + 1) - chunkFirstRecord(chunk)) * recordSizeBytes);
+    }
+
+    /*
+     * The following methods give the size of a chunk in fixed-width
+     * records, or in pages of a paged file. Both follow the same pattern:
+     *
+     * Pre-conditions: cacheLengths() has been executed
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: Records or pages per chunk, at least one
+     */
+    private int recordsPerChunk() {
+        return (int) Math.max(1, Consts.SCAN_BUFFER_BYTES / Math.max(1, recordSizeBytes));
+    }
+    private int pagesPerChunk() {
+        return Math.max(1, Consts.SCAN_BUFFER_BYTES / pageBytes);
+    }
+
+    /*
+     * Method decodeChunk(chunk, stored)
+     *
+     * Purpose: Turns a chunk's stored bytes into the bytes its records
+     *          are copied out of, inflating them in a compressed file.
+     * Pre-condition: stored holds the chunk's chunkBytes(chunk) bytes,
+     *                read from chunkStart(chunk), from its position 0.
+     * Post-condition: No shared state is modified.
+     * Parameters: chunk  - Number of the chunk
+     *             stored - Stored bytes of the chunk
+     * Returns: stored itself, or the inflated block.
+     */
+    ByteBuffer decodeChunk(int chunk, ByteBuffer stored) throws IOException {
+        if (blockOffsets == null)
+            return stored;
+
+        return ByteBuffer.wrap(inflate(stored.array(), chunkBytes(chunk), chunk));
+    }
+
+    /*
+     * Method readChunkRecord(records, chunk, recordNum, view)
+     *
+     * Purpose: Loads one record of a decoded chunk into a view, unpacking
+     *          it from its page in a paged file.
+     * Pre-condition: records was returned by decodeChunk for the chunk
+     *                holding recordNum.
+     * Post-condition: The view holds the record's bytes.
+     * Parameters: records   - Decoded bytes of the chunk
+     *             chunk     - Number of the chunk
+     *             recordNum - Number of the record
+     *             view      - View receiving the record
+     */
+    void readChunkRecord(ByteBuffer records, int chunk, int recordNum, RecordView view) {
+        byte[] bytes = view.getBytes(); // Buffer backing the view
+
+        if (pageFirstRecord != null) {
+            long recordPtr = getRecordPointer(recordNum);
+            int offset = (int) (recordPtr / pageBytes - (long) chunk * pagesPerChunk()) * pageBytes;
+
+            SlottedPage.load(records, offset, (int) (recordPtr % pageBytes), layout, bytes);
+        }
+        else {
+            int offset = (int) ((recordNum - chunkFirstRecord(chunk)) * recordSizeBytes);
+            records.get(offset, bytes);
+        }
+    }
+
+    /*
+     * Method getScanChannel()
+     *
+     * Purpose: Returns the asynchronous channel that scans read ahead
+     *          with, opening it the first time a scan asks for it.
+     * Pre-condition: The file is open.
+     * Post-condition: The channel is open until close().
+     * Returns: A read-only asynchronous channel of the file.
+     */
+    synchronized AsynchronousFileChannel getScanChannel() throws IOException {
+        if (scanChannel == null)
+            scanChannel = AsynchronousFileChannel.open(binFilePath.toPath(),
+                                                       StandardOpenOption.READ);
+        return scanChannel;
+    }
+
+    /*
+     * Method readFully(channel, buf, position)
+     *
+     * Purpose: Fills a buffer from a channel starting at an absolute
+     *          position. Positional reads do not use or move the
+     *          channel's own position, so concurrent callers cannot
+     *          disturb each other.
+     * Pre-condition: The channel is open for reading.
+     * Post-condition: The buffer has no bytes remaining.
+     * Parameters: channel  - Channel to read from
+     *             buf      - Buffer to fill
+     *             position - File offset of the first byte to read
+     */
+    public static void readFully(FileChannel channel, ByteBuffer buf, long position)
+            throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position);
+
+            if (n < 0)
+                throw new EOFException("Unexpected end of file at offset " + position);
+
+            position += n;
+        }
     }
 
     /*
      * Method close()
      *
-     * Purpose: Closes the binary file stream and releases system resources.
-     * Pre-condition: The file stream is open.
-     * Post-condition: The file stream is closed.
+     * Purpose: Closes the binary file channel and releases system resources.
+     * Pre-condition: The file channel is open.
+     * Post-condition: The file channel is closed.
      */
     public void close() throws IOException {
-        if (binFileStream != null) binFileStream.close();
+        segments = null; // Mappings are released once unreachable
+        if (binFileChannel != null) binFileChannel.close();
+
+        synchronized (this) {
+            if (scanChannel != null) scanChannel.close();
+        }
     }
 }
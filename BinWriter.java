@@ -10,15 +10,26 @@
  * This file defines the BinWriter class, which is responsible for writing
  * bat cave records to a fixed-width binary file compatible with the
  * BinReader class. Each Record object is written sequentially in a
- * fixed-width format determined by RecordLengths. A footer containing the
+ * fixed-width format determined by a RecordLayout. A footer containing the
  * maximum string lengths for each variable-width field is appended to
  * the file to enable correct parsing by BinReader.
  *
  * The BinWriter class performs the following responsibilities:
- * 1. Opens a binary file for writing using RandomAccessFile.
- * 2. Writes all records to the binary file in fixed-width format.
- * 3. Writes footer metadata for RecordLengths.
- * 4. Closes the binary file stream safely.
+ * 1. Opens a binary file for writing using a FileChannel.
+ * 2. Writes records to the binary file in fixed-width format, either all
+ *    at once or one at a time as they are produced, into a new file or
+ *    after the records of an existing one.
+ * 3. Encodes records into a direct buffer and writes it in large blocks.
+ * 4. Optionally collects the key fingerprint of every record written, so
+ *    the hash index can be built without rereading the file.
+ * 5. Writes footer metadata describing the RecordLayout.
+ * 6. Optionally compresses the records in blocks and writes the index of
+ *    those blocks after the footer.
+ * 7. Optionally packs the records, without their padding, into slotted
+ *    pages and writes the first record of each page after the footer.
+ * 8. Writes the first record of each sorted run after the footer when
+ *    an append leaves the file in more than one run.
+ * 9. Flushes and closes the binary file channel safely.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
@@ -29,7 +40,11 @@
  */
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.zip.*;
 
 /*
  * Class: BinWriter
@@ -37,110 +52,748 @@ import java.util.*;
  * Purpose: An object of this class is responsible for writing immutable
  *          Record objects to a fixed-width binary file. Each record is
  *          written sequentially using maximum field lengths stored in
- *          RecordLengths, and a footer containing those lengths is
- *          appended to support correct parsing by BinReader.
+ *          its RecordLayout, and a footer containing those lengths is
+ *          appended to support correct parsing by BinReader. Records
+ *          are encoded into a reusable direct buffer, with padding
+ *          written as fills, and the buffer is flushed to a FileChannel
+ *          in large writes. In compressed mode the buffer holds exactly
+ *          one block of records, and each full buffer is deflated and
+ *          written as one block. Record i stays at the logical offset
+ *          i * layout.recordSize, which BinReader maps to its block, so
+ *          the index needs no change. The compressed footer is:
+ *
+ *            [binary file footer: widths and any dictionaries]
+ *            [file offset of each block, then of the footer, as longs]
+ *            [number of blocks][records per block][number of records]
+ *            [Consts.BIN_FORMAT_COMPRESSED]
+ *
+ *          In paged mode the encoded records are packed into
+ *          SlottedPages of Consts.PAGE_BYTES instead, and each full page
+ *          is written whole. A record's pointer is then its page's file
+ *          offset plus its slot, which BinReader.getRecordPointer gives
+ *          for any record number. The paged footer is:
+ *
+ *            [binary file footer: widths and any dictionaries]
+ *            [number of the first record of each page, as ints]
+ *            [number of pages][page size][number of records]
+ *            [Consts.BIN_FORMAT_PAGED]
+ *
+ *          An append written over the footer of a fixed-width file keeps
+ *          the file's earlier runs and may start a new one. If the file
+ *          then holds more than one sorted run, its footer is followed
+ *          by a run table, which SortedReader reads instead of scanning:
+ *
+ *            [binary file footer: widths and any dictionaries]
+ *            [number of the first record of each run, as ints]
+ *            [number of runs][Consts.BIN_FORMAT_RUNS]
+ *
  * Inherits From: None
  * Interfaces: Closeable
  * Constants: None
- * Constructors: BinWriter(File binFilePath)
- * Class Methods: None
- * Inst. Methods: void writeRecords(ArrayList<Record> records)
+ * Constructors: BinWriter(File binFilePath, RecordLayout layout)
+ * Class Methods: void encode(ByteBuffer buf, Record record, RecordLayout layout)
+ * Inst. Methods: void open()
+ *                void openAppend(int numRecords, int[] runStarts)
+ *                RecordLayout getLayout()
+ *                void writeRecord(Record record)
+ *                void compressBlocks()
+ *                boolean isCompressing()
+ *                void writePages()
+ *                boolean isPaging()
+ *                void collectKeys()
+ *                boolean isCollectingKeys()
+ *                void addKey(long key)
+ *                long[] getKeys()
+ *                void writeBlock(ByteBuffer block)
+ *                void writeRecords(ArrayList<Record> records)
  *                void writeLengths()
  *                void close()
  */
 class BinWriter {
 
     private File binFilePath;               // Binary OS file path
-    private RandomAccessFile binFileStream; // Binary file stream
+    private FileChannel binFileChannel;     // Binary file channel
+    private ByteBuffer buf;                 // Encoded records not yet written
+    private RecordLayout layout;            // Field widths of the records written
+
+    private long[] keys;                    // Entry fingerprints, if collecting keys
+    private int numKeys = 0;                // Fingerprints collected so far
+
+    private Deflater deflater;              // Compresses blocks, if compressing
+    private ByteBuffer compressed;          // Deflated bytes not yet written
+    private int recordsPerBlock;            // Records in each full block
+    private long[] blockOffsets;            // File offset of each block written
+    private int numBlocks = 0;              // Blocks written so far
+    private int numRecords = 0;             // Records in the blocks or pages written
+
+    private SlottedPage page;               // Page being filled, if paging
+    private int[] pageFirstRecord;          // Number of the first record of each page
+    private int numPages = 0;               // Pages written so far
+
+    private int[] runStarts;                // First record of each sorted run, if appending
 
     /*
-     * Constructor BinWriter(binFilePath)
+     * Constructor BinWriter(binFilePath, layout)
      *
      * Purpose: Initializes a BinWriter object with a reference to the
-     *          specified binary file path.
-     * Pre-condition: binFilePath references a valid filesystem location.
-     * Post-condition: The binary file path is stored for later use.
+     *          specified binary file path and the layout to write with.
+     * Pre-condition: binFilePath references a valid filesystem location
+     *                and layout is wide enough for every record.
+     * Post-condition: The binary file path and layout are stored for later use.
      * Parameters: binFilePath - Reference to the binary output file.
+     *             layout      - Field widths of the records to write.
      */
-    public BinWriter(File binFilePath) throws IOException {
+    public BinWriter(File binFilePath, RecordLayout layout) throws IOException {
         this.binFilePath = binFilePath; // Store binary file reference
+        this.layout = layout;
     }
 
     /*
      * Method writeRecords(records)
      *
      * Purpose: Writes all Record objects to the binary file using a
-     *          fixed-width layout determined by RecordLengths.
+     *          fixed-width layout determined by the RecordLayout.
      *          Any existing file data is cleared before writing.
-     * Pre-condition: RecordLengths values are initialized and the
+     * Pre-condition: The RecordLayout is wide enough for, and the
      *                records list contains valid Record objects.
      * Post-condition: All records are written sequentially to the file.
      * Parameters: records - ArrayList of Record objects to write.
      */
     public void writeRecords(ArrayList<Record> records) throws IOException {
+        open();
+
+        // Write each record sequentially
+        for (Record record : records)
+            writeRecord(record);
+    }
+
+    /*
+     * Method open()
+     *
+     * Purpose: Clears any existing file data and opens the binary file
+     *          for writing records one at a time.
+     * Pre-condition: binFilePath references a writable location.
+     * Post-condition: The file is empty and open for writing.
+     */
+    public void open() throws IOException {
         // Remove existing file to clear old data
         if (binFilePath.exists())
             binFilePath.delete();
 
-        // Open binary file stream for writing
-        binFileStream = new RandomAccessFile(binFilePath, "rw");
+        // Open binary file channel for writing
+        binFileChannel = FileChannel.open(binFilePath.toPath(),
+                                          StandardOpenOption.CREATE,
+                                          StandardOpenOption.WRITE,
+                                          StandardOpenOption.TRUNCATE_EXISTING);
 
-        // Write each record sequentially
-        for (Record record : records) {
-
-            // Write all fixed-length string fields with proper padding
-            binFileStream.writeBytes(
-                Record.padField(record.getSeqID(), RecordLengths.maxSeqIDLen) +
-                Record.padField(record.getEntry(), RecordLengths.maxEntryLen) +
-                Record.padField(record.getSeries(), RecordLengths.maxSeriesLen) +
-                Record.padField(record.getRealm(), RecordLengths.maxRealmLen) +
-                Record.padField(record.getContinent(), RecordLengths.maxContinentLen) +
-                Record.padField(record.getBiome(), RecordLengths.maxBiomeLen) +
-                Record.padField(record.getCountry(), RecordLengths.maxCountryLen) +
-                Record.padField(record.getCave(), RecordLengths.maxCaveLen)
-            );
-
-            // Write numeric coordinate fields
-            binFileStream.writeDouble(record.getLatitude());
-            binFileStream.writeDouble(record.getLongitude());
-
-            // Write final fixed-length string field
-            binFileStream.writeBytes(
-                Record.padField(record.getSpecies(), RecordLengths.maxSpeciesLen)
-            );
+        // A compressed file's buffer holds exactly one block
+        if (deflater != null)
+            buf = ByteBuffer.allocateDirect(recordsPerBlock * layout.recordSize);
+        else
+            buf = ByteBuffer.allocateDirect(
+                Math.max(Consts.WRITE_BUFFER_BYTES, layout.recordSize));
+    }
+
+    /*
+     * Method openAppend(numRecords, runStarts)
+     *
+     * Purpose: Opens an existing binary file so that new records are
+     *          written over its footer, right after its last record. The
+     *          old records are neither read nor moved, so the cost is
+     *          proportional to the records appended.
+     * Pre-condition: The file holds numRecords records written with this
+     *                writer's layout, followed by its footer, and is not
+     *                compressed.
+     * Post-condition: The next record written becomes record numRecords.
+     *                 Until writeLengths() completes the file has no
+     *                 valid footer.
+     * Parameters: numRecords - Number of records already in the file.
+     *             runStarts  - First record of each sorted run the file
+     *                          will hold after the append: the old runs,
+     *                          then numRecords if the new records start
+     *                          a run of their own.
+     */
+    public void openAppend(int numRecords, int[] runStarts) throws IOException {
+        this.runStarts = runStarts;
+
+        binFileChannel = FileChannel.open(binFilePath.toPath(), StandardOpenOption.WRITE);
+        binFileChannel.position((long) numRecords * layout.recordSize);
+
+        buf = ByteBuffer.allocateDirect(
+            Math.max(Consts.WRITE_BUFFER_BYTES, layout.recordSize));
+    }
+
+    /*
+     * Method getLayout()
+     *
+     * Purpose: Returns the layout records are written with.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The RecordLayout of this file.
+     */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /*
+     * Method writeRecord(record)
+     *
+     * Purpose: Encodes one Record into the write buffer using the
+     *          fixed-width layout determined by the RecordLayout, flushing
+     *          the buffer first if the record would not fit.
+     * Pre-condition: open() has been called and the RecordLayout is wide
+     *                enough for the record.
+     * Post-condition: The record is queued after the previous one.
+     * Parameters: record - Record to write.
+     */
+    public void writeRecord(Record record) throws IOException {
+        if (buf.remaining() < layout.recordSize)
+            flush();
+
+        int recordStart = buf.position(); // Offset of the record in the buffer
+        encode(buf, record, layout);
+
+        // Fingerprint the key as it was encoded, as a reader will see it
+        if (keys != null)
+            addKey(IndexWriter.fingerprint(buf, recordStart + layout.entryOff,
+                                           layout.entryLen));
+    }
+
+    /*
+     * Method compressBlocks()
+     *
+     * Purpose: Makes the writer compress the records in blocks of about
+     *          Consts.COMPRESSED_BLOCK_BYTES of whole records each. The
+     *          fastest Deflater level is used: padding compresses well at
+     *          any level, and reads pay to inflate a block on every miss.
+     * Pre-condition: open() has not been called yet and writePages()
+     *                has not been called.
+     * Post-condition: Records are compressed from now on.
+     */
+    public void compressBlocks() {
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        compressed = ByteBuffer.allocateDirect(Consts.COMPRESSED_BLOCK_BYTES);
+        recordsPerBlock = Math.max(1, Consts.COMPRESSED_BLOCK_BYTES / layout.recordSize);
+        blockOffsets = new long[64];
+    }
+
+    /*
+     * Method isCompressing()
+     *
+     * Purpose: Reports whether compressBlocks() has been called.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if records are compressed in blocks.
+     */
+    public boolean isCompressing() {
+        return deflater != null;
+    }
+
+    /*
+     * Method writePages()
+     *
+     * Purpose: Makes the writer pack the records into slotted pages of
+     *          Consts.PAGE_BYTES, storing each string field without its
+     *          padding. Records are still encoded at their fixed width
+     *          first, so keys are collected and blocks written as usual.
+     * Pre-condition: open() has not been called yet and compressBlocks()
+     *                has not been called.
+     * Post-condition: Records are packed into pages from now on.
+     */
+    public void writePages() {
+        page = new SlottedPage(layout, Consts.PAGE_BYTES);
+        pageFirstRecord = new int[64];
+    }
+
+    /*
+     * Method isPaging()
+     *
+     * Purpose: Reports whether writePages() has been called.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if records are packed into slotted pages.
+     */
+    public boolean isPaging() {
+        return page != null;
+    }
+
+    /*
+     * Method collectKeys()
+     *
+     * Purpose: Makes the writer remember the Data.entry fingerprint of
+     *          every record it writes, so an index can be built from
+     *          getKeys() without reading the binary file back.
+     * Pre-condition: No record has been written yet.
+     * Post-condition: Fingerprints are collected from now on.
+     */
+    public void collectKeys() {
+        keys = new long[1024];
+        numKeys = 0;
+    }
+
+    /*
+     * Method isCollectingKeys()
+     *
+     * Purpose: Reports whether collectKeys() has been called.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if fingerprints are being collected.
+     */
+    public boolean isCollectingKeys() {
+        return keys != null;
+    }
+
+    /*
+     * Method addKey(key)
+     *
+     * Purpose: Appends the fingerprint of the next record written,
+     *          growing the array as needed.
+     * Pre-condition: collectKeys() has been called and key belongs to the
+     *                record after the previous key's record.
+     * Post-condition: The key is collected.
+     * Parameters: key - Fingerprint of the record's Data.entry
+     */
+    protected void addKey(long key) {
+        if (numKeys == keys.length)
+            keys = Arrays.copyOf(keys, keys.length * 2);
+
+        keys[numKeys++] = key;
+    }
+
+    /*
+     * Method getKeys()
+     *
+     * Purpose: Returns the fingerprints collected, one per record in the
+     *          order written; record i is at BinReader.getRecordPointer(i),
+     *          which is i * layout.recordSize unless the file is paged.
+     * Pre-condition: collectKeys() has been called and every record has
+     *                been written.
+     * Post-condition: No state is modified.
+     * Returns: The fingerprints, or null if keys were not collected.
+     */
+    public long[] getKeys() {
+        return keys == null ? null : Arrays.copyOf(keys, numKeys);
+    }
+
+    /*
+     * Method encode(buf, record, layout)
+     *
+     * Purpose: Encodes one Record in the fixed-width binary format, with
+     *          the dictionary-encoded fields as codes if the layout has
+     *          dictionaries. This needs no open file, so records can be
+     *          encoded on any thread and written later with writeBlock().
+     * Pre-condition: buf has layout.recordSize bytes remaining and the
+     *                layout is wide enough for the record. Each dictionary
+     *                holds the record's value.
+     * Post-condition: The buffer position advances by layout.recordSize.
+     * Parameters: buf    - Destination of the record's bytes
+     *             record - Record to encode
+     *             layout - Field widths to encode with
+     */
+    public static void encode(ByteBuffer buf, Record record, RecordLayout layout) {
+        // Write all fixed-length string fields with proper padding
+        putField(buf, record.getSeqID(), layout.seqIDLen);
+        putField(buf, record.getEntry(), layout.entryLen);
+        putField(buf, record.getSeries(), layout.seriesLen);
+        putField(buf, record.getRealm(), layout.realmLen, layout.realmDict);
+        putField(buf, record.getContinent(), layout.continentLen, layout.continentDict);
+        putField(buf, record.getBiome(), layout.biomeLen, layout.biomeDict);
+        putField(buf, record.getCountry(), layout.countryLen, layout.countryDict);
+        putField(buf, record.getCave(), layout.caveLen);
+
+        // Write numeric coordinate fields (big-endian, as writeDouble)
+        buf.putDouble(record.getLatitude());
+        buf.putDouble(record.getLongitude());
+
+        // Write final fixed-length string field
+        putField(buf, record.getSpecies(), layout.speciesLen, layout.speciesDict);
+    }
+
+    /*
+     * Method writeBlock(block)
+     *
+     * Purpose: Writes a block of records already encoded with encode()
+     *          after any records buffered by writeRecord(). In
+     *          compressed mode the records are added to the current
+     *          block instead, so every block but the last stays full,
+     *          and in paged mode they are packed into pages.
+     * Pre-condition: open() has been called.
+     * Post-condition: The block has no bytes remaining.
+     * Parameters: block - Encoded records, positioned at the first byte
+     */
+    public void writeBlock(ByteBuffer block) throws IOException {
+        if (page != null) {
+            flush();
+            packRecords(block);
+            return;
+        }
+
+        if (deflater != null) {
+            while (block.hasRemaining()) {
+                if (!buf.hasRemaining())
+                    flush();
+
+                int limit = block.limit();
+                block.limit(block.position() + Math.min(buf.remaining(), block.remaining()));
+                buf.put(block);
+                block.limit(limit);
+            }
+
+            return;
         }
+
+        flush();
+
+        while (block.hasRemaining())
+            binFileChannel.write(block);
+    }
+
+    /*
+     * Method putField(buf, str, width)
+     *
+     * Purpose: Encodes a string field into exactly width bytes, one byte
+     *          per character, truncating long values and padding short
+     *          ones with spaces. A blank value is written as all spaces.
+     *          This produces the same bytes as Record.padField without
+     *          building any Strings.
+     * Pre-condition: The buffer has at least width bytes remaining.
+     * Post-condition: The buffer position advances by width.
+     * Parameters: buf   - Destination buffer
+     *             str   - Field value
+     *             width - Fixed width of the field
+     */
+    private static void putField(ByteBuffer buf, String str, int width) {
+        int len = isBlank(str) ? 0 : Math.min(str.length(), width);
+
+        for (int i = 0; i < len; i++)
+            buf.put((byte) str.charAt(i));
+
+        for (int i = len; i < width; i++)
+            buf.put((byte) ' ');
+    }
+
+    /*
+     * Method putField(buf, str, width, dict)
+     *
+     * Purpose: Encodes a field that may be dictionary encoded: as its
+     *          code in the fewest bytes that hold every code of the
+     *          dictionary, or as a fixed-width string without one.
+     * Pre-condition: The buffer has room for the field, and dict, if not
+     *                null, holds the value.
+     * Post-condition: The buffer position advances past the field.
+     * Parameters: buf   - Destination buffer
+     *             str   - Field value
+     *             width - Fixed width of the field's Strings
+     *             dict  - Dictionary of the field, or null
+     */
+    private static void putField(ByteBuffer buf, String str, int width,
+                                 ColumnDictionary dict) {
+        if (dict == null) {
+            putField(buf, str, width);
+            return;
+        }
+
+        int code = dict.codeOf(str);
+        if (code < 0)
+            throw new IllegalArgumentException("Error: \"" + ColumnDictionary.normalize(str)
+                                               + "\" is not in the dictionary");
+
+        switch (dict.getCodeBytes()) {
+            case 1:  buf.put((byte) code); break;
+            case 2:  buf.putShort((short) code); break;
+            default: buf.putInt(code); break;
+        }
+    }
+
+    /*
+     * Method isBlank(str)
+     *
+     * Purpose: Reports whether a string is null or would trim to empty.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Parameters: str - String to test
+     * Returns: True if str has no characters above a space.
+     */
+    private static boolean isBlank(String str) {
+        if (str == null)
+            return true;
+
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) > ' ')
+                return false;
+        }
+
+        return true;
+    }
+
+    /*
+     * Method flush()
+     *
+     * Purpose: Writes the buffered bytes to the file in as few channel
+     *          writes as possible and empties the buffer. In compressed
+     *          mode the buffered records are written as one block, and in
+     *          paged mode they are packed into pages.
+     * Pre-condition: The file channel is open.
+     * Post-condition: The buffer is empty.
+     */
+    private void flush() throws IOException {
+        if (deflater != null) {
+            compressBlock();
+            return;
+        }
+
+        buf.flip();
+
+        if (page != null) {
+            packRecords(buf);
+            buf.clear();
+            return;
+        }
+
+        while (buf.hasRemaining())
+            binFileChannel.write(buf);
+
+        buf.clear();
+    }
+
+    /*
+     * Method compressBlock()
+     *
+     * Purpose: Deflates the buffered records as one block, writes it, and
+     *          records where it starts.
+     * Pre-condition: The file channel is open and compressBlocks() has
+     *                been called.
+     * Post-condition: The buffer is empty.
+     */
+    private void compressBlock() throws IOException {
+        if (buf.position() == 0)
+            return;
+
+        if (numBlocks == blockOffsets.length)
+            blockOffsets = Arrays.copyOf(blockOffsets, numBlocks * 2);
+
+        blockOffsets[numBlocks++] = binFileChannel.position();
+        numRecords += buf.position() / layout.recordSize;
+
+        buf.flip();
+        deflater.reset();
+        deflater.setInput(buf);
+        deflater.finish();
+
+        while (!deflater.finished()) {
+            deflater.deflate(compressed);
+            compressed.flip();
+
+            while (compressed.hasRemaining())
+                binFileChannel.write(compressed);
+
+            compressed.clear();
+        }
+
+        buf.clear();
+    }
+
+    /*
+     * Method packRecords(records)
+     *
+     * Purpose: Packs encoded records into the current page, writing each
+     *          page that fills and starting the next.
+     * Pre-condition: The file channel is open, writePages() has been
+     *                called, and records holds whole encoded records.
+     * Post-condition: records has no bytes remaining.
+     * Parameters: records - Encoded records, positioned at the first byte
+     */
+    private void packRecords(ByteBuffer records) throws IOException {
+        for (int pos = records.position(); pos < records.limit(); pos += layout.recordSize) {
+            if (page.add(records, pos))
+                continue;
+
+            if (page.isEmpty())
+                throw new IOException("Error: A record of " + layout.recordSize
+                                      + " bytes does not fit in a page");
+            writePage();
+            page.add(records, pos);
+        }
+
+        records.position(records.limit());
+    }
+
+    /*
+     * Method writePage()
+     *
+     * Purpose: Writes the current page whole, records which record it
+     *          starts with, and empties it.
+     * Pre-condition: The file channel is open and the page has slots.
+     * Post-condition: The page is empty.
+     */
+    private void writePage() throws IOException {
+        if (numPages == pageFirstRecord.length)
+            pageFirstRecord = Arrays.copyOf(pageFirstRecord, numPages * 2);
+
+        pageFirstRecord[numPages++] = numRecords;
+        numRecords += page.getNumSlots();
+
+        ByteBuffer bytes = page.getPage();
+        while (bytes.hasRemaining())
+            binFileChannel.write(bytes);
+
+        page.clear();
     }
 
     /*
      * Method writeLengths()
      *
      * Purpose: Appends footer metadata containing the maximum string
-     *          lengths for each variable-width field. This information
-     *          is required by BinReader for correct record parsing.
+     *          lengths for each variable-width field, and any
+     *          dictionaries. This information is required by BinReader
+     *          for correct record parsing.
      * Pre-condition: All records have been written to the file.
-     * Post-condition: Footer metadata is appended to the binary file.
+     * Post-condition: Footer metadata is appended to the binary file and
+     *                 ends it.
      */
     public void writeLengths() throws IOException {
+        if (deflater != null) {
+            writeBlockIndex();
+            return;
+        }
+
+        if (page != null) {
+            writePageIndex();
+            return;
+        }
+
+        int footerBytes = layout.getFooterBytes(); // Widths and any dictionaries
+
+        if (buf.remaining() < footerBytes)
+            flush();
+
         // Write maximum length of each string field
-        binFileStream.writeInt(RecordLengths.maxSeqIDLen);
-        binFileStream.writeInt(RecordLengths.maxEntryLen);
-        binFileStream.writeInt(RecordLengths.maxSeriesLen);
-        binFileStream.writeInt(RecordLengths.maxRealmLen);
-        binFileStream.writeInt(RecordLengths.maxContinentLen);
-        binFileStream.writeInt(RecordLengths.maxBiomeLen);
-        binFileStream.writeInt(RecordLengths.maxCountryLen);
-        binFileStream.writeInt(RecordLengths.maxCaveLen);
-        binFileStream.writeInt(RecordLengths.maxSpeciesLen);
+        if (buf.remaining() >= footerBytes) {
+            layout.put(buf);
+            flush();
+        } else {
+            // Dictionaries larger than the buffer get their own block
+            ByteBuffer footer = ByteBuffer.allocate(footerBytes);
+            layout.put(footer);
+            footer.flip();
+            writeBlock(footer);
+        }
+
+        // A file of one run needs no table, so it keeps the plain footer
+        if (runStarts != null && runStarts.length > 1)
+            writeRunTable();
+
+        // Drop anything past the footer, such as a shorter old footer
+        binFileChannel.truncate(binFileChannel.position());
+    }
+
+    /*
+     * Method writeRunTable()
+     *
+     * Purpose: Writes the run table after the footer of an appended
+     *          file: the first record of each run, the number of runs,
+     *          and Consts.BIN_FORMAT_RUNS.
+     * Pre-condition: The footer has been written and flushed, and
+     *                runStarts holds more than one run.
+     * Post-condition: The run table ends the file.
+     */
+    private void writeRunTable() throws IOException {
+        ByteBuffer table = ByteBuffer.allocate((runStarts.length + 2) * Integer.BYTES);
+
+        for (int runStart : runStarts)
+            table.putInt(runStart);
+        table.putInt(runStarts.length);
+        table.putInt(Consts.BIN_FORMAT_RUNS);
+        table.flip();
+
+        while (table.hasRemaining())
+            binFileChannel.write(table);
+    }
+
+    /*
+     * Method writeBlockIndex()
+     *
+     * Purpose: Writes the last, partial block, then the footer of a
+     *          compressed file: the layout followed by the block index.
+     * Pre-condition: All records have been written and compressBlocks()
+     *                has been called.
+     * Post-condition: The footer ends the file.
+     */
+    private void writeBlockIndex() throws IOException {
+        compressBlock();
+
+        ByteBuffer footer = ByteBuffer.allocate(layout.getFooterBytes()
+                                                + (numBlocks + 1) * Long.BYTES
+                                                + Integer.BYTES * 4);
+        layout.put(footer);
+
+        for (int i = 0; i < numBlocks; i++)
+            footer.putLong(blockOffsets[i]);
+        footer.putLong(binFileChannel.position()); // End of the last block
+
+        footer.putInt(numBlocks);
+        footer.putInt(recordsPerBlock);
+        footer.putInt(numRecords);
+        footer.putInt(Consts.BIN_FORMAT_COMPRESSED);
+        footer.flip();
+
+        while (footer.hasRemaining())
+            binFileChannel.write(footer);
+
+        binFileChannel.truncate(binFileChannel.position());
+    }
+
+    /*
+     * Method writePageIndex()
+     *
+     * Purpose: Packs the buffered records, writes the last, partial page,
+     *          then the footer of a paged file: the layout followed by
+     *          the first record of each page.
+     * Pre-condition: All records have been written and writePages() has
+     *                been called.
+     * Post-condition: The footer ends the file.
+     */
+    private void writePageIndex() throws IOException {
+        flush();
+
+        if (!page.isEmpty())
+            writePage();
+
+        ByteBuffer footer = ByteBuffer.allocate(layout.getFooterBytes()
+                                                + numPages * Integer.BYTES
+                                                + Integer.BYTES * 4);
+        layout.put(footer);
+
+        for (int i = 0; i < numPages; i++)
+            footer.putInt(pageFirstRecord[i]);
+
+        footer.putInt(numPages);
+        footer.putInt(Consts.PAGE_BYTES);
+        footer.putInt(numRecords);
+        footer.putInt(Consts.BIN_FORMAT_PAGED);
+        footer.flip();
+
+        while (footer.hasRemaining())
+            binFileChannel.write(footer);
+
+        binFileChannel.truncate(binFileChannel.position());
     }
 
     /*
      * Method close()
      *
-     * Purpose: Closes the binary file stream and releases system resources.
-     * Pre-condition: The binary file stream is open.
-     * Post-condition: The file stream is closed.
+     * Purpose: Writes any buffered records, then closes the binary file
+     *          channel and releases system resources.
+     * Pre-condition: The binary file channel is open.
+     * Post-condition: The file channel is closed.
      */
     public void close() throws IOException {
-        if (binFileStream != null) binFileStream.close();
+        if (binFileChannel != null) {
+            flush();
+            binFileChannel.close();
+        }
+
+        if (deflater != null)
+            deflater.end();
     }
 }
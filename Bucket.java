@@ -0,0 +1,242 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the Bucket class, which is the in-memory form of a
+ * single fixed-size bucket stored in a hash index file. Buckets are
+ * always read and written whole so that each bucket access costs exactly
+ * one seek and one transfer.
+ *
+ * The Bucket class performs the following responsibilities:
+ * 1. Stores the local depth and occupancy of a bucket.
+ * 2. Stores the record pointers held by a bucket, each paired with a
+ *    fingerprint of its record's Data.entry key.
+ * 3. Links a bucket to the next overflow page in its chain.
+ * 4. Reads a bucket from the index file by bucket number, using a
+ *    positional read that is safe to share between threads, or through
+ *    a buffer pool.
+ * 5. Writes a bucket to the index file by bucket number.
+ * 6. Encodes a bucket into a buffer for sequential bulk writes.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac Bucket.java
+ *   Usage: Used by IndexWriter and IndexReader for bucket I/O
+ *   Input: Extendible or linear hash index file
+ *   Output: Bucket objects and updated bucket regions of the index file
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+/*
+ * Class: Bucket
+ * Author: Tom Giallanza
+ * Purpose: An object of this class holds the contents of one index
+ *          bucket: its local depth, the number of occupied slots, the
+ *          bucket number of its next overflow page, and the slots
+ *          themselves. Each slot holds a record pointer and the 64-bit
+ *          fingerprint of that record's key, so a lookup can rule out
+ *          non-matching records without reading the binary file. On
+ *          disk a bucket occupies exactly Consts.BUCKET_SIZE_BYTES bytes.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: NO_OVERFLOW
+ * Constructors: Bucket(int localDepth)
+ * Class Methods: Bucket read(RandomAccessFile stream, int bucketNum)
+ *                Bucket read(FileChannel channel, int bucketNum)
+ *                Bucket read(BufferPool pool, int fileId, int bucketNum)
+ * Inst. Methods: boolean isFull()
+ *                void add(long recordPtr, long key)
+ *                void clear()
+ *                void put(ByteBuffer buf)
+ *                void write(RandomAccessFile stream, int bucketNum)
+ */
+class Bucket {
+
+    public static final int NO_OVERFLOW = -1; // Overflow link of the last page in a chain
+
+    int localDepth;                                     // Hash bits shared by every key in the bucket
+    int size;                                           // Number of occupied pointer slots
+    int overflow;                                       // Bucket number of the next overflow page
+    final long[] ptrs = new long[Consts.BUCKET_CAPACITY]; // Record pointer slots
+    final long[] keys = new long[Consts.BUCKET_CAPACITY]; // Key fingerprint of each slot
+
+    /*
+     * Constructor Bucket(localDepth)
+     *
+     * Purpose: Creates an empty bucket with the given local depth.
+     * Pre-condition: localDepth is non-negative.
+     * Post-condition: The bucket has no occupied slots and no overflow page.
+     * Parameters: localDepth - Number of hash bits the bucket is keyed on.
+     */
+    Bucket(int localDepth) {
+        this.localDepth = localDepth;
+        this.size = 0;
+        this.overflow = NO_OVERFLOW;
+    }
+
+    /*
+     * Method read(stream, bucketNum)
+     *
+     * Purpose: Reads the bucket stored at the given bucket number.
+     * Pre-condition: bucketNum refers to a bucket that has been written.
+     * Post-condition: The file pointer is not moved.
+     * Parameters: stream    - Index file stream
+     *             bucketNum - Bucket number within the index file
+     * Returns: The Bucket stored at that position.
+     */
+    public static Bucket read(RandomAccessFile stream, int bucketNum) throws IOException {
+        return read(stream.getChannel(), bucketNum);
+    }
+
+    /*
+     * Method read(channel, bucketNum)
+     *
+     * Purpose: Reads the bucket stored at the given bucket number with a
+     *          positional read, so many threads may read buckets through
+     *          the same channel at once.
+     * Pre-condition: bucketNum refers to a bucket that has been written.
+     * Post-condition: The channel position is not moved.
+     * Parameters: channel   - Index file channel
+     *             bucketNum - Bucket number within the index file
+     * Returns: The Bucket stored at that position.
+     */
+    public static Bucket read(FileChannel channel, int bucketNum) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Consts.BUCKET_SIZE_BYTES); // Raw bucket contents
+
+        BinReader.readFully(channel, buf, (long) bucketNum * Consts.BUCKET_SIZE_BYTES);
+        buf.flip();
+
+        return decode(buf);
+    }
+
+    /*
+     * Method read(pool, fileId, bucketNum)
+     *
+     * Purpose: Reads the bucket stored at the given bucket number out of
+     *          the buffer pool's pages of the index file. A bucket may
+     *          span two pages.
+     * Pre-condition: bucketNum refers to a bucket that has been written
+     *                and fileId is the index file's id in the pool.
+     * Post-condition: No page is left pinned.
+     * Parameters: pool      - Buffer pool holding the index file's pages
+     *             fileId    - Id of the index file in the pool
+     *             bucketNum - Bucket number within the index file
+     * Returns: The Bucket stored at that position.
+     */
+    public static Bucket read(BufferPool pool, int fileId, int bucketNum) throws IOException {
+        byte[] raw = new byte[Consts.BUCKET_SIZE_BYTES]; // Raw bucket contents
+
+        pool.read(fileId, (long) bucketNum * Consts.BUCKET_SIZE_BYTES, raw, 0, raw.length);
+
+        return decode(ByteBuffer.wrap(raw));
+    }
+
+    /*
+     * Method decode(buf)
+     *
+     * Purpose: Decodes a bucket from its on-disk bytes.
+     * Pre-condition: buf holds a whole bucket, positioned at its start.
+     * Post-condition: The buffer position advances past the occupied slots.
+     * Parameters: buf - Raw bucket contents
+     * Returns: The decoded Bucket.
+     */
+    private static Bucket decode(ByteBuffer buf) {
+        Bucket bucket = new Bucket(buf.getInt());
+        bucket.size = buf.getInt();
+        bucket.overflow = buf.getInt();
+
+        // Only the occupied slots carry meaningful pointers
+        for (int i = 0; i < bucket.size; i++) {
+            bucket.ptrs[i] = buf.getLong();
+            bucket.keys[i] = buf.getLong();
+        }
+
+        return bucket;
+    }
+
+    /*
+     * Method isFull()
+     *
+     * Purpose: Reports whether every pointer slot is occupied.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if no more pointers can be added.
+     */
+    public boolean isFull() {
+        return size == Consts.BUCKET_CAPACITY;
+    }
+
+    /*
+     * Method add(recordPtr, key)
+     *
+     * Purpose: Appends a record pointer and its key fingerprint to the
+     *          next free slot.
+     * Pre-condition: The bucket is not full.
+     * Post-condition: The bucket size is increased by one.
+     * Parameters: recordPtr - Byte offset of the record in the binary file
+     *             key       - Fingerprint of the record's Data.entry value
+     */
+    public void add(long recordPtr, long key) {
+        ptrs[size] = recordPtr;
+        keys[size] = key;
+        size++;
+    }
+
+    /*
+     * Method clear()
+     *
+     * Purpose: Empties the bucket without changing its local depth.
+     * Pre-condition: None.
+     * Post-condition: The bucket has no occupied slots and no overflow page.
+     */
+    public void clear() {
+        size = 0;
+        overflow = NO_OVERFLOW;
+    }
+
+    /*
+     * Method put(buf)
+     *
+     * Purpose: Encodes the whole bucket into a buffer in its on-disk
+     *          layout. Unused slots are filled with dummy values (-1).
+     * Pre-condition: buf has at least Consts.BUCKET_SIZE_BYTES remaining.
+     * Post-condition: The buffer position advances by one bucket.
+     * Parameters: buf - Buffer receiving the encoded bucket
+     */
+    public void put(ByteBuffer buf) {
+        buf.putInt(localDepth);
+        buf.putInt(size);
+        buf.putInt(overflow);
+
+        for (int i = 0; i < Consts.BUCKET_CAPACITY; i++) {
+            buf.putLong(i < size ? ptrs[i] : -1);
+            buf.putLong(i < size ? keys[i] : -1);
+        }
+    }
+
+    /*
+     * Method write(stream, bucketNum)
+     *
+     * Purpose: Writes the whole bucket to the given bucket number.
+     * Pre-condition: The index file stream is open for writing.
+     * Post-condition: The bucket region of the file matches this object.
+     * Parameters: stream    - Index file stream
+     *             bucketNum - Bucket number within the index file
+     */
+    public void write(RandomAccessFile stream, int bucketNum) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Consts.BUCKET_SIZE_BYTES);
+
+        put(buf);
+
+        stream.seek((long) bucketNum * Consts.BUCKET_SIZE_BYTES);
+        stream.write(buf.array());
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the BufferPool class, a fixed set of page frames that
+ * lookups read the binary and index files through. A page read once stays
+ * in its frame until the CLOCK policy picks the frame for another page,
+ * so repeated lookups of the same keys are served from memory, and the
+ * memory used never exceeds the budget the pool was created with.
+ *
+ * The BufferPool class performs the following responsibilities:
+ * 1. Divides a memory budget into frames of one page each.
+ * 2. Registers the files whose pages share the frames.
+ * 3. Pins a page into a frame, reading it on a miss, and unpins it.
+ * 4. Chooses the frame to reuse with the CLOCK policy, never evicting a
+ *    pinned page, and waits for an unpin when every frame is pinned.
+ * 5. Copies any byte range of a file out of its pages.
+ * 6. Counts hits, misses, and evictions.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac BufferPool.java
+ *   Usage: Created by IndexReader and shared with its BinReader
+ *   Input: File channels opened for reading
+ *   Output: Pinned pages and copies of file bytes
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+/*
+ * Class: BufferPool
+ * Author: Tom Giallanza
+ * Purpose: An object of this class caches pages of any number of files
+ *          in a fixed number of frames. Page n of a file is its bytes
+ *          from n * pageBytes; the last page of a file may be shorter.
+ *          A caller pins a page, reads the frame's bytes, and unpins it;
+ *          a pinned page is never evicted. Each frame has a reference
+ *          bit that a hit sets. On a miss the clock hand sweeps the
+ *          frames, clearing set bits, and reuses the first unpinned
+ *          frame whose bit is already clear, so a page survives a sweep
+ *          for every time it was hit since the last. The pool's lock
+ *          guards only its tables: a miss claims its frame under the
+ *          lock, marks it loading, and reads the page after releasing
+ *          it, so lookups of other pages never queue behind the read.
+ *          A thread that wants a page still loading pins its frame and
+ *          waits for the load to finish. A miss that finds every frame
+ *          pinned waits until a frame is unpinned. Since a caller holds
+ *          at most one pin while it pins another page, as read() does,
+ *          some pin is always released and the wait ends. The pool is
+ *          safe to share between threads.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: BufferPool(long budgetBytes, int pageBytes)
+ * Class Methods: None
+ * Inst. Methods: int addFile(FileChannel channel)
+ *                int getPageBytes()
+ *                int getNumFrames()
+ *                int pin(int fileId, long pageNum)
+ *                ByteBuffer getPage(int frame)
+ *                void unpin(int frame)
+ *                void read(int fileId, long position, byte[] dest, int offset, int len)
+ *                long getHits()
+ *                long getMisses()
+ *                long getEvictions()
+ *                String toString()
+ */
+class BufferPool {
+
+    private static final long NO_PAGE = -1; // Page key of an empty frame
+
+    private final int pageBytes;            // Bytes of each page and frame
+    private final byte[][] frames;          // Page bytes held by each frame
+    private final int[] frameBytes;         // Valid bytes of each frame's page
+    private final long[] frameKeys;         // File and page held by each frame
+    private final int[] pinCounts;          // Pins held on each frame
+    private final boolean[] referenced;     // CLOCK reference bit of each frame
+    private final boolean[] loading;        // Frames whose page is still being read
+    private final HashMap<Long, Integer> pageTable = new HashMap<Long, Integer>();
+                                            // Frame holding each cached page
+    private final ArrayList<FileChannel> files = new ArrayList<FileChannel>();
+                                            // Channel of each registered file
+    private int clockHand = 0;              // Next frame the sweep examines
+
+    private long hits = 0;                  // Pins of a page already held
+    private long misses = 0;                // Pins that read their page
+    private long evictions = 0;             // Pages dropped to reuse a frame
+
+    /*
+     * Constructor BufferPool(budgetBytes, pageBytes)
+     *
+     * Purpose: Allocates as many frames as the budget holds, and at least
+     *          one.
+     * Pre-condition: pageBytes is positive.
+     * Post-condition: Every frame is empty and unpinned.
+     * Parameters: budgetBytes - Bytes of page frames to allocate
+     *             pageBytes   - Size of each page
+     */
+    BufferPool(long budgetBytes, int pageBytes) {
+        int numFrames = (int) Math.max(1, Math.min(Integer.MAX_VALUE, budgetBytes / pageBytes));
+
+        this.pageBytes = pageBytes;
+        frames = new byte[numFrames][];
+        frameBytes = new int[numFrames];
+        frameKeys = new long[numFrames];
+        pinCounts = new int[numFrames];
+        referenced = new boolean[numFrames];
+        loading = new boolean[numFrames];
+
+        Arrays.fill(frameKeys, NO_PAGE);
+    }
+
+    /*
+     * Method addFile(channel)
+     *
+     * Purpose: Registers a file whose pages may be pinned.
+     * Pre-condition: The channel is open for reading and its file is not
+     *                modified while the pool holds its pages.
+     * Post-condition: The file has an id no other file shares.
+     * Parameters: channel - Channel to read the file's pages with
+     * Returns: The file's id, for pin() and read().
+     */
+    public synchronized int addFile(FileChannel channel) {
+        files.add(channel);
+        return files.size() - 1;
+    }
+
+    /*
+     * The following methods describe the pool. All follow the same
+     * pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The size of each page, or the number of frames
+     */
+    public int getPageBytes() { return pageBytes; }
+    public int getNumFrames() { return frames.length; }
+
+    /*
+     * Method pin(fileId, pageNum)
+     *
+     * Purpose: Returns the frame holding a page, reading the page into a
+     *          frame chosen by CLOCK if it is not already held, and pins
+     *          it there until unpin(). The page is read without holding
+     *          the pool's lock; other threads pinning the same page wait
+     *          for that read instead of starting their own.
+     * Pre-condition: fileId was returned by addFile(), the page starts
+     *                before the end of the file, and the caller holds no
+     *                other pin of this pool.
+     * Post-condition: The page's frame is pinned once more and holds the
+     *                 page's bytes.
+     * Parameters: fileId  - Id of the file
+     *             pageNum - Page of the file
+     * Returns: The frame, for getPage() and unpin().
+     */
+    public int pin(int fileId, long pageNum) throws IOException {
+        long key = ((long) fileId << 48) | pageNum; // File in the top bits, page below
+        FileChannel channel;                        // Channel to read a missed page with
+        int frame;                                  // Frame of the page
+
+        synchronized (this) {
+            while (true) {
+                Integer cached = pageTable.get(key);
+
+                if (cached != null) {
+                    frame = cached;
+                    pinCounts[frame]++;
+
+                    // The pin keeps the frame from being evicted while its page loads
+                    try {
+                        while (loading[frame])
+                            waitForPool();
+                    } catch (InterruptedIOException e) {
+                        unpin(frame);
+                        throw e;
+                    }
+
+                    if (frameKeys[frame] == key) {
+                        hits++;
+                        referenced[frame] = true;
+                        return frame;
+                    }
+
+                    // The read that was loading the page failed; read it here
+                    unpin(frame);
+                    continue;
+                }
+
+                frame = chooseVictim();
+                if (frame >= 0)
+                    break;
+
+                waitForPool(); // Every frame is pinned until someone unpins
+            }
+
+            misses++;
+
+            if (frameKeys[frame] != NO_PAGE) {
+                pageTable.remove(frameKeys[frame]);
+                evictions++;
+            }
+
+            if (frames[frame] == null)
+                frames[frame] = new byte[pageBytes];
+
+            // Claim the frame for the page before reading it
+            frameKeys[frame] = key;
+            pageTable.put(key, frame);
+            referenced[frame] = true;
+            pinCounts[frame] = 1;
+            loading[frame] = true;
+            channel = files.get(fileId);
+        }
+
+        int numBytes = 0;         // Bytes of the page read
+        IOException error = null; // Failure of the read, if any
+
+        try {
+            numBytes = readPage(channel, frames[frame], pageNum * pageBytes);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        synchronized (this) {
+            loading[frame] = false;
+
+            if (error == null)
+                frameBytes[frame] = numBytes;
+            else {
+                pageTable.remove(key);
+                frameKeys[frame] = NO_PAGE;
+                pinCounts[frame]--;
+            }
+
+            notifyAll(); // Wake the threads waiting for this page or a frame
+        }
+
+        if (error != null)
+            throw error;
+
+        return frame;
+    }
+
+    /*
+     * Method readPage(channel, page, position)
+     *
+     * Purpose: Reads up to a whole page of a file; only the last page of
+     *          a file is short.
+     * Pre-condition: The page starts before the end of the file.
+     * Post-condition: page holds the page's bytes.
+     * Parameters: channel  - Channel of the file
+     *             page     - Frame to read the page into
+     *             position - File offset of the page
+     * Returns: The number of bytes read.
+     */
+    private static int readPage(FileChannel channel, byte[] page, long position)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(page);
+
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0)
+                break;
+        }
+
+        if (buf.position() == 0)
+            throw new EOFException("Unexpected end of file at offset " + position);
+
+        return buf.position();
+    }
+
+    /*
+     * Method waitForPool()
+     *
+     * Purpose: Waits until another thread finishes loading a page or
+     *          unpins a frame.
+     * Pre-condition: The caller holds the pool's lock.
+     * Post-condition: The caller holds the lock again and must recheck
+     *                 the state it was waiting on.
+     */
+    private void waitForPool() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Interrupted while waiting for the buffer pool");
+        }
+    }
+
+    /*
+     * Method chooseVictim()
+     *
+     * Purpose: Sweeps the clock hand to the frame the next page should
+     *          use: an empty frame, or an unpinned frame whose reference
+     *          bit is clear. Set bits are cleared as the hand passes.
+     * Pre-condition: The caller holds the pool's lock.
+     * Post-condition: The hand is past the chosen frame.
+     * Returns: The frame to reuse, or -1 if every frame is pinned.
+     */
+    private int chooseVictim() {
+        // One sweep clears every unpinned frame's bit, so the second
+        // finds a frame unless all of them are pinned
+        for (int step = 0; step < frames.length * 2; step++) {
+            int frame = clockHand;
+            clockHand = (clockHand + 1) % frames.length;
+
+            if (pinCounts[frame] > 0)
+                continue;
+
+            if (frameKeys[frame] == NO_PAGE || !referenced[frame])
+                return frame;
+
+            referenced[frame] = false;
+        }
+
+        return -1;
+    }
+
+    /*
+     * Method getPage(frame)
+     *
+     * Purpose: Returns the bytes of the page a frame holds.
+     * Pre-condition: The caller holds a pin on the frame.
+     * Post-condition: No state is modified.
+     * Parameters: frame - Frame returned by pin()
+     * Returns: A buffer over the page, positioned at its first byte, that
+     *          is valid only until the frame is unpinned.
+     */
+    public synchronized ByteBuffer getPage(int frame) {
+        return ByteBuffer.wrap(frames[frame], 0, frameBytes[frame]).slice();
+    }
+
+    /*
+     * Method unpin(frame)
+     *
+     * Purpose: Releases one pin on a frame, letting its page be evicted
+     *          once no pins remain, and wakes any miss waiting for a frame.
+     * Pre-condition: The caller holds a pin on the frame.
+     * Post-condition: The frame has one pin fewer.
+     * Parameters: frame - Frame returned by pin()
+     */
+    public synchronized void unpin(int frame) {
+        if (--pinCounts[frame] == 0)
+            notifyAll(); // A miss may be waiting for an unpinned frame
+    }
+
+    /*
+     * Method read(fileId, position, dest, offset, len)
+     *
+     * Purpose: Copies a range of a file out of the pages that hold it,
+     *          pinning each page only while its bytes are copied.
+     * Pre-condition: fileId was returned by addFile() and the range lies
+     *                within the file.
+     * Post-condition: dest holds the range; no page is left pinned.
+     * Parameters: fileId   - Id of the file
+     *             position - File offset of the first byte
+     *             dest     - Destination array
+     *             offset   - Offset in dest of the first byte
+     *             len      - Number of bytes to copy
+     */
+    public void read(int fileId, long position, byte[] dest, int offset, int len)
+            throws IOException {
+        while (len > 0) {
+            long pageNum = position / pageBytes;
+            int pageOffset = (int) (position % pageBytes); // Start of the range in the page
+            int frame = pin(fileId, pageNum);
+
+            try {
+                int n = Math.min(len, frameBytes[frame] - pageOffset);
+                if (n <= 0)
+                    throw new EOFException("Unexpected end of file at offset " + position);
+
+                System.arraycopy(frames[frame], pageOffset, dest, offset, n);
+                position += n;
+                offset += n;
+                len -= n;
+            } finally {
+                unpin(frame);
+            }
+        }
+    }
+
+    /*
+     * The following methods return the pool's counters. All follow the
+     * same pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The number of hits, misses, or evictions so far
+     */
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    /*
+     * Method toString()
+     *
+     * Purpose: Formats the pool's size and counters as one report line.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The report line.
+     */
+    public synchronized String toString() {
+        long pins = hits + misses;
+
+        return String.format("buffer pool: %d frames of %d bytes, %d hits, %d misses"
+                             + " (%.1f%% hit rate), %d evictions",
+                             frames.length, pageBytes, hits, misses,
+                             pins == 0 ? 0.0 : 100.0 * hits / pins, evictions);
+    }
+}
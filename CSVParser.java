@@ -14,21 +14,29 @@
  * output compatible with BinWriter and BinReader.
  *
  * The CSVParser class performs the following responsibilities:
- * 1. Opens and reads a CSV file using a BufferedReader.
- * 2. Parses individual CSV fields while handling quoted strings and commas.
+ * 1. Opens and reads a CSV file through a CSVTokenizer, which splits
+ *    fields in a byte buffer without copying them.
+ * 2. Parses individual CSV fields while handling quoted strings and commas,
+ *    converting coordinates straight from their bytes.
  * 3. Converts rows into immutable Record objects.
- * 4. Updates RecordLengths to track maximum string sizes.
+ * 4. Tracks maximum string sizes and reports them as a RecordLayout.
  * 5. Provides a method to read the entire CSV into an ArrayList of Records.
+ * 6. Parses headerless CSV bytes already in memory, such as one mapped
+ *    chunk of a larger file.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac CSVParser.java
  *   Usage: Used by Prog1A or BinWriter to create binary files from CSV input
  *   Input: CSV file of bat cave records
- *   Output: ArrayList of immutable Record objects and updated RecordLengths
+ *   Output: ArrayList of immutable Record objects and their RecordLayout
  */
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import java.util.*;
 
 /*
@@ -42,26 +50,69 @@ import java.util.*;
  * Inherits From: None
  * Interfaces: None
  * Constants: None
- * Constructors: CSVParser(File file)
+ * Constructors: CSVParser()
+ *               CSVParser(File file)
+ *               CSVParser(ByteBuffer bytes)
  * Class Methods: None
  * Inst. Methods: String parseString()
  *                Record parseRecord()
- *                void parseCSV()
+ *                ArrayList<Record> parseCSV()
+ *                ArrayList<Record> parseRecords()
+ *                void skipHeader()
+ *                RecordLayout getLayout()
+ *                void close()
  */
 class CSVParser {
-    private BufferedReader csvFileStream;   // Input CSV file stream
+    private FileChannel csvFileChannel;     // Input CSV file channel, if reading a file
+    private CSVTokenizer tokenizer;         // Splits the input into fields
+    private Charset charset = Charset.defaultCharset(); // Encoding of the CSV text
+
+    private int maxSeqIDLen;                // Maximum length of Dataset sequence ID strings
+    private int maxEntryLen;                // Maximum length of Data.entry strings
+    private int maxSeriesLen;               // Maximum length of Data.series strings
+    private int maxRealmLen;                // Maximum length of Biogeographical.realm strings
+    private int maxContinentLen;            // Maximum length of Continent strings
+    private int maxBiomeLen;                // Maximum length of Biome strings
+    private int maxCountryLen;              // Maximum length of Country.record strings
+    private int maxCaveLen;                 // Maximum length of Cave.site strings
+    private int maxSpeciesLen;              // Maximum length of Species.name strings
 
     /*
      * Constructor CSVParser(file)
      *
-     * Purpose: Initializes a CSVParser object with a BufferedReader
-     *          connected to the specified CSV file.
+     * Purpose: Initializes a CSVParser object that tokenizes the
+     *          specified CSV file through a refilled byte buffer.
      * Pre-condition: File parameter must reference a valid, readable CSV file
-     * Post-condition: A BufferedReader is created and initialized
+     * Post-condition: The file is open and the tokenizer initialized
      * Parameters: file - Reference to the CSV file to be parsed.
      */
     CSVParser(File file) throws IOException {
-        csvFileStream = new BufferedReader(new FileReader(file));
+        csvFileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        tokenizer = new CSVTokenizer(csvFileChannel, Consts.SCAN_BUFFER_BYTES);
+    }
+
+    /*
+     * Constructor CSVParser(bytes)
+     *
+     * Purpose: Initializes a CSVParser object over CSV bytes already in
+     *          memory, such as one mapped chunk of a larger file.
+     * Pre-condition: bytes is positioned at the start of a row.
+     * Post-condition: The tokenizer is initialized over bytes.
+     * Parameters: bytes - Buffer holding the CSV text to be parsed.
+     */
+    CSVParser(ByteBuffer bytes) {
+        tokenizer = new CSVTokenizer(bytes);
+    }
+
+    /*
+     * Constructor CSVParser()
+     *
+     * Purpose: Initializes a CSVParser with no input stream, for
+     *          subclasses that read their input some other way.
+     * Pre-condition: None.
+     * Post-condition: No stream is opened.
+     */
+    protected CSVParser() {
     }
 
     /*
@@ -70,7 +121,7 @@ class CSVParser {
      * Purpose: Reads and returns the next field from the CSV input.
      *          Fields may be enclosed in quotes and may contain commas.
      *          Parsing stops at an unquoted comma, newline, or EOF.
-     * Pre-condition: The BufferedReader is open and positioned at the
+     * Pre-condition: The input is open and positioned at the
      *                start of a CSV field.
      * Post-condition: The file pointer is positioned immediately after
      *                 the field delimiter.
@@ -78,33 +129,45 @@ class CSVParser {
      *           is reached before any characters are read.
      */
     public String parseString() throws IOException {
-        StringBuilder str = new StringBuilder(); // Accumulates characters of the current field
+        if (!tokenizer.nextField())
+            return null; // We hit EOF without parsing any fields
 
-        boolean inQuote = false; // Tracks whether we are inside a quoted string
-        int readResult; // Holds the result of csvFileStream.read() calls
-
-        // Append to the string result until we hit EOF
-        while ((readResult = csvFileStream.read()) != -1) {
-            char c = (char) readResult; // Current character being processed
+        return tokenizer.getString(charset);
+    }
 
-            // We reached the end of a field marked by a comma or newline, return it
-            if ((c == ',' || c == '\n') && !inQuote)
-                return str.toString().trim();
+    /*
+     * Method parseCoordinate()
+     *
+     * Purpose: Reads the next field and converts it to a double directly
+     *          from its bytes. A missing coordinate is replaced with the
+     *          placeholder -1000.
+     * Pre-condition: The input is positioned at the start of a numeric field.
+     * Post-condition: The input is positioned immediately after the
+     *                 field delimiter.
+     * Returns: The coordinate value.
+     */
+    private double parseCoordinate() throws IOException {
+        if (!tokenizer.nextField())
+            throw new IOException("Error: A CSV field is incorrectly formatted");
 
-            // If we hit a quote, skip over it and update the quote state
-            // Otherwise, consume a normal character
-            if (c == '"')
-                inQuote = !inQuote;
-            else
-                str.append(c);
-        }
+        if (tokenizer.getLength() == 0)
+            return -1000;
 
-        // We unexpectedly hit EOF inside of a row
-        if (str.length() != 0)
-            throw new IOException("Error: Unterminated quote in CSV field");
+        return tokenizer.getDouble();
+    }
 
-        // We hit EOF without parsing any fields
-        return null;
+    /*
+     * Method fieldWidth(str)
+     *
+     * Purpose: Returns the width a field needs in the binary file. Empty
+     *          fields are as wide as "null" so they can be displayed.
+     * Pre-condition: str is a trimmed field value.
+     * Post-condition: No state is modified.
+     * Parameters: str - Field value
+     * Returns: Width of the field in characters.
+     */
+    private static int fieldWidth(String str) {
+        return str.isEmpty() ? 4 : str.length();
     }
 
 
@@ -133,8 +196,8 @@ class CSVParser {
         String biome     = parseString();   // Biome field
         String country   = parseString();   // Country.record field
         String cave      = parseString();   // Cave.site field
-        String latitude  = parseString();   // Latitude field (as string, will be converted)
-        String longitude = parseString();   // Longitude field (as string, will be converted)
+        double latitude  = parseCoordinate(); // Latitude field, parsed from its bytes
+        double longitude = parseCoordinate(); // Longitude field, parsed from its bytes
         String species   = parseString();   // Species.name field
 
         // If any of the fields weren't parsed correctly, throw an error
@@ -145,16 +208,10 @@ class CSVParser {
             biome == null ||
             country == null ||
             cave == null ||
-            latitude == null ||
-            longitude == null ||
             species == null) {
             throw new IOException("Error: A CSV field is incorrectly formatted");
         }
 
-        // If either coordinate field is missing, fill it with a placeholder
-        if (longitude == "") longitude = "-1000";
-        if (latitude == "") latitude = "-1000";
-
         // Create a new immutable data record
         Record record = new Record(
             seqID,
@@ -165,32 +222,22 @@ class CSVParser {
             biome,
             country,
             cave,
-            Double.parseDouble(latitude),
-            Double.parseDouble(longitude),
+            latitude,
+            longitude,
             species
         );
 
-        // If any of field is missing, make the length as wide as "null"
-        seqID = Record.nullIfEmpty(seqID);
-        entry = Record.nullIfEmpty(entry);
-        series = Record.nullIfEmpty(series);
-        realm = Record.nullIfEmpty(realm);
-        continent = Record.nullIfEmpty(continent);
-        biome = Record.nullIfEmpty(biome);
-        country = Record.nullIfEmpty(country);
-        cave = Record.nullIfEmpty(cave);
-        species = Record.nullIfEmpty(species);
-
-        // Update the maximum lengths of the parsed fields
-        RecordLengths.maxSeqIDLen      = Math.max(RecordLengths.maxSeqIDLen,      seqID.length());
-        RecordLengths.maxEntryLen      = Math.max(RecordLengths.maxEntryLen,      entry.length());
-        RecordLengths.maxSeriesLen     = Math.max(RecordLengths.maxSeriesLen,     series.length());
-        RecordLengths.maxRealmLen      = Math.max(RecordLengths.maxRealmLen,      realm.length());
-        RecordLengths.maxContinentLen  = Math.max(RecordLengths.maxContinentLen,  continent.length());
-        RecordLengths.maxBiomeLen      = Math.max(RecordLengths.maxBiomeLen,      biome.length());
-        RecordLengths.maxCountryLen    = Math.max(RecordLengths.maxCountryLen,    country.length());
-        RecordLengths.maxCaveLen       = Math.max(RecordLengths.maxCaveLen,       cave.length());
-        RecordLengths.maxSpeciesLen    = Math.max(RecordLengths.maxSpeciesLen,    species.length());
+        // Update the maximum lengths of the parsed fields; a missing
+        // field is as wide as "null"
+        maxSeqIDLen      = Math.max(maxSeqIDLen,      fieldWidth(seqID));
+        maxEntryLen      = Math.max(maxEntryLen,      fieldWidth(entry));
+        maxSeriesLen     = Math.max(maxSeriesLen,     fieldWidth(series));
+        maxRealmLen      = Math.max(maxRealmLen,      fieldWidth(realm));
+        maxContinentLen  = Math.max(maxContinentLen,  fieldWidth(continent));
+        maxBiomeLen      = Math.max(maxBiomeLen,      fieldWidth(biome));
+        maxCountryLen    = Math.max(maxCountryLen,    fieldWidth(country));
+        maxCaveLen       = Math.max(maxCaveLen,       fieldWidth(cave));
+        maxSpeciesLen    = Math.max(maxSpeciesLen,    fieldWidth(species));
 
         return record;
     }
@@ -208,20 +255,73 @@ class CSVParser {
      * Returns: An ArrayList of Record objects, one per row  
      */
     public ArrayList<Record> parseCSV() throws IOException {
-        ArrayList<Record> records = new ArrayList<Record>();    // Array of records to be stored
-        Record currRecord; // Holds the current record being processed
-
         // Consume the header
-        csvFileStream.readLine(); 
+        skipHeader();
 
         // Read the rest of the rows in the file
-        while ((currRecord = parseRecord()) != null)
-            records.add(currRecord);
+        ArrayList<Record> records = parseRecords();
 
         // Close the file stream when done reading
-        csvFileStream.close();
+        close();
 
         return records;
     }
 
+    /*
+     * Method skipHeader()
+     *
+     * Purpose: Consumes the header row so that parseRecord() can be
+     *          called row by row on the data that follows.
+     * Pre-condition: The input is positioned at the start of the file.
+     * Post-condition: The input is positioned at the first data row.
+     */
+    public void skipHeader() throws IOException {
+        tokenizer.skipLine();
+    }
+
+    /*
+     * Method parseRecords()
+     *
+     * Purpose: Reads every remaining row of the input and converts each
+     *          into a Record object. No header row is expected.
+     * Pre-condition: The input is positioned at the start of a row.
+     * Post-condition: The input has been read to EOF.
+     * Returns: An ArrayList of Record objects, one per row
+     */
+    public ArrayList<Record> parseRecords() throws IOException {
+        ArrayList<Record> records = new ArrayList<Record>();    // Array of records to be stored
+        Record currRecord; // Holds the current record being processed
+
+        while ((currRecord = parseRecord()) != null)
+            records.add(currRecord);
+
+        return records;
+    }
+
+    /*
+     * Method getLayout()
+     *
+     * Purpose: Returns the fixed-width layout wide enough for every
+     *          record parsed so far.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The RecordLayout of the parsed records.
+     */
+    public RecordLayout getLayout() {
+        return new RecordLayout(maxSeqIDLen, maxEntryLen, maxSeriesLen,
+                                maxRealmLen, maxContinentLen, maxBiomeLen,
+                                maxCountryLen, maxCaveLen, maxSpeciesLen);
+    }
+
+    /*
+     * Method close()
+     *
+     * Purpose: Closes the CSV input stream.
+     * Pre-condition: None.
+     * Post-condition: The input stream is closed.
+     */
+    public void close() throws IOException {
+        if (csvFileChannel != null) csvFileChannel.close();
+    }
+
 }
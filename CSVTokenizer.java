@@ -0,0 +1,351 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the CSVTokenizer class, which splits CSV input into
+ * fields directly in a byte buffer. A field is reported as a slice of the
+ * buffer (an offset and a length) rather than copied into a String, so a
+ * caller pays for a String only when it keeps one, and numeric fields are
+ * converted straight from their bytes.
+ *
+ * The CSVTokenizer class performs the following responsibilities:
+ * 1. Scans a byte buffer for fields separated by unquoted commas and
+ *    newlines.
+ * 2. Trims each field and skips its quote characters without copying.
+ * 3. Refills the buffer from a channel when the input is streamed.
+ * 4. Builds a String from the current field on demand.
+ * 5. Parses a decimal field to a double from its bytes.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac CSVTokenizer.java
+ *   Usage: Used by CSVParser to read CSV files and mapped CSV chunks
+ *   Input: Bytes of a CSV file in an ASCII-compatible encoding
+ *   Output: Field slices, Strings, and doubles
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+
+/*
+ * Class: CSVTokenizer
+ * Author: Tom Giallanza
+ * Purpose: An object of this class walks the fields of CSV input held
+ *          in a ByteBuffer. A field runs to the next comma or newline
+ *          outside quotes; its quote characters are dropped and the
+ *          remainder is trimmed, as CSVParser has always done. The
+ *          trimmed field is kept as a start and end offset plus a count
+ *          of the quote bytes inside it, so nothing is copied unless a
+ *          String is requested. Input is either a fixed buffer, such as
+ *          a mapped chunk, or a buffer refilled from a channel.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: POW10
+ * Constructors: CSVTokenizer(ByteBuffer buf)
+ *               CSVTokenizer(ReadableByteChannel source, int bufferBytes)
+ * Class Methods: None
+ * Inst. Methods: boolean nextField()
+ *                void skipLine()
+ *                int getStart()
+ *                int getEnd()
+ *                int getLength()
+ *                String getString(Charset charset)
+ *                double getDouble()
+ */
+class CSVTokenizer {
+
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };  // Powers of ten that are exact doubles
+
+    private ByteBuffer buf;              // Bytes being tokenized
+    private ReadableByteChannel source;  // Channel refilling buf, or null
+    private int pos;                     // Offset of the next unscanned byte
+    private int limit;                   // Offset just past the valid bytes
+
+    private int start;                   // Offset of the field's first kept byte
+    private int end;                     // Offset just past its last kept byte
+    private int quotes;                  // Quote bytes between start and end
+
+    private byte[] scratch = new byte[64]; // Copy buffer for non-heap buffers
+
+    /*
+     * Constructor CSVTokenizer(buf)
+     *
+     * Purpose: Tokenizes the remaining bytes of a fixed buffer.
+     * Pre-condition: buf is positioned at the start of a field.
+     * Post-condition: The buffer's position and limit are not used again.
+     * Parameters: buf - Buffer holding the CSV input.
+     */
+    CSVTokenizer(ByteBuffer buf) {
+        this.buf = buf;
+        this.pos = buf.position();
+        this.limit = buf.limit();
+    }
+
+    /*
+     * Constructor CSVTokenizer(source, bufferBytes)
+     *
+     * Purpose: Tokenizes a channel through a buffer that is refilled as
+     *          fields are consumed.
+     * Pre-condition: source is open and positioned at the start of a field.
+     * Post-condition: The buffer is empty until the first field is read.
+     * Parameters: source      - Channel supplying the CSV input.
+     *             bufferBytes - Initial size of the refill buffer.
+     */
+    CSVTokenizer(ReadableByteChannel source, int bufferBytes) {
+        this.buf = ByteBuffer.allocate(bufferBytes);
+        this.source = source;
+        this.pos = 0;
+        this.limit = 0;
+    }
+
+    /*
+     * Method refill(keepFrom)
+     *
+     * Purpose: Moves the unconsumed bytes from keepFrom to the front of
+     *          the buffer and reads more input after them, doubling the
+     *          buffer if a single field fills it.
+     * Pre-condition: The input is streamed from a channel.
+     * Post-condition: Offsets are shifted by keepFrom.
+     * Parameters: keepFrom - Offset of the first byte still needed.
+     * Returns: False if the channel has no more input.
+     */
+    private boolean refill(int keepFrom) throws IOException {
+        if (source == null)
+            return false;
+
+        int kept = limit - keepFrom; // Bytes carried over
+
+        if (kept == buf.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+            bigger.put(buf.array(), keepFrom, kept);
+            buf = bigger;
+        }
+        else {
+            System.arraycopy(buf.array(), keepFrom, buf.array(), 0, kept);
+            buf.position(kept);
+        }
+
+        buf.limit(buf.capacity());
+        int n = source.read(buf);
+
+        pos -= keepFrom;
+        limit = kept + Math.max(n, 0);
+
+        return n > 0;
+    }
+
+    /*
+     * Method skipLine()
+     *
+     * Purpose: Skips the rest of the current line, ignoring quotes, as
+     *          BufferedReader.readLine() would for a header row.
+     * Pre-condition: None.
+     * Post-condition: The next field starts after the next newline.
+     */
+    public void skipLine() throws IOException {
+        while (true) {
+            while (pos < limit) {
+                if (buf.get(pos++) == '\n')
+                    return;
+            }
+
+            if (!refill(pos))
+                return;
+        }
+    }
+
+    /*
+     * Method nextField()
+     *
+     * Purpose: Advances to the next field. The field's bounds exclude
+     *          leading and trailing quotes and whitespace; any quote
+     *          bytes left inside are counted so they can be skipped.
+     * Pre-condition: None.
+     * Post-condition: The previous field's offsets are no longer valid.
+     * Returns: False if the input ended before any field content.
+     */
+    public boolean nextField() throws IOException {
+        int fieldPos = pos;      // Offset where this field begins
+        boolean inQuote = false; // Whether the scan is inside quotes
+        int delim = -1;          // Offset of the terminating delimiter
+
+        // Find the delimiter that ends the field, refilling as needed
+        while (delim < 0) {
+            while (pos < limit) {
+                byte b = buf.get(pos);
+
+                if (b == '"') {
+                    inQuote = !inQuote;
+                }
+                else if ((b == ',' || b == '\n') && !inQuote) {
+                    delim = pos;
+                    break;
+                }
+
+                pos++;
+            }
+
+            if (delim >= 0)
+                break;
+
+            // Keep the bytes of this field; a refill moves them to the front
+            boolean more = refill(fieldPos);
+            if (source != null)
+                fieldPos = 0;
+
+            if (!more) {
+                delim = limit; // The input ends the field
+                break;
+            }
+        }
+
+        // Drop leading and trailing whitespace and quotes
+        start = fieldPos;
+        end = delim;
+        while (start < end && isTrimmed(buf.get(start)))
+            start++;
+        while (end > start && isTrimmed(buf.get(end - 1)))
+            end--;
+
+        quotes = 0;
+        for (int i = start; i < end; i++) {
+            if (buf.get(i) == '"')
+                quotes++;
+        }
+
+        // EOF reached without a delimiter
+        if (delim == limit) {
+            pos = limit;
+
+            if (start < end)
+                throw new IOException("Error: Unterminated quote in CSV field");
+
+            return false;
+        }
+
+        pos = delim + 1; // Consume the delimiter
+        return true;
+    }
+
+    /*
+     * Method isTrimmed(b)
+     *
+     * Purpose: Reports whether a byte at either end of a field is removed,
+     *          either as a quote or as whitespace that trim() would drop.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Parameters: b - Byte to test
+     * Returns: True if the byte is not part of the field's value.
+     */
+    private static boolean isTrimmed(byte b) {
+        return b == '"' || (b >= 0 && b <= ' ');
+    }
+
+    /*
+     * The following methods describe the current field. All follow the
+     * same pattern:
+     *
+     * Pre-conditions: nextField() has returned true
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The start offset, end offset, or length in bytes of the
+     *          trimmed field; the length excludes quote bytes
+     */
+    public int getStart() { return start; }
+    public int getEnd() { return end; }
+    public int getLength() { return end - start - quotes; }
+
+    /*
+     * Method getString(charset)
+     *
+     * Purpose: Builds a String from the current field, leaving out any
+     *          quote bytes inside it.
+     * Pre-condition: nextField() has returned true.
+     * Post-condition: No state is modified.
+     * Parameters: charset - Encoding of the CSV input
+     * Returns: The field's value.
+     */
+    public String getString(Charset charset) {
+        int len = end - start;
+
+        // A heap buffer with no inner quotes can be decoded in place
+        if (quotes == 0 && buf.hasArray())
+            return new String(buf.array(), buf.arrayOffset() + start, len, charset);
+
+        if (scratch.length < len)
+            scratch = new byte[Math.max(len, scratch.length * 2)];
+
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
+            if (b != '"')
+                scratch[n++] = b;
+        }
+
+        return new String(scratch, 0, n, charset);
+    }
+
+    /*
+     * Method getDouble()
+     *
+     * Purpose: Parses the current field as a double without building a
+     *          String. Plain decimals with at most 18 significant digits
+     *          and 22 fraction digits are converted with one exactly
+     *          rounded multiply or divide; any other form falls back to
+     *          Double.parseDouble so results and errors are unchanged.
+     * Pre-condition: nextField() has returned true.
+     * Post-condition: No state is modified.
+     * Returns: The value of the field.
+     */
+    public double getDouble() {
+        int i = start;
+        boolean negative = false;
+
+        if (quotes == 0 && i < end && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;     // Digits read so far, ignoring the point
+        int digits = 0;        // Significant digits in mantissa
+        int fraction = -1;     // Digits after the point, -1 before it
+        boolean simple = quotes == 0 && i < end;
+
+        for (; i < end && simple; i++) {
+            byte b = buf.get(i);
+
+            if (b >= '0' && b <= '9') {
+                if (mantissa != 0 || b != '0')
+                    digits++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction >= 0)
+                    fraction++;
+            }
+            else if (b == '.' && fraction < 0) {
+                fraction = 0;
+            }
+            else {
+                simple = false;
+            }
+        }
+
+        // Both operands are exact, so one operation rounds correctly
+        if (simple && digits <= 18 && fraction <= 22 && fraction != 0
+                && mantissa < (1L << 53)) {
+            double value = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+            return negative ? -value : value;
+        }
+
+        return Double.parseDouble(getString(StandardCharsets.US_ASCII));
+    }
+}
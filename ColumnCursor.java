@@ -0,0 +1,198 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ColumnCursor class, a forward-only cursor over
+ * one column of a columnar file. The cursor reads the column in large
+ * sequential blocks and decodes the current value only when asked for
+ * it, as RecordView does for a record.
+ *
+ * The ColumnCursor class performs the following responsibilities:
+ * 1. Reads one column's region in blocks of whole values.
+ * 2. Steps through the column one row at a time.
+ * 3. Decodes the current value as a String, a double, or a dictionary
+ *    code.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ColumnCursor.java
+ *   Usage: Created by ColumnReader.cursor()
+ *   Input: Column region of a columnar file
+ *   Output: Values of one field, in record order
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Class: ColumnCursor
+ * Author: Tom Giallanza
+ * Purpose: An object of this class scans one column from its first row
+ *          to its last. Values are stored back to back at the column's
+ *          stored width, so row i is at a fixed offset and each block
+ *          read fills the buffer with as many whole values as fit. A
+ *          cursor is used by one thread at a time.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: ColumnCursor(FileChannel channel, RecordLayout layout,
+ *                            int field, long start, int numRecords)
+ * Class Methods: None
+ * Inst. Methods: boolean next()
+ *                int getRow()
+ *                ColumnDictionary getDictionary()
+ *                String getString()
+ *                double getDouble()
+ *                int getCode()
+ */
+class ColumnCursor {
+
+    private final FileChannel channel;      // Channel of the columnar file
+    private final long start;               // File offset of the column
+    private final int numRecords;           // Rows in the column
+    private final int valueBytes;           // Stored size of one value
+    private final int width;                // Width of the decoded Strings
+    private final ColumnDictionary dict;    // Dictionary of the field, or null
+
+    private final ByteBuffer buf;           // Block of values read from the column
+    private final byte[] bytes;             // Array backing buf
+    private int firstBuffered = 0;          // Row of the first value in buf
+    private int numBuffered = 0;            // Values in buf
+    private int row = -1;                   // Current row
+    private int pos;                        // Offset of the current value in buf
+
+    /*
+     * Constructor ColumnCursor(channel, layout, field, start, numRecords)
+     *
+     * Purpose: Creates a cursor before the first row of a column.
+     * Pre-condition: start and numRecords describe the field's column in
+     *                a file laid out with layout.
+     * Post-condition: The cursor is ready for next().
+     * Parameters: channel    - Channel of the columnar file.
+     *             layout     - Layout of the dataset.
+     *             field      - Field number of the column.
+     *             start      - File offset of the column.
+     *             numRecords - Rows in the column.
+     */
+    ColumnCursor(FileChannel channel, RecordLayout layout, int field,
+                 long start, int numRecords) {
+        this.channel = channel;
+        this.start = start;
+        this.numRecords = numRecords;
+        this.valueBytes = layout.fieldBytes(field);
+        this.width = layout.fieldWidth(field);
+        this.dict = layout.fieldDictionary(field);
+
+        // Hold whole values only, so no value straddles two blocks
+        int capacity = valueBytes == 0 ? 0
+                     : Math.max(1, Consts.SCAN_BUFFER_BYTES / valueBytes) * valueBytes;
+        buf = ByteBuffer.allocate(capacity);
+        bytes = buf.array();
+    }
+
+    /*
+     * Method next()
+     *
+     * Purpose: Advances to the next row, reading the next block of the
+     *          column once the buffered values are used up.
+     * Pre-condition: The columnar file is open.
+     * Post-condition: The cursor is on the next row, if there is one.
+     * Returns: True if the cursor is on a row, false past the last one.
+     */
+    public boolean next() throws IOException {
+        if (row + 1 >= numRecords) {
+            row = numRecords;
+            return false;
+        }
+
+        row++;
+
+        if (row >= firstBuffered + numBuffered && valueBytes > 0) {
+            firstBuffered = row;
+            numBuffered = Math.min(buf.capacity() / valueBytes, numRecords - row);
+
+            buf.clear().limit(numBuffered * valueBytes);
+            BinReader.readFully(channel, buf, start + (long) row * valueBytes);
+        }
+
+        pos = (row - firstBuffered) * valueBytes;
+        return true;
+    }
+
+    /*
+     * Method getRow()
+     *
+     * Purpose: Returns the record number of the current row, which is
+     *          the same in every column of the file.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The current row, -1 before the first call to next().
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /*
+     * Method getDictionary()
+     *
+     * Purpose: Returns the dictionary of the column, so a filter can turn
+     *          a value into the code getCode() is compared with.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The column's dictionary, or null if it is not encoded.
+     */
+    public ColumnDictionary getDictionary() {
+        return dict;
+    }
+
+    /*
+     * Method getString()
+     *
+     * Purpose: Decodes the current value of a string column, looking up
+     *          its code if the column is dictionary encoded.
+     * Pre-condition: next() returned true and the column holds Strings.
+     * Post-condition: No state is modified.
+     * Returns: The value, including its padding, as Record would hold it.
+     */
+    public String getString() {
+        if (dict != null)
+            return dict.get(getCode());
+
+        return new String(bytes, pos, width, StandardCharsets.US_ASCII);
+    }
+
+    /*
+     * Method getDouble()
+     *
+     * Purpose: Decodes the current value of the latitude or longitude
+     *          column.
+     * Pre-condition: next() returned true and the column holds doubles.
+     * Post-condition: No state is modified.
+     * Returns: The value.
+     */
+    public double getDouble() {
+        return buf.getDouble(pos);
+    }
+
+    /*
+     * Method getCode()
+     *
+     * Purpose: Returns the dictionary code of the current value, which
+     *          equals another value's code exactly when the values are
+     *          equal.
+     * Pre-condition: next() returned true and the column is dictionary
+     *                encoded.
+     * Post-condition: No state is modified.
+     * Returns: The code.
+     */
+    public int getCode() {
+        return dict.getCode(bytes, pos);
+    }
+}
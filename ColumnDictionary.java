@@ -0,0 +1,285 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ColumnDictionary class, which maps the distinct
+ * values of one low-cardinality string column to small integer codes. A
+ * dictionary-encoded binary file stores each such field as its code, and
+ * the dictionaries themselves once, in the file's footer.
+ *
+ * The ColumnDictionary class performs the following responsibilities:
+ * 1. Assigns codes to a column's distinct values in sorted order.
+ * 2. Chooses the fewest bytes (1, 2, or 4) that can hold every code.
+ * 3. Looks up the code of a value and the value of a code.
+ * 4. Reads and writes the dictionary in a binary file's footer.
+ * 5. Extends a dictionary with new values without changing old codes.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ColumnDictionary.java
+ *   Usage: Used by RecordLayout, BinWriter, RecordView, and DictionaryBuilder
+ *   Input: Distinct column values, or a footer holding them
+ *   Output: Codes, decoded values, and footer bytes
+ */
+
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/*
+ * Class: ColumnDictionary
+ * Author: Tom Giallanza
+ * Purpose: An immutable object of this class is the dictionary of one
+ *          column. Values are held without their trailing padding for
+ *          lookups and also padded to the column's width, so a decoded
+ *          field is exactly the String a fixed-width file would give.
+ *          Decoding is an array lookup, and two fields of the column are
+ *          equal exactly when their codes are.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: ColumnDictionary(String[] values, int width)
+ * Class Methods: String normalize(String value)
+ *                ColumnDictionary of(Collection<String> values, int width)
+ *                ColumnDictionary read(ByteBuffer buf, int width)
+ * Inst. Methods: int size()
+ *                int getCodeBytes()
+ *                int codeOf(String value)
+ *                int getCode(byte[] bytes, int offset)
+ *                String get(int code)
+ *                ColumnDictionary extend(Collection<String> newValues)
+ *                int getFooterBytes()
+ *                void put(ByteBuffer buf)
+ */
+class ColumnDictionary {
+
+    private final String[] values;  // Normalized value of each code
+    private final String[] padded;  // Value of each code padded to the width
+    private final HashMap<String, Integer> codes = new HashMap<String, Integer>();
+                                    // Code of each normalized value
+    private final int width;        // Width of the column's strings
+    private final int codeBytes;    // Bytes used to store one code
+
+    /*
+     * Constructor ColumnDictionary(values, width)
+     *
+     * Purpose: Creates a dictionary in which code i stands for values[i].
+     * Pre-condition: values are normalized, distinct, and at most width long.
+     * Post-condition: The dictionary is fully initialized and immutable.
+     * Parameters: values - Value of each code.
+     *             width  - Width of the column's strings.
+     */
+    ColumnDictionary(String[] values, int width) {
+        this.values = values;
+        this.width = width;
+        this.padded = new String[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            codes.put(values[i], i);
+            padded[i] = String.format("%-" + width + "s", values[i]);
+        }
+
+        codeBytes = values.length <= (1 << 8) ? 1 : values.length <= (1 << 16) ? 2 : 4;
+    }
+
+    /*
+     * Method normalize(value)
+     *
+     * Purpose: Reduces a field value to the form a dictionary holds: the
+     *          characters BinWriter would store, without the trailing
+     *          spaces that padding would add back. A blank value becomes
+     *          the empty string, as BinWriter stores it as all spaces.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Parameters: value - Field value, padded or not
+     * Returns: The normalized value.
+     */
+    public static String normalize(String value) {
+        if (value == null || value.trim().isEmpty())
+            return "";
+
+        int end = value.length();
+        while (value.charAt(end - 1) == ' ')
+            end--;
+
+        return value.substring(0, end);
+    }
+
+    /*
+     * Method of(values, width)
+     *
+     * Purpose: Builds a dictionary of the given values in sorted order,
+     *          so codes compare in the same order as their values.
+     * Pre-condition: values are normalized and distinct.
+     * Post-condition: No state is modified.
+     * Parameters: values - Distinct values of the column
+     *             width  - Width of the column's strings
+     * Returns: The dictionary.
+     */
+    public static ColumnDictionary of(Collection<String> values, int width) {
+        String[] sorted = values.toArray(new String[0]);
+        Arrays.sort(sorted);
+
+        return new ColumnDictionary(sorted, width);
+    }
+
+    /*
+     * Method read(buf, width)
+     *
+     * Purpose: Decodes a dictionary written by put(). Values are decoded
+     *          as US-ASCII, as the fields of a fixed-width file are.
+     * Pre-condition: buf is positioned at the start of a dictionary.
+     * Post-condition: The buffer position advances past the dictionary.
+     * Parameters: buf   - Buffer holding the footer
+     *             width - Width of the column's strings
+     * Returns: The dictionary.
+     */
+    public static ColumnDictionary read(ByteBuffer buf, int width) {
+        String[] values = new String[buf.getInt()];
+
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[buf.getShort() & 0xffff];
+            buf.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        return new ColumnDictionary(values, width);
+    }
+
+    /*
+     * The following methods describe the dictionary. All follow the same
+     * pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The number of codes, or the bytes used to store one code
+     */
+    public int size() { return values.length; }
+    public int getCodeBytes() { return codeBytes; }
+
+    /*
+     * Method codeOf(value)
+     *
+     * Purpose: Looks up the code of a value after normalizing it, so
+     *          padding is ignored and every blank value has one code.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Parameters: value - Value to look up
+     * Returns: The value's code, or -1 if it is not in the dictionary.
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(normalize(value));
+
+        return code == null ? -1 : code;
+    }
+
+    /*
+     * Method getCode(bytes, offset)
+     *
+     * Purpose: Decodes a code stored, as BinWriter stores it, in this
+     *          dictionary's code width as an unsigned big-endian number.
+     * Pre-condition: offset is the start of a code in bytes.
+     * Post-condition: No state is modified.
+     * Parameters: bytes  - Buffer holding the code
+     *             offset - Offset of the code's first byte
+     * Returns: The decoded code.
+     */
+    public int getCode(byte[] bytes, int offset) {
+        int code = 0;
+
+        for (int i = 0; i < codeBytes; i++)
+            code = (code << 8) | (bytes[offset + i] & 0xff);
+
+        return code;
+    }
+
+    /*
+     * Method get(code)
+     *
+     * Purpose: Decodes a code to the value a fixed-width file would hold,
+     *          padded to the column's width.
+     * Pre-condition: 0 <= code < size().
+     * Post-condition: No state is modified.
+     * Parameters: code - Code to decode
+     * Returns: The padded value.
+     */
+    public String get(int code) {
+        return padded[code];
+    }
+
+    /*
+     * Method extend(newValues)
+     *
+     * Purpose: Creates a dictionary holding every value of this one with
+     *          its old code, followed by any new values in sorted order,
+     *          so records already encoded stay valid.
+     * Pre-condition: newValues are normalized and no wider than the column.
+     * Post-condition: This dictionary is not modified.
+     * Parameters: newValues - Values that need codes
+     * Returns: The extended dictionary, or null if its codes would need
+     *          more bytes than this dictionary's.
+     */
+    public ColumnDictionary extend(Collection<String> newValues) {
+        TreeSet<String> added = new TreeSet<String>();
+        for (String value : newValues) {
+            if (!codes.containsKey(value))
+                added.add(value);
+        }
+
+        if (added.isEmpty())
+            return this;
+
+        String[] extended = Arrays.copyOf(values, values.length + added.size());
+        int next = values.length;
+        for (String value : added)
+            extended[next++] = value;
+
+        ColumnDictionary result = new ColumnDictionary(extended, width);
+
+        return result.codeBytes == codeBytes ? result : null;
+    }
+
+    /*
+     * Method getFooterBytes()
+     *
+     * Purpose: Returns the number of bytes put() writes.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: Size of the encoded dictionary.
+     */
+    public int getFooterBytes() {
+        int size = Integer.BYTES;
+
+        for (String value : values)
+            size += Short.BYTES + value.length();
+
+        return size;
+    }
+
+    /*
+     * Method put(buf)
+     *
+     * Purpose: Encodes the dictionary as a count followed by each value's
+     *          length and bytes, one byte per character as BinWriter
+     *          encodes fields.
+     * Pre-condition: buf has getFooterBytes() bytes remaining.
+     * Post-condition: The buffer position advances past the dictionary.
+     * Parameters: buf - Destination buffer
+     */
+    public void put(ByteBuffer buf) {
+        buf.putInt(values.length);
+
+        for (String value : values) {
+            buf.putShort((short) value.length());
+
+            for (int i = 0; i < value.length(); i++)
+                buf.put((byte) value.charAt(i));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ColumnReader class, which opens a columnar file
+ * written by ColumnWriter and hands out cursors over its columns. A scan
+ * that filters or aggregates a few fields opens a cursor on each of them
+ * and reads nothing of the other fields.
+ *
+ * The ColumnReader class performs the following responsibilities:
+ * 1. Reads the column directory and layout from the columnar footer.
+ * 2. Reports the number of records and the size of each column.
+ * 3. Creates sequential cursors over individual columns.
+ * 4. Closes the columnar file safely.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ColumnReader.java
+ *   Usage: Instantiated by analytical scans of an exported dataset
+ *   Input: Columnar file produced by Prog1A --columnar
+ *   Output: ColumnCursor objects and column metadata
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/*
+ * Class: ColumnReader
+ * Author: Tom Giallanza
+ * Purpose: An object of this class is an open columnar file. Cursors
+ *          read with positional reads, so any number of them, on any
+ *          threads, can share one reader. To combine fields row by row,
+ *          open a cursor per field and advance them together, e.g.:
+ *
+ *            ColumnCursor country = reader.cursor(RecordLayout.COUNTRY);
+ *            ColumnCursor lat = reader.cursor(RecordLayout.LATITUDE);
+ *            while (country.next() && lat.next())
+ *                if (country.getCode() == code) sum += lat.getDouble();
+ *
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: TRAILER_BYTES
+ * Constructors: ColumnReader(File colFilePath)
+ * Class Methods: None
+ * Inst. Methods: int getNumRecords()
+ *                RecordLayout getLayout()
+ *                long getColumnBytes(int field)
+ *                ColumnCursor cursor(int field)
+ *                void close()
+ */
+class ColumnReader {
+
+    public static final int TRAILER_BYTES =
+        RecordLayout.NUM_FIELDS * Long.BYTES * 2 + Long.BYTES + Integer.BYTES;
+        // Size of the column directory, record count, and format code
+        // that follow the layout footer
+
+    private File colFilePath;               // Columnar file path
+    private FileChannel colFileChannel;     // Columnar file channel (positional reads only)
+    private RecordLayout layout;            // Field widths and dictionaries of the dataset
+    private int numRecords;                 // Rows in every column
+    private long[] offsets = new long[RecordLayout.NUM_FIELDS]; // Start of each column
+    private long[] lengths = new long[RecordLayout.NUM_FIELDS]; // Bytes of each column
+
+    /*
+     * Constructor ColumnReader(colFilePath)
+     *
+     * Purpose: Opens a columnar file and reads its footer.
+     * Pre-condition: colFilePath references a columnar file.
+     * Post-condition: The column directory and layout are loaded.
+     * Parameters: colFilePath - Reference to the columnar file.
+     */
+    public ColumnReader(File colFilePath) throws IOException {
+        this.colFilePath = colFilePath;
+        colFileChannel = FileChannel.open(colFilePath.toPath(), StandardOpenOption.READ);
+
+        try {
+            readFooter();
+        } catch (IOException e) {
+            colFileChannel.close();
+            throw e;
+        }
+    }
+
+    /*
+     * Method readFooter()
+     *
+     * Purpose: Reads the column directory from the end of the file, then
+     *          the layout footer that precedes it.
+     * Pre-condition: The file channel is open.
+     * Post-condition: layout, numRecords, offsets, and lengths are set.
+     */
+    private void readFooter() throws IOException {
+        long colFileSize = colFileChannel.size(); // Total file size in bytes
+
+        if (colFileSize < TRAILER_BYTES + RecordLayout.FOOTER_BYTES)
+            throw new IOException("Error: " + colFilePath + " is not a columnar file");
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+        BinReader.readFully(colFileChannel, trailer, colFileSize - TRAILER_BYTES);
+        trailer.flip();
+
+        if (trailer.getInt(TRAILER_BYTES - Integer.BYTES) != Consts.BIN_FORMAT_COLUMNAR)
+            throw new IOException("Error: " + colFilePath + " is not a columnar file");
+
+        for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+            offsets[field] = trailer.getLong();
+            lengths[field] = trailer.getLong();
+        }
+
+        numRecords = (int) trailer.getLong();
+
+        // The layout footer ends where the directory begins
+        layout = BinReader.readLayout(colFileChannel, colFileSize - TRAILER_BYTES);
+    }
+
+    /*
+     * The following methods describe the columnar file. All follow the
+     * same pattern:
+     *
+     * Pre-conditions: The file has been opened
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The number of records, or the layout of the dataset
+     */
+    public int getNumRecords() { return numRecords; }
+    public RecordLayout getLayout() { return layout; }
+
+    /*
+     * Method getColumnBytes(field)
+     *
+     * Purpose: Returns the bytes a scan of one column reads.
+     * Pre-condition: 0 <= field < RecordLayout.NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as RecordLayout.LATITUDE
+     * Returns: Size of the field's column.
+     */
+    public long getColumnBytes(int field) {
+        return lengths[field];
+    }
+
+    /*
+     * Method cursor(field)
+     *
+     * Purpose: Creates a cursor positioned before the first value of a
+     *          column.
+     * Pre-condition: 0 <= field < RecordLayout.NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as RecordLayout.LATITUDE
+     * Returns: A new ColumnCursor owned by the caller.
+     */
+    public ColumnCursor cursor(int field) {
+        return new ColumnCursor(colFileChannel, layout, field, offsets[field], numRecords);
+    }
+
+    /*
+     * Method close()
+     *
+     * Purpose: Closes the columnar file channel, ending every cursor.
+     * Pre-condition: None.
+     * Post-condition: The file channel is closed.
+     */
+    public void close() throws IOException {
+        if (colFileChannel != null) colFileChannel.close();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ColumnWriter class, which exports a fixed-width
+ * binary file to a columnar file. The columnar file stores every field of
+ * the dataset in its own contiguous region, so a scan of one field reads
+ * only that field's bytes. Values keep the encoding they have in the
+ * binary file, including dictionary codes.
+ *
+ * The ColumnWriter class performs the following responsibilities:
+ * 1. Plans one region per field, sized for every record of the dataset.
+ * 2. Splits each record of the binary file into its fields in one pass.
+ * 3. Buffers each column and writes it to its region in large blocks.
+ * 4. Writes a footer holding the layout and the column directory.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ColumnWriter.java
+ *   Usage: Used by Prog1A when a columnar export is requested
+ *   Input: Binary file opened with a BinReader
+ *   Output: Columnar file readable with ColumnReader
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/*
+ * Class: ColumnWriter
+ * Author: Tom Giallanza
+ * Purpose: An object of this class writes one columnar file. The file
+ *          holds the column of field 0 for every record, then the column
+ *          of field 1, and so on, followed by the footer:
+ *
+ *            [binary file footer: widths and any dictionaries]
+ *            [offset and length of each column, as longs]
+ *            [number of records, as a long]
+ *            [Consts.BIN_FORMAT_COLUMNAR]
+ *
+ *          Every column's size is known before the first record is read,
+ *          so each column is appended to its own region with positional
+ *          writes while the binary file is read once, front to back.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: ColumnWriter(File colFilePath)
+ * Class Methods: None
+ * Inst. Methods: void export(BinReader binReader)
+ */
+class ColumnWriter {
+
+    private File colFilePath;   // Columnar OS file path
+
+    /*
+     * Constructor ColumnWriter(colFilePath)
+     *
+     * Purpose: Initializes a ColumnWriter for the given output file.
+     * Pre-condition: colFilePath references a writable location.
+     * Post-condition: The path is stored; nothing is written yet.
+     * Parameters: colFilePath - Reference to the columnar output file.
+     */
+    ColumnWriter(File colFilePath) {
+        this.colFilePath = colFilePath;
+    }
+
+    /*
+     * Method export(binReader)
+     *
+     * Purpose: Writes every record of a binary file to the columnar file,
+     *          replacing any earlier contents, and writes its footer.
+     * Pre-condition: binReader is open, ideally in mapped mode, since
+     *                every record is read once in order.
+     * Post-condition: The columnar file is complete and closed.
+     * Parameters: binReader - Reader of the binary file to export
+     */
+    public void export(BinReader binReader) throws IOException {
+        RecordLayout layout = binReader.getLayout();  // Layout of the binary file
+        int numRecords = binReader.getNumRecords();   // Rows in every column
+        long[] offsets = new long[RecordLayout.NUM_FIELDS]; // Start of each column
+        long[] lengths = new long[RecordLayout.NUM_FIELDS]; // Bytes of each column
+        long dataSize = 0;                                  // Bytes of all columns
+
+        for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+            offsets[field] = dataSize;
+            lengths[field] = (long) layout.fieldBytes(field) * numRecords;
+            dataSize += lengths[field];
+        }
+
+        Files.deleteIfExists(colFilePath.toPath());
+
+        try (FileChannel colFileChannel = FileChannel.open(colFilePath.toPath(),
+                                                          StandardOpenOption.CREATE,
+                                                          StandardOpenOption.WRITE)) {
+            ByteBuffer[] columns = new ByteBuffer[RecordLayout.NUM_FIELDS]; // Unwritten values
+            long[] positions = offsets.clone(); // Next write position of each column
+
+            for (int field = 0; field < RecordLayout.NUM_FIELDS; field++)
+                columns[field] = ByteBuffer.allocateDirect(
+                    Math.max(Consts.COLUMN_BUFFER_BYTES, layout.fieldBytes(field)));
+
+            // Split each record into its columns
+            RecordView view = binReader.newView(); // Reused for every record
+            byte[] bytes = view.getBytes();        // Bytes of the current record
+
+            for (int i = 0; i < numRecords; i++) {
+                binReader.readRecord(binReader.getRecordPointer(i), view);
+
+                for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+                    int fieldBytes = layout.fieldBytes(field);
+
+                    if (columns[field].remaining() < fieldBytes)
+                        positions[field] = flush(colFileChannel, columns[field], positions[field]);
+
+                    columns[field].put(bytes, layout.fieldOffset(field), fieldBytes);
+                }
+            }
+
+            for (int field = 0; field < RecordLayout.NUM_FIELDS; field++)
+                positions[field] = flush(colFileChannel, columns[field], positions[field]);
+
+            // Write the layout and the column directory after the last column
+            ByteBuffer footer = ByteBuffer.allocate(layout.getFooterBytes()
+                                                    + ColumnReader.TRAILER_BYTES);
+            layout.put(footer);
+
+            for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+                footer.putLong(offsets[field]);
+                footer.putLong(lengths[field]);
+            }
+
+            footer.putLong(numRecords);
+            footer.putInt(Consts.BIN_FORMAT_COLUMNAR);
+
+            flush(colFileChannel, footer, dataSize);
+        }
+    }
+
+    /*
+     * Method flush(channel, column, position)
+     *
+     * Purpose: Writes a column's buffered values at the column's next
+     *          position and empties the buffer.
+     * Pre-condition: The channel is open for writing and the values
+     *                were put into column, which has not been flipped.
+     * Post-condition: The buffer is empty.
+     * Parameters: channel  - Channel of the columnar file
+     *             column   - Buffered values
+     *             position - File offset of the first buffered byte
+     * Returns: The file offset after the values written.
+     */
+    private static long flush(FileChannel channel, ByteBuffer column, long position)
+            throws IOException {
+        column.flip();
+
+        while (column.hasRemaining())
+            position += channel.write(column, position);
+
+        column.clear();
+        return position;
+    }
+}
@@ -15,6 +15,24 @@
  * 1. Defines standard file names for CSV, binary, and index files.
  * 2. Defines bucket capacity for the extendible hash index.
  * 3. Defines the computed byte size of each hash bucket.
+ * 4. Defines the depth limits of the extendible hash directory, at which
+ *    a full bucket grows an overflow chain instead of splitting, and when
+ *    duplicate keys move to overflow chains.
+ * 5. Defines the format codes that identify each index file layout.
+ * 6. Defines the load factor that triggers linear hashing splits.
+ * 7. Defines the buffer sizes used for sequential bulk I/O.
+ * 8. Defines how a CSV file is divided for parallel parsing.
+ * 9. Defines the memory budget of the external merge sort.
+ * 10. Defines the batch and queue sizes of the ingest pipeline.
+ * 11. Defines the format codes that mark dictionary-encoded binary files,
+ *     columnar exports, block-compressed binary files, paged binary
+ *     files, and the run table an append leaves after a footer.
+ * 12. Defines the block and cache sizes of block-compressed binary files.
+ * 13. Defines the page size of paged binary files.
+ * 14. Defines the default memory budget of the page buffer pool.
+ * 15. Defines when the records of a batched read are merged into one read.
+ * 16. Defines the spacing of the keys in the fence index of a sorted file
+ *     and the longest range a sorted search reads as one batch.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
@@ -38,6 +56,36 @@
  *            CSV_FILE_NAME
  *            BUCKET_CAPACITY
  *            BUCKET_SIZE_BYTES
+ *            INITIAL_GLOBAL_DEPTH
+ *            MAX_GLOBAL_DEPTH
+ *            DUPLICATE_EVICT_COUNT
+ *            INDEX_FORMAT_EXTENDIBLE
+ *            INDEX_FORMAT_LINEAR
+ *            LINEAR_MAX_LOAD
+ *            SCAN_BUFFER_BYTES
+ *            BULK_BUCKETS_PER_WRITE
+ *            WRITE_BUFFER_BYTES
+ *            COLUMN_BUFFER_BYTES
+ *            CSV_MIN_CHUNK_BYTES
+ *            CSV_MAX_CHUNK_BYTES
+ *            CSV_CHUNKS_PER_THREAD
+ *            SORT_HEAP_FRACTION
+ *            SORT_RECORD_OVERHEAD_BYTES
+ *            PIPELINE_BATCH_RECORDS
+ *            PIPELINE_QUEUE_BATCHES
+ *            BIN_FORMAT_DICTIONARY
+ *            BIN_FORMAT_COLUMNAR
+ *            BIN_FORMAT_COMPRESSED
+ *            BIN_FORMAT_PAGED
+ *            BIN_FORMAT_RUNS
+ *            COMPRESSED_BLOCK_BYTES
+ *            BLOCK_CACHE_BLOCKS
+ *            PAGE_BYTES
+ *            BUFFER_POOL_BYTES
+ *            COALESCE_GAP_BYTES
+ *            MAX_COALESCED_READ_BYTES
+ *            FENCE_INTERVAL
+ *            SORTED_BATCH_RECORDS
  * Constructors: None
  * Class Methods: None
  * Inst. Methods: None
@@ -60,10 +108,142 @@ class Consts {
         // Maximum number of record pointers stored per bucket
 
     public static final int BUCKET_SIZE_BYTES =
-        (Integer.BYTES + Long.BYTES * BUCKET_CAPACITY);
+        (Integer.BYTES * 3 + Long.BYTES * 2 * BUCKET_CAPACITY);
         // Total byte size of a bucket:
-        // 4 bytes for bucket size (int)
+        // 4 bytes for local depth (int)
+        // + 4 bytes for bucket size (int)
+        // + 4 bytes for overflow page number (int)
         // + 8 bytes per record pointer (long)
+        // + 8 bytes per key fingerprint (long)
+
+    public static final int INITIAL_GLOBAL_DEPTH = 1;
+        // Directory depth of a new index (2 directory entries)
+
+    public static final int MAX_GLOBAL_DEPTH = 24;
+        // Largest directory depth; a full bucket at this depth puts new
+        // pointers on its overflow chain instead of splitting
+        // (2^24 directory entries, 64 MB of bucket numbers)
+
+    public static final int DUPLICATE_EVICT_COUNT = BUCKET_CAPACITY / 2;
+        // Copies of one key in a full bucket that move the key to the
+        // bucket's overflow chain instead of splitting the bucket
+
+
+    // Index Format Constants
+    public static final int INDEX_FORMAT_EXTENDIBLE = 1;
+        // Last int of an extendible hash index file
+
+    public static final int INDEX_FORMAT_LINEAR = 2;
+        // Last int of a linear hash index file
+
+    public static final double LINEAR_MAX_LOAD = 0.80;
+        // Fraction of primary bucket slots in use before the
+        // linear hash index splits its next bucket
+
+
+    // Bulk I/O Constants
+    public static final int SCAN_BUFFER_BYTES = 1 << 20;
+        // Read buffer size for sequential scans of the binary file
+
+    public static final int BULK_BUCKETS_PER_WRITE = 4096;
+        // Buckets encoded per sequential write during a bulk load
+
+    public static final int WRITE_BUFFER_BYTES = 1 << 20;
+        // Encoded records buffered before each write of the binary file
+
+    public static final int COLUMN_BUFFER_BYTES = 1 << 16;
+        // Values buffered per column before each write of a columnar
+        // export; one buffer is held for every field
+
+
+    // CSV Ingest Constants
+    public static final int CSV_MIN_CHUNK_BYTES = 1 << 20;
+        // Smallest CSV chunk worth parsing as a separate task
+
+    public static final int CSV_MAX_CHUNK_BYTES = 1 << 26;
+        // Largest CSV chunk mapped and parsed as one task
+
+    public static final int CSV_CHUNKS_PER_THREAD = 4;
+        // Chunks per worker thread, so uneven chunks still balance
+
+
+    // External Sort Constants
+    public static final double SORT_HEAP_FRACTION = 0.25;
+        // Fraction of the maximum heap used for one sorted run when
+        // no budget is given on the command line
+
+    public static final int SORT_RECORD_OVERHEAD_BYTES = 256;
+        // Estimated heap bytes of a Record beyond its characters
+        // (object headers, String objects, and list slot)
+
+
+    // Ingest Pipeline Constants
+    public static final int PIPELINE_BATCH_RECORDS = 4096;
+        // Records encoded and written as one batch
+
+    public static final int PIPELINE_QUEUE_BATCHES = 8;
+        // Batches a queue between two stages holds before the
+        // earlier stage must wait for the later one
+
+
+    // Binary Format Constants
+    public static final int BIN_FORMAT_DICTIONARY = -1;
+        // Last int of a dictionary-encoded binary file; the last int
+        // of a fixed-width file is a field width, which is never negative
+
+    public static final int BIN_FORMAT_COLUMNAR = -2;
+        // Last int of a columnar export of a binary file
+
+    public static final int BIN_FORMAT_COMPRESSED = -3;
+        // Last int of a block-compressed binary file
+
+    public static final int BIN_FORMAT_PAGED = -4;
+        // Last int of a paged binary file of variable-length records
+
+    public static final int BIN_FORMAT_RUNS = -5;
+        // Last int of a fixed-width or dictionary-encoded binary file
+        // that appends left in more than one sorted run; the table of
+        // run starts follows its footer
+
+
+    // Block Compression Constants
+    public static final int COMPRESSED_BLOCK_BYTES = 1 << 16;
+        // Uncompressed bytes of whole records compressed as one block
+
+    public static final int BLOCK_CACHE_BLOCKS = 16;
+        // Decompressed blocks a BinReader keeps for reuse
+
+
+    // Paged Format Constants
+    public static final int PAGE_BYTES = 1 << 13;
+        // Bytes of each slotted page of a paged binary file; at most
+        // 65536, so every offset in a page fits in an unsigned short
+
+
+    // Buffer Pool Constants
+    public static final long BUFFER_POOL_BYTES = 1L << 22;
+        // Bytes of pages the lookup buffer pool holds when Prog22 is
+        // given "--pool"; its frames are PAGE_BYTES each
+
+
+    // Batched Read Constants
+    public static final int COALESCE_GAP_BYTES = 1 << 14;
+        // Largest gap between two records of a batch that is read
+        // through rather than skipped with a second read
+
+    public static final int MAX_COALESCED_READ_BYTES = 1 << 20;
+        // Largest single read a batch of records is merged into
+
+
+    // Fence Index Constants
+    public static final int FENCE_INTERVAL = 64;
+        // Records from one fence key to the next; a sorted search reads
+        // the records between two fences in one read
+
+    public static final int SORTED_BATCH_RECORDS = 1024;
+        // Most records of one run a range or prefix search reads as one
+        // batch, through any buffer pool; longer ranges are streamed in
+        // chunks as they are used
 
 }
 
@@ -0,0 +1,132 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the DictionaryBuilder class, which gathers the
+ * distinct values of the dictionary-encoded columns (Biogeographical.realm,
+ * Continent, Biome, Country.record, and Species.name) while a dataset is
+ * parsed, and turns them into the dictionaries of a RecordLayout.
+ *
+ * The DictionaryBuilder class performs the following responsibilities:
+ * 1. Collects the normalized distinct values of each encoded column.
+ * 2. Builds a dictionary-encoded layout from the collected values.
+ * 3. Extends the dictionaries of an existing layout with the values.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac DictionaryBuilder.java
+ *   Usage: Used by Prog1A when the dictionary-encoded format is selected
+ *   Input: Record objects
+ *   Output: Dictionary-encoded RecordLayout objects
+ */
+
+import java.util.*;
+
+/*
+ * Class: DictionaryBuilder
+ * Author: Tom Giallanza
+ * Purpose: An object of this class accumulates one set of distinct
+ *          values per encoded column. Records are only inspected, never
+ *          kept, so values can be gathered as records stream past on
+ *          their way to a sort.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: DictionaryBuilder()
+ * Class Methods: None
+ * Inst. Methods: void add(Record record)
+ *                void addAll(Collection<Record> records)
+ *                RecordLayout build(RecordLayout widths)
+ *                RecordLayout extend(RecordLayout layout)
+ */
+class DictionaryBuilder {
+
+    private final HashSet<String> realms = new HashSet<String>();     // Biogeographical.realm values
+    private final HashSet<String> continents = new HashSet<String>(); // Continent values
+    private final HashSet<String> biomes = new HashSet<String>();     // Biome values
+    private final HashSet<String> countries = new HashSet<String>();  // Country.record values
+    private final HashSet<String> species = new HashSet<String>();    // Species.name values
+
+    /*
+     * Method add(record)
+     *
+     * Purpose: Adds the encoded fields of a record to the distinct values.
+     * Pre-condition: None.
+     * Post-condition: Each value of the record is in its column's set.
+     * Parameters: record - Record being parsed
+     */
+    public void add(Record record) {
+        realms.add(ColumnDictionary.normalize(record.getRealm()));
+        continents.add(ColumnDictionary.normalize(record.getContinent()));
+        biomes.add(ColumnDictionary.normalize(record.getBiome()));
+        countries.add(ColumnDictionary.normalize(record.getCountry()));
+        species.add(ColumnDictionary.normalize(record.getSpecies()));
+    }
+
+    /*
+     * Method addAll(records)
+     *
+     * Purpose: Adds the encoded fields of every record to the distinct
+     *          values.
+     * Pre-condition: None.
+     * Post-condition: Each value of the records is in its column's set.
+     * Parameters: records - Records being parsed
+     */
+    public void addAll(Collection<Record> records) {
+        for (Record record : records)
+            add(record);
+    }
+
+    /*
+     * Method build(widths)
+     *
+     * Purpose: Builds a dictionary-encoded layout whose dictionaries hold
+     *          the collected values in sorted order.
+     * Pre-condition: widths is wide enough for every record added.
+     * Post-condition: No state is modified.
+     * Parameters: widths - Field widths of the records
+     * Returns: The dictionary-encoded layout.
+     */
+    public RecordLayout build(RecordLayout widths) {
+        return widths.withDictionaries(
+            ColumnDictionary.of(realms, widths.realmLen),
+            ColumnDictionary.of(continents, widths.continentLen),
+            ColumnDictionary.of(biomes, widths.biomeLen),
+            ColumnDictionary.of(countries, widths.countryLen),
+            ColumnDictionary.of(species, widths.speciesLen)
+        );
+    }
+
+    /*
+     * Method extend(layout)
+     *
+     * Purpose: Adds the collected values to the dictionaries of an
+     *          existing layout. Old values keep their codes, so records
+     *          already written with the layout remain valid.
+     * Pre-condition: layout is dictionary-encoded and wide enough for
+     *                every record added.
+     * Post-condition: No state is modified.
+     * Parameters: layout - Layout of the existing records
+     * Returns: The extended layout, or null if some column's codes would
+     *          no longer fit in their current number of bytes.
+     */
+    public RecordLayout extend(RecordLayout layout) {
+        ColumnDictionary realmDict = layout.realmDict.extend(realms);
+        ColumnDictionary continentDict = layout.continentDict.extend(continents);
+        ColumnDictionary biomeDict = layout.biomeDict.extend(biomes);
+        ColumnDictionary countryDict = layout.countryDict.extend(countries);
+        ColumnDictionary speciesDict = layout.speciesDict.extend(species);
+
+        if (realmDict == null || continentDict == null || biomeDict == null
+                || countryDict == null || speciesDict == null)
+            return null;
+
+        return layout.withDictionaries(realmDict, continentDict, biomeDict,
+                                       countryDict, speciesDict);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ExternalSort class, which sorts records by
+ * Data.entry and writes them to a fixed-width binary file without ever
+ * holding more than a fixed budget of records in memory. Records are
+ * collected into bounded runs; each full run is sorted and spilled to a
+ * temporary binary file, and the runs are then merged into the output.
+ *
+ * The ExternalSort class performs the following responsibilities:
+ * 1. Collects records into a run until its estimated heap size reaches
+ *    the budget.
+ * 2. Sorts each run and writes it to a temporary binary run file.
+ * 3. Merges all run files with a RunMerge into a BinWriter.
+ * 4. Deletes the run files once the output is complete.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ExternalSort.java
+ *   Usage: Used by Prog1A when the spilling sort is selected
+ *   Input: Record objects in any order
+ *   Output: Binary file of the records in ascending Data.entry order
+ */
+
+import java.io.*;
+import java.util.*;
+
+/*
+ * Class: ExternalSort
+ * Author: Tom Giallanza
+ * Purpose: An object of this class performs an external merge sort of
+ *          records into one binary file. Run files use the same format
+ *          as the output, written with the widest layout seen so far,
+ *          so they are produced by BinWriter and read back by BinReader.
+ *          If every record fits in a single run, nothing is spilled and
+ *          the run is written directly.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: ExternalSort(File binFilePath, long budgetBytes)
+ * Class Methods: long estimateSize(Record record)
+ *                Iterator<Record> runRecords(BinReader reader)
+ * Inst. Methods: boolean add(Record record)
+ *                void spill(RecordLayout layout)
+ *                void finish(RecordLayout layout)
+ *                void finish(BinWriter binWriter)
+ *                int getNumRuns()
+ */
+class ExternalSort {
+
+    private File binFilePath;       // Final sorted binary file
+    private long budgetBytes;       // Estimated heap bytes allowed per run
+    private long runBytes = 0;      // Estimated heap bytes of the current run
+
+    private ArrayList<Record> run = new ArrayList<Record>();   // Records of the current run
+    private ArrayList<File> runFiles = new ArrayList<File>();  // Sorted runs spilled to disk
+
+    /*
+     * Constructor ExternalSort(binFilePath, budgetBytes)
+     *
+     * Purpose: Initializes an external sort that writes to binFilePath
+     *          and spills a run whenever it reaches budgetBytes.
+     * Pre-condition: binFilePath references a writable location.
+     * Post-condition: The sort holds no records and no runs.
+     * Parameters: binFilePath - Reference to the binary output file.
+     *             budgetBytes - Estimated heap bytes allowed per run.
+     */
+    ExternalSort(File binFilePath, long budgetBytes) {
+        this.binFilePath = binFilePath;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /*
+     * Method getNumRuns()
+     *
+     * Purpose: Returns the number of runs spilled to disk so far.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: Number of run files.
+     */
+    public int getNumRuns() {
+        return runFiles.size();
+    }
+
+    /*
+     * Method estimateSize(record)
+     *
+     * Purpose: Estimates the heap bytes a parsed Record occupies.
+     * Pre-condition: record is not null.
+     * Post-condition: No state is modified.
+     * Parameters: record - Record to measure.
+     * Returns: Estimated size of the record in bytes.
+     */
+    public static long estimateSize(Record record) {
+        return Consts.SORT_RECORD_OVERHEAD_BYTES
+             + record.getSeqID().length() + record.getEntry().length()
+             + record.getSeries().length() + record.getRealm().length()
+             + record.getContinent().length() + record.getBiome().length()
+             + record.getCountry().length() + record.getCave().length()
+             + record.getSpecies().length();
+    }
+
+    /*
+     * Method add(record)
+     *
+     * Purpose: Adds a record to the current run and reports whether the
+     *          run has reached the budget and should be spilled.
+     * Pre-condition: None.
+     * Post-condition: The record is held in the current run.
+     * Parameters: record - Record to sort.
+     * Returns: True if the caller should now call spill().
+     */
+    public boolean add(Record record) {
+        run.add(record);
+        runBytes += estimateSize(record);
+
+        return runBytes >= budgetBytes;
+    }
+
+    /*
+     * Method spill(layout)
+     *
+     * Purpose: Sorts the current run and writes it to a temporary binary
+     *          file in the output file's directory.
+     * Pre-condition: layout is wide enough for every record in the run.
+     * Post-condition: The run is on disk and the in-memory run is empty.
+     * Parameters: layout - Widths of all records parsed so far.
+     */
+    public void spill(RecordLayout layout) throws IOException {
+        run.sort(Record.compareEntry);
+
+        File runFile = File.createTempFile("run", ".bin",
+                                           binFilePath.getAbsoluteFile().getParentFile());
+        runFile.deleteOnExit();
+
+        BinWriter runWriter = new BinWriter(runFile, layout);
+        runWriter.writeRecords(run);
+        runWriter.writeLengths();
+        runWriter.close();
+
+        runFiles.add(runFile);
+
+        // Drop the old list so its backing array can be collected
+        run = new ArrayList<Record>();
+        runBytes = 0;
+    }
+
+    /*
+     * Method finish(layout)
+     *
+     * Purpose: Writes every record added to the output file in ascending
+     *          Data.entry order, followed by the layout footer.
+     * Pre-condition: layout is wide enough for every record added.
+     * Post-condition: The output file is complete and the run files are
+     *                 deleted.
+     * Parameters: layout - Widths of all records parsed.
+     */
+    public void finish(RecordLayout layout) throws IOException {
+        finish(new BinWriter(binFilePath, layout));
+    }
+
+    /*
+     * Method finish(binWriter)
+     *
+     * Purpose: Writes every record added through the given writer in
+     *          ascending Data.entry order, followed by the layout footer.
+     *          This lets the caller choose how the output is written.
+     * Pre-condition: The writer's layout is wide enough for every record
+     *                added.
+     * Post-condition: The output file is complete and the run files are
+     *                 deleted.
+     * Parameters: binWriter - Writer for the output file.
+     */
+    public void finish(BinWriter binWriter) throws IOException {
+        RecordLayout layout = binWriter.getLayout(); // Widths of all records parsed
+
+        if (runFiles.isEmpty()) {
+            // Everything fit in one run; no merge is needed
+            run.sort(Record.compareEntry);
+            binWriter.writeRecords(run);
+        }
+        else {
+            if (!run.isEmpty())
+                spill(layout);
+
+            merge(binWriter);
+        }
+
+        binWriter.writeLengths();
+        binWriter.close();
+    }
+
+    /*
+     * Method merge(binWriter)
+     *
+     * Purpose: Merges the sorted run files into the output with a
+     *          RunMerge, so each output record costs O(log k) comparisons
+     *          for k runs. Equal keys are taken from earlier runs first,
+     *          which keeps the sort stable.
+     * Pre-condition: Every run file is sorted.
+     * Post-condition: All records are written and the run files deleted.
+     * Parameters: binWriter - Writer for the output file.
+     */
+    private void merge(BinWriter binWriter) throws IOException {
+        ArrayList<BinReader> readers = new ArrayList<BinReader>();
+        ArrayList<Iterator<Record>> runs = new ArrayList<Iterator<Record>>(); // Records of each run
+
+        for (File runFile : runFiles) {
+            BinReader reader = new BinReader(runFile, true);
+            readers.add(reader);
+            runs.add(runRecords(reader));
+        }
+
+        binWriter.open();
+
+        // Write the records in merged order
+        try {
+            RunMerge merge = new RunMerge(runs);
+            while (merge.hasNext())
+                binWriter.writeRecord(merge.next());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        for (BinReader reader : readers)
+            reader.close();
+        for (File runFile : runFiles)
+            runFile.delete();
+
+        runFiles.clear();
+    }
+
+    /*
+     * Method runRecords(reader)
+     *
+     * Purpose: Gives the records of a run file in order, reading each
+     *          from the reader's mapping as the merge asks for it.
+     * Pre-condition: reader is open on a run file.
+     * Post-condition: No state is modified until the iterator is used.
+     * Parameters: reader - Reader of the run file
+     * Returns: An iterator over the run's records. An error reading one
+     *          is thrown as an UncheckedIOException, since an Iterator
+     *          cannot throw an IOException.
+     */
+    private static Iterator<Record> runRecords(BinReader reader) {
+        return new Iterator<Record>() {
+            private int next = 0; // Number of the next record to read
+
+            public boolean hasNext() {
+                return next < reader.getNumRecords();
+            }
+
+            public Record next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                try {
+                    return reader.readRecord(reader.getRecordPointer(next++));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+}
@@ -8,53 +8,82 @@
  *
  * Description:
  * This file defines the IndexReader class, which is responsible for reading
- * and querying an extendible hash index associated with a fixed-width
- * binary dataset. The index enables fast record retrieval by Data.entry
+ * and querying an extendible or linear hash index associated with a
+ * fixed-width binary dataset. The index enables fast record retrieval by Data.entry
  * values using stored file offsets rather than sequential scanning.
  *
  * The IndexReader class performs the following responsibilities:
- * 1. Reads the hash iteration value used during index construction.
- * 2. Computes bucket addresses using the extendible hash function.
- * 3. Reads bucket contents from the index file.
- * 4. Retrieves records from the binary file using stored offsets.
- * 5. Optionally prints the index contents for debugging and inspection.
+ * 1. Reads the directory and depth written during index construction.
+ * 2. Computes bucket addresses by following the directory.
+ * 3. Reads bucket contents and overflow pages from the index file using
+ *    positional reads, so one reader can serve many threads.
+ * 4. Retrieves records from the binary file using stored offsets, skipping
+ *    slots whose stored key fingerprint does not match.
+ * 5. Optionally reads buckets and records through one buffer pool, so
+ *    pages used by recent lookups are served from memory.
+ * 6. Looks up a batch of keys at once, visiting the buckets in index
+ *    order and reading the candidate records as one batch in file order.
+ * 7. Optionally prints the index contents for debugging and inspection.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac IndexReader.java
  *   Usage: Used by Prog22 to retrieve records via indexed lookup
- *   Input: Extendible hash index file and fixed-width binary data file
+ *   Input: Extendible or linear hash index file and fixed-width binary data file
  *   Output: Record objects matching requested Data.entry values
  */
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
 import java.util.*;
 
 /*
  * Class: IndexReader
  * Author: Tom Giallanza
  * Purpose: An object of this class provides read-only access to an
- *          extendible hash index and its associated binary data file.
+ *          extendible or linear hash index and its associated binary
+ *          data file. The index format is identified by the format code
+ *          stored as the last integer of the index file.
  *          It supports efficient retrieval of records by Data.entry
- *          value using stored file offsets.
+ *          value using stored file offsets. The directory is read once
+ *          when the reader is opened and every later read names its own
+ *          file position, so lookups may run concurrently. By default
+ *          the binary file is memory mapped and the index file is read
+ *          with positional reads, neither of which takes a lock. If a
+ *          BufferPool is given, both files are read through it instead,
+ *          so the pages of hot keys stay in memory while the footprint
+ *          stays bounded by the pool's budget.
  * Inherits From: None
  * Interfaces: None
  * Constants: None
- * Constructors: IndexReader(File binFilePath)
+ * Constructors: IndexReader(File indexFilePath, File binFilePath)
+ *               IndexReader(File indexFilePath, File binFilePath,
+ *                           BufferPool pool)
  * Class Methods: None
  * Inst. Methods: int getNumBuckets()
- *                int hash(String entryID)
+ *                int getBucketNum(long key)
+ *                BufferPool getPool()
  *                Record fetchRecord(String entryID)
- *                void cacheHashIter()
+ *                Record[] fetchRecords(String[] entryIDs)
+ *                void cacheDirectory()
  *                void close()
  */
 class IndexReader {
 
-    private int hashIter = 0;   // Hash iteration value used to size hash table
+    private int indexFormat;     // Format code of the index file
+    private int globalDepth = 0; // Number of hash bits used to index the directory
+    private int splitPtr = 0;    // Next bucket to split (linear hashing only)
+    private int[] directory;     // Directory entries mapping hash bits to bucket numbers
+    private int numBuckets = 0;  // Number of buckets stored in the index file
     private BinReader binReader; // Utility for reading binary records
 
-    private File indexFilePath;               // Index file path
-    private RandomAccessFile indexFileStream; // Random-access index file stream
+    private File indexFilePath;         // Index file path
+    private long indexFileSize;         // Size of the index file in bytes
+    private FileChannel indexChannel;   // Index file channel (positional reads only)
+    private BufferPool pool;            // Pool both files are read through, or null
+    private int indexFileId;            // Id of the index file in the pool
 
     /*
      * Constructor IndexReader(binFilePath)
@@ -64,114 +93,279 @@ class IndexReader {
      *          access reading operations.
      * Pre-condition: binFilePath references a valid binary data file and
      *                the index file exists and is readable.
-     * Post-condition: The index file stream is opened and hashIter is loaded.
+     * Post-condition: The index file channel is opened and the directory is loaded.
      * Parameters: binFilePath - Reference to the binary data file.
      */
     public IndexReader(File indexFilePath, File binFilePath) throws IOException {
-        binReader = new BinReader(binFilePath); // Initialize binary reader
-        indexFileStream = new RandomAccessFile(indexFilePath, "r");
+        binReader = new BinReader(binFilePath, true); // Map the binary file for lookups
+        indexChannel = FileChannel.open(indexFilePath.toPath(), StandardOpenOption.READ);
         this.indexFilePath = indexFilePath;
-            // Open the index file for reading
-        cacheHashIter(); // Load hash iteration value from disk
+        cacheDirectory(); // Load the directory from disk
+    }
+
+    /*
+     * Constructor IndexReader(indexFilePath, binFilePath, pool)
+     *
+     * Purpose: Initializes an IndexReader object that reads the index and
+     *          binary files through the given buffer pool.
+     * Pre-condition: binFilePath references a valid binary data file and
+     *                the index file exists and is readable.
+     * Post-condition: The index file channel is opened, both files are
+     *                 registered with the pool, and the directory is loaded.
+     * Parameters: indexFilePath - Reference to the index file.
+     *             binFilePath   - Reference to the binary data file.
+     *             pool          - Buffer pool to read both files through.
+     */
+    public IndexReader(File indexFilePath, File binFilePath, BufferPool pool)
+            throws IOException {
+        binReader = new BinReader(binFilePath, pool); // Read records through the pool
+        indexChannel = FileChannel.open(indexFilePath.toPath(), StandardOpenOption.READ);
+        this.indexFilePath = indexFilePath;
+        this.pool = pool;
+        indexFileId = pool.addFile(indexChannel);
+        cacheDirectory(); // Load the directory from disk
     }
 
     /*
      * Method getNumBuckets()
      *
-     * Purpose: Computes the total number of hash buckets based on
-     *          the current hash iteration value.
-     * Pre-condition: hashIter has been initialized.
+     * Purpose: Returns the number of buckets stored in the index file.
+     * Pre-condition: The directory has been loaded.
      * Post-condition: No state is modified.
      * Returns: The total number of hash buckets.
      */
     public int getNumBuckets() {
-        return (int) Math.pow(2, hashIter + 1); // Bucket count doubles per iteration
+        return numBuckets;
     }
 
     /*
-     * Method hash(entryID)
+     * Method getBucketNum(key)
      *
-     * Purpose: Computes the hash bucket index corresponding to the
-     *          given Data.entry value.
-     * Pre-condition: entryID is non-null and hashIter is initialized.
+     * Purpose: Follows the directory entry selected by the low
+     *          globalDepth bits of a key fingerprint to its bucket. In
+     *          a linear hash index, buckets before the split pointer
+     *          are selected with one more hash bit.
+     * Pre-condition: The directory is loaded.
      * Post-condition: No state is modified.
-     * Parameters: entryID - Data.entry value to be hashed.
-     * Returns: Integer bucket index.
+     * Parameters: key - Fingerprint of the Data.entry value.
+     * Returns: Bucket number of the first page holding the entry's pointers.
      */
-    public int hash(String entryID) {
-        // Ensure non-negative hash before modulo operation
-        return (entryID.hashCode() & 0x7fffffff) % getNumBuckets();
+    public int getBucketNum(long key) {
+        int dirIndex = (int) key & ((1 << globalDepth) - 1);
+
+        // Linear hashing: this bucket was already split in the current round
+        if (indexFormat == Consts.INDEX_FORMAT_LINEAR && dirIndex < splitPtr)
+            dirIndex = (int) key & ((1 << (globalDepth + 1)) - 1);
+
+        return directory[dirIndex];
+    }
+
+    /*
+     * Method getPool()
+     *
+     * Purpose: Returns the buffer pool lookups read through, so its
+     *          counters can be reported.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The BufferPool of this reader, or null if it has none.
+     */
+    public BufferPool getPool() {
+        return pool;
+    }
+
+    /*
+     * Method readBucket(bucketNum)
+     *
+     * Purpose: Reads one bucket page of the index, through the buffer
+     *          pool if the reader has one.
+     * Pre-condition: bucketNum < getNumBuckets().
+     * Post-condition: No shared state is modified.
+     * Parameters: bucketNum - Page number of the bucket.
+     * Returns: The decoded Bucket.
+     */
+    private Bucket readBucket(int bucketNum) throws IOException {
+        if (pool != null)
+            return Bucket.read(pool, indexFileId, bucketNum);
+
+        return Bucket.read(indexChannel, bucketNum);
     }
 
     /*
      * Method fetchRecord(entryID)
      *
      * Purpose: Retrieves a record whose Data.entry matches the
-     *          provided entryID using indexed lookup.
-     * Pre-condition: The index file has been initialized and hashIter loaded.
-     * Post-condition: Index and binary file streams remain open.
+     *          provided entryID using indexed lookup. Only slots whose
+     *          stored fingerprint matches are read from the binary file,
+     *          so a miss normally never touches it.
+     * Pre-condition: The index file has been initialized and the directory loaded.
+     * Post-condition: No shared state is modified, so any number of
+     *                 threads may call this method at once.
      * Parameters: entryID - Data.entry value to search for.
      * Returns: Matching Record object if found; null otherwise.
      */
     public Record fetchRecord(String entryID) throws IOException {
-        if (indexFilePath.length() == 0) return null;
-
-        // Compute bucket byte offset
-        long bucketPtr =
-            (long) hash(entryID.trim()) * Consts.BUCKET_SIZE_BYTES;
+        if (indexFileSize == 0) return null;
 
-        indexFileStream.seek(bucketPtr);
+        long key = IndexWriter.fingerprint(entryID.trim()); // Fingerprint of the search key
+        int bucketNum = getBucketNum(key);                  // First page of the chain
+        RecordView view = binReader.newView();              // Reused for every candidate
 
-        int bucketSize = indexFileStream.readInt(); // Read bucket occupancy
+        // Walk the bucket the directory points at and its overflow pages
+        while (bucketNum != Bucket.NO_OVERFLOW) {
+            Bucket bucket = readBucket(bucketNum);
 
-        long currRecordPtr;
-        Record currRecord;
+            // Search only occupied slots whose fingerprint matches
+            for (int i = 0; i < bucket.size; i++) {
+                if (bucket.keys[i] != key)
+                    continue;
 
-        // Search only occupied slots
-        for (int i = 0; i < bucketSize; i++) {
+                binReader.readRecord(bucket.ptrs[i], view); // Fetch record bytes
 
-            currRecordPtr = indexFileStream.readLong(); // Read record offset
-            currRecord = binReader.readRecord(currRecordPtr); // Fetch record
+                if (view.entryEquals(entryID))
+                    return view.toRecord(); // Match found
+            }
 
-            if (currRecord.getEntry().trim().equals(entryID))
-                return currRecord; // Match found
+            bucketNum = bucket.overflow;
         }
 
         return null; // No matching entry found
     }
 
     /*
-     * Method cacheHashIter()
+     * Method fetchRecords(entryIDs)
      *
-     * Purpose: Reads the hash iteration value stored at the end of
-     *          the index file and loads it into memory.
-     * Pre-condition: The index file exists and is readable.
-     * Post-condition: hashIter reflects the value used during index creation.
+     * Purpose: Retrieves the records of many Data.entry values at once.
+     *          The keys are visited in the order of their buckets, so the
+     *          index file is read front to back, and the candidates whose
+     *          fingerprints match are read with one BinReader.readRecords
+     *          call, so the binary file is too. Each key's result is the
+     *          one fetchRecord would return.
+     * Pre-condition: The index file has been initialized and the directory loaded.
+     * Post-condition: No shared state is modified.
+     * Parameters: entryIDs - Data.entry values to search for.
+     * Returns: The matching Record of each value, or null where there is
+     *          none, in the order of entryIDs.
      */
-    public void cacheHashIter() throws IOException {
-        // If the index file has a hashIter at the end, read it into memory
-        if (indexFilePath.length() != 0) {
-            // Seek to final integer stored in index file
-            indexFileStream.seek(indexFilePath.length() - Integer.BYTES);
+    public Record[] fetchRecords(String[] entryIDs) throws IOException {
+        Record[] results = new Record[entryIDs.length]; // Match of each key
+        if (indexFileSize == 0) return results;
+
+        long[] keys = new long[entryIDs.length];  // Fingerprint of each key
+        long[] order = new long[entryIDs.length]; // Bucket number, then key number
+        for (int i = 0; i < entryIDs.length; i++) {
+            keys[i] = IndexWriter.fingerprint(entryIDs[i].trim());
+            order[i] = ((long) getBucketNum(keys[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        long[] candidatePtrs = new long[16];   // Pointers whose fingerprint matches
+        int[] candidateKeys = new int[16];     // Key number of each candidate
+        int numCandidates = 0;
 
-            hashIter = indexFileStream.readInt(); // Load hash iteration value
+        // Collect every candidate, walking each key's bucket chain
+        for (long entry : order) {
+            int i = (int) entry;
+            int bucketNum = (int) (entry >>> 32);
+
+            while (bucketNum != Bucket.NO_OVERFLOW) {
+                Bucket bucket = readBucket(bucketNum);
+
+                for (int slot = 0; slot < bucket.size; slot++) {
+                    if (bucket.keys[slot] != keys[i])
+                        continue;
+
+                    if (numCandidates == candidatePtrs.length) {
+                        candidatePtrs = Arrays.copyOf(candidatePtrs, numCandidates * 2);
+                        candidateKeys = Arrays.copyOf(candidateKeys, numCandidates * 2);
+                    }
+
+                    candidatePtrs[numCandidates] = bucket.ptrs[slot];
+                    candidateKeys[numCandidates++] = i;
+                }
+
+                bucketNum = bucket.overflow;
+            }
+        }
+
+        // Read all candidates in one batch; the first match in chain order wins
+        Record[] candidates = binReader.readRecords(Arrays.copyOf(candidatePtrs, numCandidates));
+
+        for (int j = 0; j < numCandidates; j++) {
+            int i = candidateKeys[j];
+
+            if (results[i] == null && candidates[j].getEntry().trim().equals(entryIDs[i]))
+                results[i] = candidates[j];
         }
+
+        return results;
+    }
+
+    /*
+     * Method cacheDirectory()
+     *
+     * Purpose: Reads the format code, bucket count, and depth stored at
+     *          the end of the index file, then loads the directory (or
+     *          linear hashing page table) that precedes them into memory.
+     * Pre-condition: The index file exists and is readable.
+     * Post-condition: The directory reflects the one written during
+     *                 index creation.
+     */
+    public void cacheDirectory() throws IOException {
+        indexFileSize = indexFilePath.length();
+
         // If the index file is empty, just assume 0 (no buckets)
+        if (indexFileSize == 0) {
+            globalDepth = 0;
+            numBuckets = 0;
+            directory = new int[1];
+            return;
+        }
+
+        // Read the final integers stored in the index file; the last
+        // one is the format code, which says how many precede it
+        ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES * 4);
+        BinReader.readFully(indexChannel, trailer, indexFileSize - Integer.BYTES * 4);
+        indexFormat = trailer.getInt(Integer.BYTES * 3); // Load format code
+
+        int dirSize; // Number of directory entries
+
+        if (indexFormat == Consts.INDEX_FORMAT_EXTENDIBLE) {
+            numBuckets = trailer.getInt(Integer.BYTES);      // Load bucket count
+            globalDepth = trailer.getInt(Integer.BYTES * 2); // Load directory depth
+            splitPtr = 0;
+
+            dirSize = 1 << globalDepth;
+        }
+        else if (indexFormat == Consts.INDEX_FORMAT_LINEAR) {
+            numBuckets = trailer.getInt(0);                  // Load page count
+            globalDepth = trailer.getInt(Integer.BYTES);     // Load round depth
+            splitPtr = trailer.getInt(Integer.BYTES * 2);    // Load split pointer
+
+            dirSize = (1 << globalDepth) + splitPtr;
+        }
         else {
-            hashIter = 0;
+            throw new IOException("Unrecognized index file format: " + indexFormat);
         }
+
+        // The directory starts right after the buckets region
+        ByteBuffer buf = ByteBuffer.allocate(Integer.BYTES * dirSize);
+        BinReader.readFully(indexChannel, buf, (long) numBuckets * Consts.BUCKET_SIZE_BYTES);
+        buf.flip();
+
+        directory = new int[dirSize];
+        buf.asIntBuffer().get(directory);
     }
 
     /*
      * Method close()
      *
-     * Purpose: Closes the index file stream and the associated
+     * Purpose: Closes the index file channel and the associated
      *          binary file reader, releasing all system resources.
      * Pre-condition: The IndexReader has been initialized.
-     * Post-condition: All open file streams are closed.
+     * Post-condition: All open files are closed.
      */
     public void close() throws IOException {
-        if (indexFileStream != null) indexFileStream.close();
+        if (indexChannel != null) indexChannel.close();
         if (binReader != null) binReader.close();
     }
 }
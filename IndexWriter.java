@@ -9,16 +9,20 @@
  * Description:
  * This file defines the IndexWriter class, which is responsible for
  * constructing and maintaining an extendible hash index for a fixed-width
- * binary dataset. The index dynamically grows as buckets become full and
- * stores record offsets that enable fast, indexed access to records by
- * Data.entry values.
+ * binary dataset. The index grows one bucket at a time as buckets become
+ * full and stores record offsets that enable fast, indexed access to
+ * records by Data.entry values.
  *
  * The IndexWriter class performs the following responsibilities:
- * 1. Initializes the index file and hash table structure.
- * 2. Inserts record pointers into hash buckets based on Data.entry values.
- * 3. Detects bucket overflow and expands the index accordingly.
- * 4. Rebuilds the index when the hash table grows.
- * 5. Writes the final hash iteration value to the index file.
+ * 1. Initializes the index file, the directory, and the first buckets.
+ * 2. Inserts record pointers and key fingerprints into hash buckets
+ *    based on Data.entry values.
+ * 3. Detects bucket overflow and splits only the overflowing bucket, or
+ *    chains an overflow page when no split can separate its keys.
+ * 4. Doubles the directory when a split needs another hash bit.
+ * 5. Writes the directory and global depth to the index file.
+ * 6. Bulk loads a complete index in one read of the binary file and
+ *    one sequential write of the index file.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
@@ -29,6 +33,7 @@
  */
 
 import java.io.*;
+import java.nio.*;
 import java.util.*;
 
 /*
@@ -36,31 +41,61 @@ import java.util.*;
  * Author: Tom Giallanza
  * Purpose: An object of this class is responsible for building and
  *          maintaining an extendible hash index over a fixed-width
- *          binary data file. It inserts record pointers into hash
- *          buckets, expands the index when buckets overflow, and
- *          writes metadata required for indexed lookup operations.
+ *          binary data file. It keeps a directory of bucket numbers
+ *          in memory, inserts record pointers into the bucket the
+ *          directory selects, splits only a bucket that overflows,
+ *          and writes the directory required for indexed lookups.
  * Inherits From: None
  * Interfaces: None
- * Constants: None
- * Constructors: IndexWriter(File binFilePath)
- * Class Methods: None
+ * Constants: FNV_OFFSET_BASIS
+ *            FNV_PRIME
+ * Constructors: IndexWriter()
+ * Class Methods: long fingerprint(String entryID)
+ *                long fingerprint(byte[] bytes, int offset, int len)
+ *                long fingerprint(ByteBuffer buf, int offset, int len)
+ *                void addToPages(ArrayList<Bucket> pages, int localDepth,
+ *                                long recordPtr, long key)
+ *                IndexWriter openExisting(File binFilePath)
  * Inst. Methods: int getNumBuckets()
- *                int hash(String entryID)
- *                void initIndexRange(int start, int end)
- *                void clearSizeRange(int start, int end)
- *                boolean insertRecord(Record record, long recordPtr)
+ *                int getDirIndex(long key)
+ *                void initIndex()
+ *                void insertRecord(Record record, long recordPtr)
+ *                void insertPointer(long key, long recordPtr)
+ *                void splitBucket(int bucketNum, Bucket bucket)
+ *                int allocPage()
+ *                void addToChain(int bucketNum, Bucket bucket,
+ *                                long recordPtr, long key)
+ *                void writeChain(int firstPage, int localDepth,
+ *                                ArrayList<Bucket> pages)
  *                void clearIndex()
  *                void populateIndex()
- *                void writeHashIter()
+ *                void populateIndex(long[] keys)
+ *                void bulkLoadIndex()
+ *                void bulkLoadIndex(long[] keys)
+ *                void writeDirectory()
+ *                void readDirectory()
+ *                void rebuildFreePages(int[] primaries, int count)
+ *                int[] getOccupancies()
+ *                int[] getChainOccupancies(int[] primaries, int count)
+ *                void displayBucketStats()
  *                void close()
  */
 class IndexWriter {
 
-    private int hashIter = 0;   // Current hash iteration value (controls table size)
-    private BinReader binReader; // Utility for reading records from binary file
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L; // 64-bit FNV-1a start value
+    private static final long FNV_PRIME = 0x100000001b3L;             // 64-bit FNV-1a multiplier
 
-    private File indexFilePath;               // Index file path
-    private RandomAccessFile indexFileStream; // Random-access index file stream
+    private int globalDepth = 0;   // Number of hash bits used to index the directory
+    private int[] directory;       // Directory entries mapping hash bits to bucket numbers
+    protected int numBuckets = 0;  // Number of pages allocated in the index file
+    protected BinReader binReader; // Utility for reading records from binary file
+    protected File binFilePath;    // Binary data file path
+
+    protected File indexFilePath;               // Index file path
+    protected RandomAccessFile indexFileStream; // Random-access index file stream
+
+    protected ArrayDeque<Integer> freePages = new ArrayDeque<Integer>();
+        // Overflow pages released by splits and available for reuse
 
     /*
      * Constructor open(binFilePath)
@@ -75,6 +110,7 @@ class IndexWriter {
      */
     public void open(File binFilePath) throws IOException {
         binReader = new BinReader(binFilePath); // Initialize binary reader
+        this.binFilePath = binFilePath;
         indexFilePath = new File(Consts.INDEX_FILE_NAME); // Create index file in the cwd
         indexFileStream = new RandomAccessFile(indexFilePath, "rw"); // Open for read/write
     }
@@ -82,122 +118,496 @@ class IndexWriter {
     /*
      * Method getNumBuckets()
      *
-     * Purpose: Computes the current number of hash buckets based on
-     *          the current hash iteration.
-     * Pre-condition: hashIter is correctly initialized.
+     * Purpose: Returns the number of buckets allocated in the index file.
+     *          Several directory entries may share one bucket, so this
+     *          is never more than the directory size.
+     * Pre-condition: The index has been initialized.
      * Post-condition: No internal state is modified.
-     * Returns: The number of hash buckets available at the current iteration.
+     * Returns: The number of buckets in the index file.
      */
     public int getNumBuckets() {
-        // Number of buckets doubles each time hashIter increases
-        return (int) Math.pow(2, hashIter + 1);
+        return numBuckets;
     }
 
     /*
-     * Method hash(entryID)
+     * Method fingerprint(entryID)
      *
-     * Purpose: Computes the bucket index for a given entry ID using
-     *          a hash function and modulo operation based on the
-     *          current number of buckets.
-     * Pre-condition: entryID is a non-null string.
+     * Purpose: Computes the 64-bit fingerprint of an entry ID. The low
+     *          bits select a bucket (the directory uses the low
+     *          globalDepth bits, and a bucket splits on the next bit
+     *          above its local depth), and the whole value is stored
+     *          beside each record pointer so lookups can skip records
+     *          whose keys cannot match.
+     * Pre-condition: entryID is a non-null, trimmed string.
      * Post-condition: No internal state is modified.
      * Parameters:
      *   entryID - The Data.entry string used for hashing
-     * Returns: The computed bucket index for the entry.
+     * Returns: The 64-bit fingerprint of the entry.
      */
-    public int hash(String entryID) {
-        // Ensure non-negative hash value before modulo
-        return (entryID.hashCode() & 0x7fffffff) % getNumBuckets();
+    public static long fingerprint(String entryID) {
+        long h = FNV_OFFSET_BASIS;
+
+        for (int i = 0; i < entryID.length(); i++) {
+            h ^= entryID.charAt(i);
+            h *= FNV_PRIME;
+        }
+
+        return mix(h);
     }
 
     /*
-     * Method initIndexRange(start, end)
+     * Method fingerprint(bytes, offset, len)
      *
-     * Purpose: Initializes a range of buckets in the index file by
-     *          setting their sizes to zero and filling record pointer
-     *          slots with dummy values (-1).
-     * Pre-condition: start and end define a valid bucket range.
-     * Post-condition: Specified buckets are ready to accept record pointers.
+     * Purpose: Computes the same fingerprint as fingerprint(String)
+     *          directly from the US-ASCII bytes of a fixed-width
+     *          Data.entry field, so a sequential scan does not need to
+     *          build Strings. Leading and trailing padding is skipped
+     *          exactly as trim() would.
+     * Pre-condition: offset and len lie within bytes.
+     * Post-condition: No internal state is modified.
      * Parameters:
-     *   start - The starting bucket index (inclusive)
-     *   end   - The ending bucket index (exclusive)
+     *   bytes  - Buffer holding the field
+     *   offset - Index of the field's first byte
+     *   len    - Width of the field in bytes
+     * Returns: The 64-bit fingerprint of the trimmed entry.
      */
-    public void initIndexRange(int start, int end) throws IOException {
-        for (int i = start; i < end; i++) {
+    public static long fingerprint(byte[] bytes, int offset, int len) {
+        return fingerprint(ByteBuffer.wrap(bytes), offset, len);
+    }
+
+    /*
+     * Method fingerprint(buf, offset, len)
+     *
+     * Purpose: Computes the fingerprint of a fixed-width Data.entry field
+     *          held in a buffer, such as a record BinWriter has just
+     *          encoded, without moving the buffer's position.
+     * Pre-condition: offset and len lie within the buffer's limit.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   buf    - Buffer holding the field
+     *   offset - Index of the field's first byte
+     *   len    - Width of the field in bytes
+     * Returns: The 64-bit fingerprint of the trimmed entry.
+     */
+    public static long fingerprint(ByteBuffer buf, int offset, int len) {
+        int start = offset;      // First byte kept by trim()
+        int end = offset + len;  // One past the last byte kept by trim()
 
-            // Move file pointer to start of bucket
-            indexFileStream.seek(Consts.BUCKET_SIZE_BYTES * i);
+        while (start < end && (buf.get(start) & 0xff) <= ' ')
+            start++;
+        while (end > start && (buf.get(end - 1) & 0xff) <= ' ')
+            end--;
 
-            indexFileStream.writeInt(0); // Initialize bucket size to 0
+        long h = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            byte b = buf.get(i);
 
-            // Fill bucket record pointer slots with dummy values
-            for (int j = 0; j < Consts.BUCKET_CAPACITY; j++) {
-                indexFileStream.writeLong(-1);
-            }
+            // US-ASCII decoding maps bytes above 0x7f to U+FFFD
+            h ^= (b >= 0 ? b : 0xfffd);
+            h *= FNV_PRIME;
         }
+
+        return mix(h);
+    }
+
+    /*
+     * Method mix(h)
+     *
+     * Purpose: Spreads every input bit of an FNV-1a hash across the low
+     *          bits that select buckets (MurmurHash3 finalizer).
+     * Pre-condition: None.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   h - Raw FNV-1a hash
+     * Returns: The mixed 64-bit value.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
     }
 
     /*
-     * Method clearSizeRange(start, end)
+     * Method getDirIndex(key)
      *
-     * Purpose: Resets the size field of each bucket in a specified range
-     *          to zero without altering the bucket contents.
-     * Pre-condition: start and end define a valid bucket range.
-     * Post-condition: Bucket sizes are cleared; record pointers remain.
+     * Purpose: Selects the directory entry for a key fingerprint using
+     *          the low globalDepth bits of the fingerprint.
+     * Pre-condition: The directory has been initialized.
+     * Post-condition: No internal state is modified.
      * Parameters:
-     *   start - The starting bucket index (inclusive)
-     *   end   - The ending bucket index (exclusive)
+     *   key - Value returned by fingerprint()
+     * Returns: The directory index for the fingerprint.
      */
-    public void clearSizeRange(int start, int end) throws IOException {
-        for (int i = start; i < end; i++) {
+    public int getDirIndex(long key) {
+        return (int) key & ((1 << globalDepth) - 1);
+    }
 
-            // Seek to bucket size field only
-            indexFileStream.seek(Consts.BUCKET_SIZE_BYTES * i);
+    /*
+     * Method initIndex()
+     *
+     * Purpose: Creates the initial directory and writes one empty bucket
+     *          for each of its entries.
+     * Pre-condition: The index file stream is open.
+     * Post-condition: The index holds 2^INITIAL_GLOBAL_DEPTH empty buckets.
+     */
+    public void initIndex() throws IOException {
+        globalDepth = Consts.INITIAL_GLOBAL_DEPTH;
+        directory = new int[1 << globalDepth];
+        numBuckets = 0;
+        freePages.clear();
 
-            // Reset the size of the bucket without clearing the body
-            indexFileStream.writeInt(0);
+        // Each initial directory entry owns its own empty bucket
+        for (int i = 0; i < directory.length; i++) {
+            directory[i] = numBuckets;
+            new Bucket(globalDepth).write(indexFileStream, numBuckets++);
         }
     }
 
     /*
      * Method insertRecord(record, recordPtr)
      *
-     * Purpose: Inserts a record pointer into the appropriate hash bucket
-     *          in the index file. If the bucket is full, insertion fails.
-     * Pre-condition: The record object is valid, and recordPtr points
-     *                to a valid location in the binary file.
-     * Post-condition: The record pointer is written to the bucket, and
-     *                 the bucket size is updated if insertion succeeds.
+     * Purpose: Inserts a record pointer into the bucket selected by the
+     *          directory. If that bucket is full, it is split and the
+     *          insertion is retried until the pointer fits.
+     * Pre-condition: The index has been initialized, the record object is
+     *                valid, and recordPtr points to a valid location in
+     *                the binary file.
+     * Post-condition: The record pointer is written to its bucket.
      * Parameters:
      *   record    - The Record object to insert
      *   recordPtr - Byte offset of the record in the binary file
-     * Returns: True if the record was successfully inserted; false if
-     *          the bucket was full.
      */
-    public boolean insertRecord(Record record, long recordPtr) throws IOException {
+    public void insertRecord(Record record, long recordPtr) throws IOException {
+        insertPointer(fingerprint(record.getEntry().trim()), recordPtr);
+    }
+
+    /*
+     * Method insertPointer(key, recordPtr)
+     *
+     * Purpose: Inserts a record pointer with a known key fingerprint into
+     *          the bucket selected by the directory. A full bucket is
+     *          split until the pointer fits, unless splitting cannot
+     *          help: if the key already fills much of the bucket, its
+     *          slots move to the bucket's overflow chain, and if the
+     *          bucket is at the maximum depth, the pointer is chained.
+     * Pre-condition: The index has been initialized and key is the
+     *                fingerprint of the record's trimmed Data.entry.
+     * Post-condition: The record pointer is written to its bucket chain.
+     * Parameters:
+     *   key       - Fingerprint of the record's Data.entry value
+     *   recordPtr - Byte offset of the record in the binary file
+     */
+    public void insertPointer(long key, long recordPtr) throws IOException {
+        while (true) {
+            int bucketNum = directory[getDirIndex(key)];
+            Bucket bucket = Bucket.read(indexFileStream, bucketNum);
 
-        // Compute byte offset of target bucket
-        long bucketPtr =
-            (long) hash(record.getEntry().trim()) * Consts.BUCKET_SIZE_BYTES;
+            // Room in the bucket, so store the pointer and stop
+            if (!bucket.isFull()) {
+                bucket.add(recordPtr, key);
+                bucket.write(indexFileStream, bucketNum);
+                return;
+            }
+
+            // A heavily duplicated key moves to the overflow chain, since
+            // no split can separate its copies from each other
+            if (countKey(bucket, key) >= Consts.DUPLICATE_EVICT_COUNT) {
+                evictKey(bucketNum, bucket, recordPtr, key);
+                return;
+            }
+
+            // No more hash bits to split on, so chain the pointer instead
+            if (bucket.localDepth == Consts.MAX_GLOBAL_DEPTH) {
+                addToChain(bucketNum, bucket, recordPtr, key);
+                return;
+            }
+
+            // Otherwise split only this bucket and try again
+            splitBucket(bucketNum, bucket);
+        }
+    }
 
-        indexFileStream.seek(bucketPtr);
+    /*
+     * Method countKey(bucket, key)
+     *
+     * Purpose: Counts the slots of a bucket that hold a given key.
+     * Pre-condition: None.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   bucket - Contents of the bucket
+     *   key    - Fingerprint to count
+     * Returns: The number of slots holding the key.
+     */
+    private static int countKey(Bucket bucket, long key) {
+        int count = 0;
 
-        int bucketSize = indexFileStream.readInt(); // Read current bucket occupancy
+        for (int i = 0; i < bucket.size; i++) {
+            if (bucket.keys[i] == key)
+                count++;
+        }
 
-        // If bucket is full, signal overflow
-        if (bucketSize == Consts.BUCKET_CAPACITY)
-            return false;
+        return count;
+    }
 
-        // Move to next available slot in bucket
-        indexFileStream.seek(bucketPtr + Integer.BYTES + bucketSize * Long.BYTES);
+    /*
+     * Method evictKey(bucketNum, bucket, recordPtr, key)
+     *
+     * Purpose: Moves every slot holding a key out of a full primary
+     *          bucket and into its overflow chain, together with the
+     *          new pointer for that key. This frees primary slots for
+     *          other keys instead of splitting a bucket whose fullness
+     *          comes from duplicates, which would only deepen the
+     *          directory without separating them.
+     * Pre-condition: bucket holds the full contents of bucketNum.
+     * Post-condition: The primary bucket holds no slots for the key.
+     * Parameters:
+     *   bucketNum - Bucket number of the full primary bucket
+     *   bucket    - Contents of the full primary bucket
+     *   recordPtr - Byte offset of the new record in the binary file
+     *   key       - Fingerprint of the duplicated Data.entry value
+     */
+    private void evictKey(int bucketNum, Bucket bucket, long recordPtr,
+                          long key) throws IOException {
+        ArrayList<Long> evicted = new ArrayList<Long>(); // Pointers leaving the bucket
+        evicted.add(recordPtr);
 
-        indexFileStream.writeLong(recordPtr); // Write record pointer
+        // Compact the primary bucket around the evicted slots
+        int kept = 0;
+        for (int i = 0; i < bucket.size; i++) {
+            if (bucket.keys[i] == key) {
+                evicted.add(bucket.ptrs[i]);
+            }
+            else {
+                bucket.ptrs[kept] = bucket.ptrs[i];
+                bucket.keys[kept] = bucket.keys[i];
+                kept++;
+            }
+        }
+        bucket.size = kept;
 
-        // Update bucket size
-        indexFileStream.seek(bucketPtr);
-        indexFileStream.writeInt(bucketSize + 1);
+        for (long ptr : evicted)
+            addToChain(bucketNum, bucket, ptr, key);
 
-        return true;
+        bucket.write(indexFileStream, bucketNum);
+    }
+
+    /*
+     * Method splitBucket(bucketNum, bucket)
+     *
+     * Purpose: Splits a full bucket and its overflow chain into itself
+     *          and one new bucket on the hash bit just above its local
+     *          depth. The directory doubles first if the bucket already
+     *          uses every directory bit.
+     * Pre-condition: bucket holds the current contents of bucketNum.
+     * Post-condition: Both halves are written with the increased local
+     *                 depth and the directory points at the right halves.
+     * Parameters:
+     *   bucketNum - Bucket number of the full bucket
+     *   bucket    - Contents of the full bucket
+     */
+    public void splitBucket(int bucketNum, Bucket bucket) throws IOException {
+        // Grow the directory if the bucket cannot be told apart any further
+        if (bucket.localDepth == globalDepth) {
+            directory = Arrays.copyOf(directory, directory.length * 2);
+            System.arraycopy(directory, 0, directory, directory.length / 2,
+                             directory.length / 2);
+            globalDepth++;
+        }
+
+        int splitBit = 1 << bucket.localDepth;  // Hash bit that separates the halves
+        int newBucketNum = allocPage();         // Bucket receiving the high half
+
+        ArrayList<Bucket> low = new ArrayList<Bucket>();  // Pages of the low half
+        ArrayList<Bucket> high = new ArrayList<Bucket>(); // Pages of the high half
+
+        // Redistribute the bucket's whole chain on the split bit using the
+        // stored fingerprints, so the binary file is never read
+        int pageNum = bucketNum;
+        Bucket page = bucket;
+        while (true) {
+            for (int i = 0; i < page.size; i++) {
+                if (((int) page.keys[i] & splitBit) == 0)
+                    addToPages(low, bucket.localDepth + 1, page.ptrs[i], page.keys[i]);
+                else
+                    addToPages(high, bucket.localDepth + 1, page.ptrs[i], page.keys[i]);
+            }
+
+            if (pageNum != bucketNum)
+                freePages.push(pageNum);
+
+            pageNum = page.overflow;
+            if (pageNum == Bucket.NO_OVERFLOW)
+                break;
+
+            page = Bucket.read(indexFileStream, pageNum);
+        }
+
+        // Repoint the directory entries that now belong to the new bucket.
+        // They share the bucket's low localDepth bits and have the split bit set.
+        int lowBits = (int) bucket.keys[0] & (splitBit - 1);
+        for (int i = lowBits | splitBit; i < directory.length; i += splitBit << 1)
+            directory[i] = newBucketNum;
+
+        writeChain(bucketNum, bucket.localDepth + 1,
+                   separateDuplicates(low, bucket.localDepth + 1));
+        writeChain(newBucketNum, bucket.localDepth + 1,
+                   separateDuplicates(high, bucket.localDepth + 1));
+    }
+
+    /*
+     * Method separateDuplicates(pages, localDepth)
+     *
+     * Purpose: Rearranges the slots of a chain so that keys with at
+     *          least DUPLICATE_EVICT_COUNT copies start on their own
+     *          overflow page after every other slot. This keeps room in
+     *          the primary bucket for other keys, so duplicates do not
+     *          refill it and force needless splits.
+     * Pre-condition: None.
+     * Post-condition: The given pages are not modified.
+     * Parameters:
+     *   pages      - In-memory pages of a chain
+     *   localDepth - Local depth recorded in the new pages
+     * Returns: The rearranged pages, primary page first.
+     */
+    private static ArrayList<Bucket> separateDuplicates(ArrayList<Bucket> pages,
+                                                        int localDepth) {
+        HashMap<Long, Integer> counts = new HashMap<Long, Integer>(); // Copies of each key
+
+        for (Bucket page : pages) {
+            for (int i = 0; i < page.size; i++)
+                counts.merge(page.keys[i], 1, Integer::sum);
+        }
+
+        ArrayList<Bucket> light = new ArrayList<Bucket>(); // Pages of the other keys
+        ArrayList<Bucket> heavy = new ArrayList<Bucket>(); // Pages of duplicated keys
+
+        for (Bucket page : pages) {
+            for (int i = 0; i < page.size; i++) {
+                if (counts.get(page.keys[i]) >= Consts.DUPLICATE_EVICT_COUNT)
+                    addToPages(heavy, localDepth, page.ptrs[i], page.keys[i]);
+                else
+                    addToPages(light, localDepth, page.ptrs[i], page.keys[i]);
+            }
+        }
+
+        // The primary page always holds the other keys, even if none exist
+        if (light.isEmpty())
+            light.add(new Bucket(localDepth));
+
+        light.addAll(heavy);
+        return light;
+    }
+
+    /*
+     * Method allocPage()
+     *
+     * Purpose: Returns a bucket number for a new page, reusing a page
+     *          released by an earlier split when one is available.
+     * Pre-condition: The index has been initialized.
+     * Post-condition: The returned bucket number is owned by the caller.
+     * Returns: Bucket number of an unused page.
+     */
+    protected int allocPage() {
+        if (!freePages.isEmpty())
+            return freePages.pop();
+
+        return numBuckets++;
+    }
+
+    /*
+     * Method addToChain(bucketNum, bucket, recordPtr, key)
+     *
+     * Purpose: Stores a slot in the overflow chain of a full primary
+     *          bucket. Only the first overflow page is tried; when it is
+     *          also full, a new page is linked in right after the primary
+     *          bucket, so every insertion costs a constant number of
+     *          page accesses however long the chain grows.
+     * Pre-condition: bucket holds the current contents of bucketNum and
+     *                has no free slot it should use first.
+     * Post-condition: The slot is stored in the bucket's chain.
+     * Parameters:
+     *   bucketNum - Bucket number of the full primary bucket
+     *   bucket    - Contents of the full primary bucket
+     *   recordPtr - Byte offset of the record in the binary file
+     *   key       - Fingerprint of the record's Data.entry value
+     */
+    protected void addToChain(int bucketNum, Bucket bucket, long recordPtr,
+                              long key) throws IOException {
+        // Use the first overflow page if it still has room
+        if (bucket.overflow != Bucket.NO_OVERFLOW) {
+            Bucket first = Bucket.read(indexFileStream, bucket.overflow);
+
+            if (!first.isFull()) {
+                first.add(recordPtr, key);
+                first.write(indexFileStream, bucket.overflow);
+                return;
+            }
+        }
+
+        // Otherwise link a new page at the head of the chain
+        Bucket page = new Bucket(bucket.localDepth);
+        page.add(recordPtr, key);
+        page.overflow = bucket.overflow;
+
+        bucket.overflow = allocPage();
+        page.write(indexFileStream, bucket.overflow);
+        bucket.write(indexFileStream, bucketNum);
+    }
+
+    /*
+     * Method addToPages(pages, localDepth, recordPtr, key)
+     *
+     * Purpose: Appends a slot to the last page of an in-memory chain,
+     *          starting a new page when the last one is full.
+     * Pre-condition: None.
+     * Post-condition: The chain holds one more slot.
+     * Parameters:
+     *   pages      - In-memory pages of the chain
+     *   localDepth - Local depth recorded in new pages
+     *   recordPtr  - Byte offset of the record in the binary file
+     *   key        - Fingerprint of the record's Data.entry value
+     */
+    protected static void addToPages(ArrayList<Bucket> pages, int localDepth,
+                                     long recordPtr, long key) {
+        if (pages.isEmpty() || pages.get(pages.size() - 1).isFull())
+            pages.add(new Bucket(localDepth));
+
+        pages.get(pages.size() - 1).add(recordPtr, key);
+    }
+
+    /*
+     * Method writeChain(firstPage, localDepth, pages)
+     *
+     * Purpose: Writes in-memory pages as a bucket chain starting at the
+     *          given page, allocating overflow pages as needed.
+     * Pre-condition: firstPage is owned by the chain being written.
+     * Post-condition: The chain holds exactly the given pages' slots.
+     * Parameters:
+     *   firstPage  - Bucket number of the chain's primary page
+     *   localDepth - Local depth recorded if the chain is empty
+     *   pages      - In-memory pages of the chain
+     */
+    protected void writeChain(int firstPage, int localDepth,
+                              ArrayList<Bucket> pages) throws IOException {
+        if (pages.isEmpty())
+            pages.add(new Bucket(localDepth));
+
+        int pageNum = firstPage;
+
+        for (int i = 0; i < pages.size(); i++) {
+            Bucket page = pages.get(i);
+
+            // Link every page but the last to a fresh overflow page
+            if (i < pages.size() - 1)
+                page.overflow = allocPage();
+
+            page.write(indexFileStream, pageNum);
+            pageNum = page.overflow;
+        }
     }
 
     /*
@@ -218,58 +628,494 @@ class IndexWriter {
     /*
      * Method populateIndex()
      *
-     * Purpose: Reads all records from the binary dataset and inserts
-     *          their pointers into hash buckets. If a bucket overflows,
-     *          the index grows and insertion restarts.
+     * Purpose: Reads all records from the binary dataset once and inserts
+     *          their pointers into the extendible hash index. Overflowing
+     *          buckets are split in place using the stored fingerprints,
+     *          so no record is read twice.
      * Pre-condition: Binary dataset and index file are initialized.
      * Post-condition: All records are inserted into the extendible hash index.
      */
     public void populateIndex() throws IOException {
-        long currRecordPtr; // Byte offset of current record
-        Record currRecord;  // Record read from binary file
+        long currRecordPtr;                    // Byte offset of current record
+        RecordView view = binReader.newView(); // Reused for every record
+
+        // Initialize the directory and its first buckets
+        initIndex();
+
+        // Insert every record exactly once, fingerprinting its key in place
+        for (int i = 0; i < binReader.getNumRecords(); i++) {
+            currRecordPtr = binReader.getRecordPointer(i); // Compute record offset
+            binReader.readRecord(currRecordPtr, view);     // Load record bytes
+
+            insertPointer(view.getEntryFingerprint(), currRecordPtr);
+        }
+    }
+
+    /*
+     * Method populateIndex(keys)
+     *
+     * Purpose: Inserts one pointer per key without reading the binary
+     *          file, for a caller that fingerprinted every record while
+     *          writing it. The result is the same as populateIndex().
+     * Pre-condition: Binary dataset and index file are initialized, and
+     *                keys holds the fingerprint of each record in order.
+     * Post-condition: All records are inserted into the extendible hash index.
+     * Parameters:
+     *   keys - Key fingerprint of each record, in record order
+     */
+    public void populateIndex(long[] keys) throws IOException {
+        initIndex();
+
+        for (int i = 0; i < keys.length; i++)
+            insertPointer(keys[i], binReader.getRecordPointer(i));
+    }
+
+    /*
+     * Method bulkLoadIndex()
+     *
+     * Purpose: Builds the whole index in one read of the binary file and
+     *          one write of the index file. The table is sized up front
+     *          so that only buckets no split could separate need overflow
+     *          pages, and every directory entry gets its own bucket at
+     *          that depth.
+     * Pre-condition: Binary dataset and index file are initialized.
+     * Post-condition: All records are inserted into the extendible hash index.
+     */
+    public void bulkLoadIndex() throws IOException {
+        bulkLoadIndex(scanKeys());
+    }
+
+    /*
+     * Method bulkLoadIndex(keys)
+     *
+     * Purpose: Bulk loads the index from fingerprints collected while the
+     *          binary file was written, skipping the read of the file.
+     * Pre-condition: Binary dataset and index file are initialized, and
+     *                keys holds the fingerprint of each record in order.
+     * Post-condition: All records are inserted into the extendible hash index.
+     * Parameters:
+     *   keys - Key fingerprint of each record, in record order
+     */
+    public void bulkLoadIndex(long[] keys) throws IOException {
+        globalDepth = bulkLoadBuckets(keys);
+
+        // Every directory entry points at its own bucket
+        directory = new int[1 << globalDepth];
+        for (int i = 0; i < directory.length; i++)
+            directory[i] = i;
+    }
+
+    /*
+     * Method bulkLoadBuckets(keys)
+     *
+     * Purpose: Performs the bulk load in four steps: take the fingerprint
+     *          of every record's key, choose the smallest depth whose
+     *          splittable bucket fits, partition the pointers in memory,
+     *          and write every bucket in one sequential pass. Buckets
+     *          holding more than BUCKET_CAPACITY pointers continue in
+     *          overflow pages written after the last primary bucket.
+     * Pre-condition: Binary dataset and index file are initialized.
+     * Post-condition: Buckets 0 to 2^depth - 1 and their overflow pages
+     *                 are written in order, and numBuckets counts them.
+     * Parameters:
+     *   keys - Key fingerprint of each record, in record order
+     * Returns: The number of hash bits used to select a bucket.
+     */
+    protected int bulkLoadBuckets(long[] keys) throws IOException {
+        int numRecords = keys.length;
+
+        // 1. Every key was fingerprinted by the caller
+
+        // 2. Choose the smallest depth that holds the worst-case bucket
+        long[] heavyKeys = findHeavyKeys(keys);
+        int depth = chooseDepth(keys, heavyKeys);
+        int mask = (1 << depth) - 1;
+
+        // 3. Partition the slots by bucket with a counting sort
+        int[] starts = new int[(1 << depth) + 1]; // First slot of each bucket
+        for (long key : keys)
+            starts[((int) key & mask) + 1]++;
+        for (int i = 0; i < (1 << depth); i++)
+            starts[i + 1] += starts[i];
+
+        long[] ptrs = new long[numRecords];       // Pointers grouped by bucket
+        long[] sortedKeys = new long[numRecords]; // Fingerprints grouped by bucket
+        int[] next = Arrays.copyOf(starts, starts.length);
+
+        // Heavy keys go after the other keys of their bucket, so the
+        // other keys stay in the primary bucket where possible
+        for (int heavyPass = 0; heavyPass < 2; heavyPass++) {
+            for (int i = 0; i < numRecords; i++) {
+                boolean heavy = Arrays.binarySearch(heavyKeys, keys[i]) >= 0;
+
+                if (heavy == (heavyPass == 1)) {
+                    int slot = next[(int) keys[i] & mask]++;
+                    ptrs[slot] = binReader.getRecordPointer(i);
+                    sortedKeys[slot] = keys[i];
+                }
+            }
+        }
+
+        // 4. Write every page in one sequential pass: the primary buckets
+        //    in order, then the overflow pages of any oversized buckets
+        ByteBuffer buf =
+            ByteBuffer.allocate(Consts.BUCKET_SIZE_BYTES * Consts.BULK_BUCKETS_PER_WRITE);
+        Bucket bucket = new Bucket(depth);
+
+        numBuckets = 1 << depth;
+        freePages.clear();
+        indexFileStream.seek(0);
+
+        // Primary buckets hold the first BUCKET_CAPACITY slots of each bucket
+        int nextOverflow = numBuckets; // Page number of the next overflow page
+        for (int b = 0; b < (1 << depth); b++) {
+            int endSlot = Math.min(starts[b + 1], starts[b] + Consts.BUCKET_CAPACITY);
+
+            bucket.clear();
+            for (int i = starts[b]; i < endSlot; i++)
+                bucket.add(ptrs[i], sortedKeys[i]);
+
+            // Overflow pages are numbered in the order they are written below
+            if (endSlot < starts[b + 1]) {
+                bucket.overflow = nextOverflow;
+                nextOverflow += (starts[b + 1] - endSlot - 1) / Consts.BUCKET_CAPACITY + 1;
+            }
+
+            putPage(buf, bucket);
+        }
+
+        // Overflow pages hold the remaining slots, each linked to the next
+        for (int b = 0; b < (1 << depth); b++) {
+            for (int first = starts[b] + Consts.BUCKET_CAPACITY; first < starts[b + 1];
+                 first += Consts.BUCKET_CAPACITY) {
+                int endSlot = Math.min(starts[b + 1], first + Consts.BUCKET_CAPACITY);
+
+                bucket.clear();
+                for (int i = first; i < endSlot; i++)
+                    bucket.add(ptrs[i], sortedKeys[i]);
 
-        // Initialize initial bucket range
-        initIndexRange(0, getNumBuckets());
+                if (endSlot < starts[b + 1])
+                    bucket.overflow = numBuckets + 1;
 
-        // Attempt to insert every record
-        int i = 0;  // Record index
-        while (i < binReader.getNumRecords()) {
+                putPage(buf, bucket);
+                numBuckets++;
+            }
+        }
+        indexFileStream.write(buf.array(), 0, buf.position());
+
+        return depth;
+    }
+
+    /*
+     * Method putPage(buf, bucket)
+     *
+     * Purpose: Encodes one page into the bulk write buffer, writing the
+     *          buffer to the index file whenever it fills.
+     * Pre-condition: The index file pointer is at the end of the pages
+     *                written so far.
+     * Post-condition: The page is buffered or written.
+     * Parameters:
+     *   buf    - Bulk write buffer
+     *   bucket - Page to encode
+     */
+    private void putPage(ByteBuffer buf, Bucket bucket) throws IOException {
+        bucket.put(buf);
+
+        if (!buf.hasRemaining()) {
+            indexFileStream.write(buf.array(), 0, buf.position());
+            buf.clear();
+        }
+    }
+
+    /*
+     * Method scanKeys()
+     *
+     * Purpose: Reads the binary file front to back in large sequential
+     *          blocks and fingerprints the Data.entry field of every record.
+     *          A compressed or paged file is read through the BinReader,
+     *          which inflates or unpacks each block or page as the scan
+     *          reaches it.
+     * Pre-condition: The binary file is open and its footer is cached.
+     * Post-condition: No internal state is modified.
+     * Returns: The key fingerprint of each record, in record order.
+     */
+    private long[] scanKeys() throws IOException {
+        int numRecords = binReader.getNumRecords();
+        long[] keys = new long[numRecords];
+
+        RecordView view = binReader.newView(); // Reused for every record
 
-            currRecordPtr = i * binReader.getSizeOfRecord(); // Compute record offset
-            currRecord = binReader.readRecord(currRecordPtr); // Read record
+        if (binReader.isCompressed() || binReader.isPaged()) {
+            // Map a paged file, so each page is read once, not once per record
+            BinReader scanReader = binReader.isPaged() ? new BinReader(binFilePath, true)
+                                                       : binReader;
 
-            boolean writeRes = insertRecord(currRecord, currRecordPtr);
+            for (int i = 0; i < numRecords; i++) {
+                scanReader.readRecord(scanReader.getRecordPointer(i), view);
+                keys[i] = view.getEntryFingerprint();
+            }
 
-            // If insertion fails, expand hash table
-            if (!writeRes) {
-                // Reset existing bucket sizes
-                clearSizeRange(0, getNumBuckets());
+            if (scanReader != binReader)
+                scanReader.close();
 
-                // Initialize new bucket range (doubling table)
-                initIndexRange(getNumBuckets(), getNumBuckets() * 2);
+            return keys;
+        }
 
-                hashIter++; // Increase hash depth
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                 new FileInputStream(binFilePath), Consts.SCAN_BUFFER_BYTES))) {
 
-                i = 0; // Restart insertion process
-            } else {
-                i++; // Move to next record
+            for (int i = 0; i < numRecords; i++) {
+                in.readFully(view.getBytes());
+                keys[i] = view.getEntryFingerprint();
             }
         }
+
+        return keys;
+    }
+
+    /*
+     * Method findHeavyKeys(keys)
+     *
+     * Purpose: Finds the keys shared by more than BUCKET_CAPACITY
+     *          records. No depth can fit such a key in one bucket, so
+     *          its pointers always continue in overflow pages.
+     * Pre-condition: keys holds one fingerprint per record.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   keys - Key fingerprint of each record
+     * Returns: The heavy keys in ascending order.
+     */
+    private long[] findHeavyKeys(long[] keys) {
+        long[] sorted = Arrays.copyOf(keys, keys.length);
+        Arrays.sort(sorted);
+
+        ArrayList<Long> heavyKeys = new ArrayList<Long>();
+
+        // Equal keys are adjacent once sorted
+        for (int i = 0; i < sorted.length; ) {
+            int j = i;
+            while (j < sorted.length && sorted[j] == sorted[i])
+                j++;
+
+            if (j - i > Consts.BUCKET_CAPACITY)
+                heavyKeys.add(sorted[i]);
+
+            i = j;
+        }
+
+        return heavyKeys.stream().mapToLong(Long::longValue).toArray();
     }
 
     /*
-     * Method writeHashIter()
+     * Method chooseDepth(keys, heavyKeys)
      *
-     * Purpose: Stores the current hash iteration value at the end
-     *          of the index file for metadata purposes.
+     * Purpose: Finds the smallest number of hash bits for which no
+     *          bucket receives more than BUCKET_CAPACITY pointers,
+     *          not counting heavy keys (no depth can separate their
+     *          duplicates, so they use overflow pages). Depths whose
+     *          average occupancy of light keys already exceeds the
+     *          capacity are skipped.
+     * Pre-condition: keys holds one fingerprint per record.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   keys      - Key fingerprint of each record
+     *   heavyKeys - Keys shared by more than BUCKET_CAPACITY records
+     * Returns: The chosen depth.
+     */
+    private int chooseDepth(long[] keys, long[] heavyKeys) {
+        int depth = Consts.INITIAL_GLOBAL_DEPTH;
+
+        // Only the light keys have to fit the primary buckets
+        long[] lightKeys = Arrays.stream(keys)
+                                 .filter(key -> Arrays.binarySearch(heavyKeys, key) < 0)
+                                 .toArray();
+
+        // Skip depths that cannot fit even an even spread of the light keys
+        while ((long) Consts.BUCKET_CAPACITY << depth < lightKeys.length)
+            depth++;
+
+        for (; depth < Consts.MAX_GLOBAL_DEPTH; depth++) {
+            int mask = (1 << depth) - 1;
+            int[] counts = new int[1 << depth]; // Light pointers per bucket
+            int fullest = 0;
+
+            for (long key : lightKeys)
+                fullest = Math.max(fullest, ++counts[(int) key & mask]);
+
+            if (fullest <= Consts.BUCKET_CAPACITY)
+                return depth;
+        }
+
+        // At the maximum depth, every oversized bucket is chained
+        return Consts.MAX_GLOBAL_DEPTH;
+    }
+
+    /*
+     * Method writeDirectory()
+     *
+     * Purpose: Stores the directory after the buckets region, followed
+     *          by the bucket count, the global depth, and the extendible
+     *          format code, so that the last integers of the index file
+     *          describe its layout.
      * Pre-condition: Hash table has been populated.
-     * Post-condition: hashIter value is written to the index file.
+     * Post-condition: The directory and metadata end the index file.
+     */
+    public void writeDirectory() throws IOException {
+        ByteBuffer buf =
+            ByteBuffer.allocate(Integer.BYTES * (directory.length + 3));
+
+        for (int bucketNum : directory)
+            buf.putInt(bucketNum);
+
+        buf.putInt(numBuckets);
+        buf.putInt(globalDepth);
+        buf.putInt(Consts.INDEX_FORMAT_EXTENDIBLE);
+
+        // Write the directory at the end of the buckets region
+        indexFileStream.seek((long) numBuckets * Consts.BUCKET_SIZE_BYTES);
+        indexFileStream.write(buf.array());
+        indexFileStream.setLength(indexFileStream.getFilePointer());
+    }
+
+    /*
+     * Method openExisting(binFilePath)
+     *
+     * Purpose: Opens the index file in the current directory for further
+     *          insertions. The format code at the end of the file selects
+     *          an IndexWriter or a LinearIndexWriter, which then reloads
+     *          its directory from the file.
+     * Pre-condition: The index file exists and was written by writeDirectory().
+     * Post-condition: The returned writer is ready for insertPointer();
+     *                 writeDirectory() must be called after the insertions.
+     * Parameters:
+     *   binFilePath - Reference to the fixed-width binary data file
+     * Returns: A writer holding the index's directory.
      */
-    public void writeHashIter() throws IOException {
-        // Write the hash iteration index at end of the buckets region
-        indexFileStream.seek(getNumBuckets() * Consts.BUCKET_SIZE_BYTES);
+    public static IndexWriter openExisting(File binFilePath) throws IOException {
+        int format; // Last int of the index file
+
+        try (RandomAccessFile in = new RandomAccessFile(Consts.INDEX_FILE_NAME, "r")) {
+            if (in.length() < Integer.BYTES)
+                throw new IOException("Error: Index file is empty");
+
+            in.seek(in.length() - Integer.BYTES);
+            format = in.readInt();
+        }
+
+        IndexWriter indexWriter;
+        if (format == Consts.INDEX_FORMAT_LINEAR)
+            indexWriter = new LinearIndexWriter();
+        else if (format == Consts.INDEX_FORMAT_EXTENDIBLE)
+            indexWriter = new IndexWriter();
+        else
+            throw new IOException("Error: Unknown index format " + format);
 
-        indexFileStream.writeInt(hashIter);
+        indexWriter.open(binFilePath);
+        indexWriter.readDirectory();
+
+        return indexWriter;
+    }
+
+    /*
+     * Method readDirectory()
+     *
+     * Purpose: Reloads the directory, bucket count, and global depth that
+     *          writeDirectory() stored at the end of the index file.
+     *          Pages freed by earlier splits are not recorded in the file,
+     *          so they are found again by rebuildFreePages().
+     * Pre-condition: The index file is open and in the extendible format.
+     * Post-condition: The writer's state matches the index file.
+     */
+    protected void readDirectory() throws IOException {
+        long trailerPos = indexFileStream.length() - Integer.BYTES * 3;
+
+        indexFileStream.seek(trailerPos);
+        numBuckets = indexFileStream.readInt();
+        globalDepth = indexFileStream.readInt();
+
+        byte[] dirBytes = new byte[Integer.BYTES << globalDepth];
+        indexFileStream.seek(trailerPos - dirBytes.length);
+        indexFileStream.readFully(dirBytes);
+
+        directory = new int[1 << globalDepth];
+        ByteBuffer.wrap(dirBytes).asIntBuffer().get(directory);
+
+        int[] primaries = Arrays.stream(directory).distinct().toArray();
+        rebuildFreePages(primaries, primaries.length);
+    }
+
+    /*
+     * Method rebuildFreePages(primaries, count)
+     *
+     * Purpose: Refills the free list of a reloaded index. Every page the
+     *          file has allocated is either in a chain that starts at a
+     *          primary bucket or was released by a split, so the pages no
+     *          chain reaches are the free ones.
+     * Pre-condition: numBuckets and the primary buckets match the file.
+     * Post-condition: freePages holds exactly the unreachable pages.
+     * Parameters:
+     *   primaries - Bucket numbers of primary buckets
+     *   count     - Number of entries of primaries to use
+     */
+    protected void rebuildFreePages(int[] primaries, int count) throws IOException {
+        boolean[] inUse = new boolean[numBuckets]; // Pages some chain reaches
+
+        for (int i = 0; i < count; i++) {
+            for (int pageNum = primaries[i]; pageNum != Bucket.NO_OVERFLOW; ) {
+                inUse[pageNum] = true;
+                pageNum = Bucket.read(indexFileStream, pageNum).overflow;
+            }
+        }
+
+        freePages.clear();
+        for (int pageNum = 0; pageNum < numBuckets; pageNum++) {
+            if (!inUse[pageNum])
+                freePages.push(pageNum);
+        }
+    }
+
+    /*
+     * Method getOccupancies()
+     *
+     * Purpose: Totals the occupancy (size fields) of every bucket
+     *          reachable from the directory, including its overflow chain.
+     * Pre-condition: Index has already been populated.
+     * Post-condition: No internal state is modified.
+     * Returns: One occupancy per primary bucket in the index file.
+     */
+    protected int[] getOccupancies() throws IOException {
+        // Several directory entries may share one bucket, so count each once
+        int[] primaries = Arrays.stream(directory).distinct().toArray();
+
+        return getChainOccupancies(primaries, primaries.length);
+    }
+
+    /*
+     * Method getChainOccupancies(primaries, count)
+     *
+     * Purpose: Totals the occupancy of each given primary bucket and the
+     *          overflow pages chained to it.
+     * Pre-condition: Index has already been populated.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   primaries - Bucket numbers of primary buckets
+     *   count     - Number of entries of primaries to use
+     * Returns: One occupancy per primary bucket.
+     */
+    protected int[] getChainOccupancies(int[] primaries, int count) throws IOException {
+        int[] occupancies = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            int pageNum = primaries[i];
+
+            while (pageNum != Bucket.NO_OVERFLOW) {
+                Bucket bucket = Bucket.read(indexFileStream, pageNum);
+                occupancies[i] += bucket.size;
+                pageNum = bucket.overflow;
+            }
+        }
+
+        return occupancies;
     }
 
     /*
@@ -281,6 +1127,7 @@ class IndexWriter {
      *      2) Lowest bucket occupancy
      *      3) Highest bucket occupancy
      *      4) Mean and median bucket occupancy
+     *      5) Number of overflow pages
      *
      * Pre-condition:
      *   Index has already been populated.
@@ -289,17 +1136,9 @@ class IndexWriter {
      *   Statistics are printed to standard output.
      */
     public void displayBucketStats() throws IOException {
-        int numBuckets = getNumBuckets();
-        int[] occupancies = new int[numBuckets];
-
-        // Read occupancy (size field) of each bucket
-        for (int i = 0; i < numBuckets; i++) {
-
-            long bucketPtr = (long) i * Consts.BUCKET_SIZE_BYTES;
-            indexFileStream.seek(bucketPtr);
-
-            occupancies[i] = indexFileStream.readInt();
-        }
+        int[] occupancies = getOccupancies();
+        int numBuckets = occupancies.length;
+        int numOverflow = getNumBuckets() - numBuckets - freePages.size();
 
         // Sort occupancies for the min, max, and median
         Arrays.sort(occupancies);
@@ -327,6 +1166,7 @@ class IndexWriter {
         System.out.println("Highest bucket occupancy: " + highest);
         System.out.printf("Mean bucket occupancy: %.2f%n", mean);
         System.out.printf("Median bucket occupancy: %.2f%n", median);
+        System.out.println("Number of overflow pages: " + numOverflow);
     }
 
 
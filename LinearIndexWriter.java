@@ -0,0 +1,298 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the LinearIndexWriter class, which builds a linear
+ * hash index for a fixed-width binary dataset. Instead of doubling a
+ * directory, the index grows by splitting one primary bucket at a time
+ * in round-robin order, so the cost of growth is spread evenly across
+ * insertions. Buckets that fill up between splits are extended with
+ * overflow pages.
+ *
+ * The LinearIndexWriter class performs the following responsibilities:
+ * 1. Maps each Data.entry hash to a primary bucket using the split pointer.
+ * 2. Inserts record pointers into primary buckets and overflow pages.
+ * 3. Splits the bucket at the split pointer when the load factor is exceeded.
+ * 4. Reuses overflow pages released by splits.
+ * 5. Writes the primary bucket table and split state to the index file.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac LinearIndexWriter.java
+ *   Usage: Used by Prog21 when the linear hashing scheme is selected
+ *   Input: Fixed-width binary data file of dataset records
+ *   Output: Linear hash index file containing record offsets
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/*
+ * Class: LinearIndexWriter
+ * Author: Tom Giallanza
+ * Purpose: An object of this class builds a linear hash index over a
+ *          fixed-width binary data file. Primary buckets are addressed
+ *          with depth or depth + 1 hash bits depending on whether they
+ *          have already been split in the current round, and every
+ *          bucket may be followed by a chain of overflow pages.
+ * Inherits From: IndexWriter
+ * Interfaces: None
+ * Constants: None
+ * Constructors: LinearIndexWriter()
+ * Class Methods: None
+ * Inst. Methods: int getPrimaryNum(long key)
+ *                void initIndex()
+ *                void insertPointer(long key, long recordPtr)
+ *                void splitNext()
+ *                void bulkLoadIndex(long[] keys)
+ *                void writeDirectory()
+ *                void readDirectory()
+ *                int[] getOccupancies()
+ */
+class LinearIndexWriter extends IndexWriter {
+
+    private int depth = 0;         // Hash bits used for buckets not yet split this round
+    private int splitPtr = 0;      // Next primary bucket to be split
+    private int numPrimary = 0;    // Number of primary buckets
+    private int[] pageTable;       // Bucket number of each primary bucket
+    private long numPointers = 0;  // Number of record pointers stored
+
+    /*
+     * Method getPrimaryNum(key)
+     *
+     * Purpose: Selects the primary bucket for a key fingerprint. Buckets
+     *          below the split pointer have already been split this
+     *          round and are addressed with one more hash bit.
+     * Pre-condition: The index has been initialized.
+     * Post-condition: No internal state is modified.
+     * Parameters:
+     *   key - Value returned by IndexWriter.fingerprint()
+     * Returns: The primary bucket number for the fingerprint.
+     */
+    public int getPrimaryNum(long key) {
+        int primaryNum = (int) key & ((1 << depth) - 1);
+
+        if (primaryNum < splitPtr)
+            primaryNum = (int) key & ((1 << (depth + 1)) - 1);
+
+        return primaryNum;
+    }
+
+    /*
+     * Method initIndex()
+     *
+     * Purpose: Creates the initial primary buckets and resets the split
+     *          state to the start of the first round.
+     * Pre-condition: The index file stream is open.
+     * Post-condition: The index holds 2^INITIAL_GLOBAL_DEPTH empty buckets.
+     */
+    @Override
+    public void initIndex() throws IOException {
+        depth = Consts.INITIAL_GLOBAL_DEPTH;
+        splitPtr = 0;
+        numPrimary = 0;
+        numPointers = 0;
+        numBuckets = 0;
+        pageTable = new int[1 << depth];
+        freePages.clear();
+
+        for (int i = 0; i < pageTable.length; i++) {
+            pageTable[numPrimary++] = numBuckets;
+            new Bucket(0).write(indexFileStream, numBuckets++);
+        }
+    }
+
+    /*
+     * Method insertPointer(key, recordPtr)
+     *
+     * Purpose: Inserts a record pointer into its primary bucket, or into
+     *          the bucket's overflow chain if the primary bucket is full.
+     *          If the load factor is then exceeded, the bucket at the
+     *          split pointer is split.
+     * Pre-condition: The index has been initialized and key is the
+     *                fingerprint of the record's trimmed Data.entry.
+     * Post-condition: The record pointer is written to its bucket chain.
+     * Parameters:
+     *   key       - Fingerprint of the record's Data.entry value
+     *   recordPtr - Byte offset of the record in the binary file
+     */
+    @Override
+    public void insertPointer(long key, long recordPtr) throws IOException {
+        int pageNum = pageTable[getPrimaryNum(key)];
+
+        Bucket bucket = Bucket.read(indexFileStream, pageNum);
+
+        // Store the pointer in the primary bucket if it has room,
+        // otherwise in the bucket's overflow chain
+        if (!bucket.isFull()) {
+            bucket.add(recordPtr, key);
+            bucket.write(indexFileStream, pageNum);
+        }
+        else {
+            addToChain(pageNum, bucket, recordPtr, key);
+        }
+
+        numPointers++;
+
+        // Grow by one bucket once the primary buckets are too full
+        if (numPointers > Consts.LINEAR_MAX_LOAD * numPrimary * Consts.BUCKET_CAPACITY)
+            splitNext();
+    }
+
+    /*
+     * Method splitNext()
+     *
+     * Purpose: Splits the primary bucket at the split pointer into
+     *          itself and a new primary bucket on the next hash bit,
+     *          then advances the split pointer. When every bucket of the
+     *          round has been split, a new round begins.
+     * Pre-condition: The index has been initialized.
+     * Post-condition: One more primary bucket exists and the pointers
+     *                 of the split chain are redistributed.
+     */
+    public void splitNext() throws IOException {
+        ArrayList<Bucket> low = new ArrayList<Bucket>();  // Pages of the low half
+        ArrayList<Bucket> high = new ArrayList<Bucket>(); // Pages of the high half
+        int splitBit = 1 << depth;                        // Hash bit that separates the halves
+
+        // Redistribute the whole chain on the split bit using the stored
+        // fingerprints, releasing its overflow pages as they are read
+        int pageNum = pageTable[splitPtr];
+        while (pageNum != Bucket.NO_OVERFLOW) {
+            Bucket bucket = Bucket.read(indexFileStream, pageNum);
+
+            for (int i = 0; i < bucket.size; i++) {
+                if (((int) bucket.keys[i] & splitBit) == 0)
+                    addToPages(low, 0, bucket.ptrs[i], bucket.keys[i]);
+                else
+                    addToPages(high, 0, bucket.ptrs[i], bucket.keys[i]);
+            }
+
+            if (pageNum != pageTable[splitPtr])
+                freePages.push(pageNum);
+
+            pageNum = bucket.overflow;
+        }
+
+        // Append the new primary bucket to the page table
+        if (numPrimary == pageTable.length)
+            pageTable = Arrays.copyOf(pageTable, pageTable.length * 2);
+        pageTable[numPrimary++] = allocPage();
+
+        writeChain(pageTable[splitPtr], 0, low);
+        writeChain(pageTable[splitPtr + splitBit], 0, high);
+
+        // Advance the split pointer, starting a new round when it wraps
+        splitPtr++;
+        if (splitPtr == splitBit) {
+            depth++;
+            splitPtr = 0;
+        }
+    }
+
+    /*
+     * Method bulkLoadIndex(keys)
+     *
+     * Purpose: Bulk loads the buckets as a linear hash index at the
+     *          start of a round, where every primary bucket is selected
+     *          with the same number of hash bits.
+     * Pre-condition: Binary dataset and index file are initialized.
+     * Post-condition: All records are inserted into the linear hash index.
+     * Parameters:
+     *   keys - Key fingerprint of each record, in record order
+     */
+    @Override
+    public void bulkLoadIndex(long[] keys) throws IOException {
+        depth = bulkLoadBuckets(keys);
+        splitPtr = 0;
+        numPrimary = 1 << depth;
+        numPointers = keys.length;
+
+        // Primary bucket i is stored at bucket number i
+        pageTable = new int[numPrimary];
+        for (int i = 0; i < numPrimary; i++)
+            pageTable[i] = i;
+    }
+
+    /*
+     * Method writeDirectory()
+     *
+     * Purpose: Stores the primary bucket table after the buckets region,
+     *          followed by the page count, the round depth, the split
+     *          pointer, and the linear format code, so that the last
+     *          integers of the index file describe its layout.
+     * Pre-condition: Hash table has been populated.
+     * Post-condition: The page table and metadata end the index file.
+     */
+    @Override
+    public void writeDirectory() throws IOException {
+        ByteBuffer buf =
+            ByteBuffer.allocate(Integer.BYTES * (numPrimary + 4));
+
+        for (int i = 0; i < numPrimary; i++)
+            buf.putInt(pageTable[i]);
+
+        buf.putInt(numBuckets);
+        buf.putInt(depth);
+        buf.putInt(splitPtr);
+        buf.putInt(Consts.INDEX_FORMAT_LINEAR);
+
+        // Write the page table at the end of the buckets region
+        indexFileStream.seek((long) numBuckets * Consts.BUCKET_SIZE_BYTES);
+        indexFileStream.write(buf.array());
+        indexFileStream.setLength(indexFileStream.getFilePointer());
+    }
+
+    /*
+     * Method readDirectory()
+     *
+     * Purpose: Reloads the primary bucket table, page count, round depth,
+     *          and split pointer stored by writeDirectory(). The pointer
+     *          count that drives splits and the free pages are not
+     *          stored, so they are recounted from the buckets.
+     * Pre-condition: The index file is open and in the linear format.
+     * Post-condition: The writer's state matches the index file.
+     */
+    @Override
+    protected void readDirectory() throws IOException {
+        long trailerPos = indexFileStream.length() - Integer.BYTES * 4;
+
+        indexFileStream.seek(trailerPos);
+        numBuckets = indexFileStream.readInt();
+        depth = indexFileStream.readInt();
+        splitPtr = indexFileStream.readInt();
+        numPrimary = (1 << depth) + splitPtr;
+
+        byte[] tableBytes = new byte[Integer.BYTES * numPrimary];
+        indexFileStream.seek(trailerPos - tableBytes.length);
+        indexFileStream.readFully(tableBytes);
+
+        pageTable = new int[1 << (depth + 1)];
+        ByteBuffer.wrap(tableBytes).asIntBuffer().get(pageTable, 0, numPrimary);
+        rebuildFreePages(pageTable, numPrimary);
+
+        numPointers = 0;
+        for (int occupancy : getChainOccupancies(pageTable, numPrimary))
+            numPointers += occupancy;
+    }
+
+    /*
+     * Method getOccupancies()
+     *
+     * Purpose: Totals the occupancy of each primary bucket's chain.
+     * Pre-condition: Index has already been populated.
+     * Post-condition: No internal state is modified.
+     * Returns: One occupancy per primary bucket.
+     */
+    @Override
+    protected int[] getOccupancies() throws IOException {
+        return getChainOccupancies(pageTable, numPrimary);
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the ParallelCSVParser class, which parses a CSV file
+ * of bat cave records on several threads at once. The file is memory
+ * mapped, divided into chunks that each start and end on a row boundary,
+ * and every chunk is parsed by its own CSVParser on a ForkJoinPool. The
+ * per-chunk records and field widths are then merged into the same
+ * result a single CSVParser would produce.
+ *
+ * The ParallelCSVParser class performs the following responsibilities:
+ * 1. Memory maps the CSV file.
+ * 2. Splits the rows after the header into chunks, never inside a
+ *    quoted field.
+ * 3. Parses the mapped chunks concurrently on a ForkJoinPool.
+ * 4. Merges the records and RecordLayouts of all chunks in file order.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac ParallelCSVParser.java
+ *   Usage: Used by Prog1A when parallel ingest is selected
+ *   Input: CSV file of bat cave records
+ *   Output: ArrayList of immutable Record objects and their RecordLayout
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Class: ParallelCSVParser
+ * Author: Tom Giallanza
+ * Purpose: An object of this class parses a CSV file in parallel. Chunk
+ *          boundaries are found with one sequential pass over the mapped
+ *          bytes that tracks quote state, which is far cheaper than
+ *          parsing; each chunk is then tokenized in place and parsed
+ *          independently.
+ * Inherits From: CSVParser
+ * Interfaces: None
+ * Constants: None
+ * Constructors: ParallelCSVParser(File csvFilePath)
+ * Class Methods: None
+ * Inst. Methods: ArrayList<Record> parseCSV()
+ *                RecordLayout getLayout()
+ */
+class ParallelCSVParser extends CSVParser {
+
+    private File csvFilePath;                         // CSV file path
+    private RecordLayout layout = RecordLayout.EMPTY; // Merged layout of every chunk
+
+    /*
+     * Constructor ParallelCSVParser(csvFilePath)
+     *
+     * Purpose: Initializes a ParallelCSVParser for the given CSV file.
+     * Pre-condition: csvFilePath references a valid, readable CSV file.
+     * Post-condition: The file path is stored; nothing is opened yet.
+     * Parameters: csvFilePath - Reference to the CSV file to be parsed.
+     */
+    ParallelCSVParser(File csvFilePath) {
+        this.csvFilePath = csvFilePath;
+    }
+
+    /*
+     * Method parseCSV()
+     *
+     * Purpose: Parses every row after the header on a ForkJoinPool and
+     *          returns the records in the order they appear in the file.
+     * Pre-condition: The CSV file exists, is readable, and correctly
+     *                formatted.
+     * Post-condition: getLayout() describes every parsed record.
+     * Returns: An ArrayList of Record objects, one per row
+     */
+    @Override
+    public ArrayList<Record> parseCSV() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(); // One worker per core
+        ArrayList<ChunkTask> tasks = new ArrayList<ChunkTask>();
+
+        try (FileChannel channel = FileChannel.open(csvFilePath.toPath(),
+                                                    StandardOpenOption.READ)) {
+            long[] bounds = findChunks(channel, pool.getParallelism());
+
+            // Start every chunk, then collect them in file order
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                ChunkTask task = new ChunkTask(channel, bounds[i], bounds[i + 1]);
+                tasks.add(task);
+                pool.execute(task);
+            }
+
+            int numRecords = 0; // Total records over all chunks
+
+            for (ChunkTask task : tasks) {
+                task.join();
+
+                if (task.error != null)
+                    throw task.error;
+
+                numRecords += task.records.size();
+                layout = layout.merge(task.layout);
+            }
+
+            ArrayList<Record> records = new ArrayList<Record>(numRecords);
+            for (ChunkTask task : tasks)
+                records.addAll(task.records);
+
+            return records;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Method getLayout()
+     *
+     * Purpose: Returns the merged layout of all parsed chunks.
+     * Pre-condition: parseCSV() has been executed.
+     * Post-condition: No state is modified.
+     * Returns: The RecordLayout of the parsed records.
+     */
+    @Override
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /*
+     * Method findChunks(channel, numThreads)
+     *
+     * Purpose: Scans the mapped file once, tracking whether each byte is
+     *          inside a quoted field, and cuts it after the first
+     *          unquoted newline past each chunk's target size. The first
+     *          chunk starts after the header row.
+     * Pre-condition: The channel is open for reading.
+     * Post-condition: No state is modified.
+     * Parameters: channel    - Channel of the CSV file
+     *             numThreads - Number of threads that will parse chunks
+     * Returns: Chunk boundaries; chunk i spans [bounds[i], bounds[i + 1]).
+     */
+    private long[] findChunks(FileChannel channel, int numThreads) throws IOException {
+        long size = channel.size();
+        long chunkBytes = size / ((long) numThreads * Consts.CSV_CHUNKS_PER_THREAD);
+        chunkBytes = Math.max(Consts.CSV_MIN_CHUNK_BYTES,
+                              Math.min(Consts.CSV_MAX_CHUNK_BYTES, chunkBytes));
+
+        ArrayList<Long> bounds = new ArrayList<Long>();
+        boolean inHeader = true;  // The header row ends at its first newline
+        boolean inQuote = false;  // Whether the current byte is inside quotes
+        long target = 0;          // Earliest end of the current chunk
+
+        // Map the file a window at a time so any file size can be scanned
+        for (long base = 0; base < size; base += Consts.CSV_MAX_CHUNK_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base,
+                Math.min(Consts.CSV_MAX_CHUNK_BYTES, size - base));
+
+            for (int i = 0; i < window.limit(); i++) {
+                byte b = window.get(i);
+
+                if (b == '"' && !inHeader) {
+                    inQuote = !inQuote;
+                }
+                else if (b == '\n' && !inQuote) {
+                    long rowEnd = base + i + 1; // Offset just past this row
+
+                    if (inHeader || rowEnd >= target) {
+                        bounds.add(rowEnd);
+                        target = rowEnd + chunkBytes;
+                        inHeader = false;
+                    }
+                }
+            }
+        }
+
+        // The rows after the last cut form the final chunk
+        if (!bounds.isEmpty() && bounds.get(bounds.size() - 1) < size)
+            bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+
+        return result;
+    }
+
+    /*
+     * Class: ChunkTask
+     * Author: Tom Giallanza
+     * Purpose: A ForkJoinPool task that maps one chunk of the CSV file
+     *          and parses its rows with a CSVParser. An I/O
+     *          error is kept for the caller instead of being thrown
+     *          across the pool.
+     * Inherits From: RecursiveAction
+     * Interfaces: None
+     * Constants: serialVersionUID
+     * Constructors: ChunkTask(FileChannel channel, long start, long end)
+     * Class Methods: None
+     * Inst. Methods: void compute()
+     */
+    private static class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+            // RecursiveAction is Serializable; tasks are never serialized
+
+        private final FileChannel channel; // Channel of the CSV file
+        private final long start;          // Offset of the chunk's first row
+        private final long end;            // Offset just past the chunk's last row
+
+        ArrayList<Record> records;         // Records parsed from the chunk
+        RecordLayout layout;               // Field widths of those records
+        IOException error;                 // Error that stopped parsing, if any
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        /*
+         * Method compute()
+         *
+         * Purpose: Parses the rows of this chunk.
+         * Pre-condition: start and end lie on row boundaries.
+         * Post-condition: records and layout are set, or error is.
+         */
+        @Override
+        protected void compute() {
+            try {
+                MappedByteBuffer bytes =
+                    channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+                // Fields are sliced straight out of the mapping
+                CSVParser parser = new CSVParser(bytes);
+
+                records = parser.parseRecords();
+                layout = parser.getLayout();
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the PipelinedBinWriter class, the back of the Prog1A
+ * ingest pipeline. Records handed to the writer are grouped into batches,
+ * a pool of encoder threads turns each batch into a block of fixed-width
+ * bytes, and a single writer thread appends the blocks to the binary file
+ * in order. Bounded queues connect the stages, so the caller is held back
+ * when encoding or writing falls behind instead of buffering without
+ * limit.
+ *
+ * The PipelinedBinWriter class performs the following responsibilities:
+ * 1. Groups records into numbered batches.
+ * 2. Encodes batches concurrently on encoder threads.
+ * 3. Writes the encoded blocks in batch order on one writer thread.
+ * 4. Drains the pipeline before the footer is written.
+ * 5. Counts the throughput of the encode and write stages.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac PipelinedBinWriter.java
+ *   Usage: Used by Prog1A when pipelined ingest is selected
+ *   Input: Record objects in output order
+ *   Output: Binary file identical to the one BinWriter produces
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Class: PipelinedBinWriter
+ * Author: Tom Giallanza
+ * Purpose: An object of this class is a BinWriter whose encoding and
+ *          writing run on their own threads, overlapping with whatever
+ *          produces the records. Encoded blocks are direct buffers that
+ *          the writer thread returns to a pool for reuse. Encoders also
+ *          fingerprint the keys when they are collected. Only the writer
+ *          thread touches the file and the collected keys until the
+ *          pipeline is drained.
+ * Inherits From: BinWriter
+ * Interfaces: None
+ * Constants: None
+ * Constructors: PipelinedBinWriter(File binFilePath, RecordLayout layout,
+ *                                  StageCounter source)
+ * Class Methods: None
+ * Inst. Methods: void open()
+ *                void writeRecord(Record record)
+ *                void writeLengths()
+ *                StageCounter getEncodeCounter()
+ *                StageCounter getWriteCounter()
+ *                void close()
+ */
+class PipelinedBinWriter extends BinWriter {
+
+    private StageCounter source;                    // Charged when writeRecord() must wait
+    private StageCounter encodeCounter;             // Counters of the encoder threads
+    private StageCounter writeCounter;              // Counters of the writer thread
+
+    private ArrayBlockingQueue<RecordBatch> toEncode; // Batches waiting for an encoder
+    private ArrayBlockingQueue<RecordBatch> toWrite;  // Blocks waiting for the writer
+    private ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<ByteBuffer>();
+                                                    // Written blocks ready for reuse
+
+    private Thread[] encoders;                      // Encode batches into blocks
+    private Thread writer;                          // Writes blocks in order
+    private volatile IOException error;             // First error of any thread
+
+    private RecordBatch batch;                      // Batch being filled
+    private long nextSeq = 0;                       // Number of the next batch
+
+    /*
+     * Constructor PipelinedBinWriter(binFilePath, layout, source)
+     *
+     * Purpose: Initializes a pipelined writer; threads start in open().
+     * Pre-condition: binFilePath references a writable location and
+     *                layout is wide enough for every record.
+     * Post-condition: The path, layout, and counters are stored.
+     * Parameters: binFilePath - Reference to the binary output file.
+     *             layout      - Field widths to write with.
+     *             source      - Counter of the stage producing records.
+     */
+    PipelinedBinWriter(File binFilePath, RecordLayout layout, StageCounter source)
+            throws IOException {
+        super(binFilePath, layout);
+
+        int numEncoders = Runtime.getRuntime().availableProcessors(); // One encoder per core
+
+        this.source = source;
+        encodeCounter = new StageCounter("encode", numEncoders);
+        writeCounter = new StageCounter("write", 1);
+        toEncode = new ArrayBlockingQueue<RecordBatch>(Consts.PIPELINE_QUEUE_BATCHES);
+        toWrite = new ArrayBlockingQueue<RecordBatch>(Consts.PIPELINE_QUEUE_BATCHES);
+        encoders = new Thread[numEncoders];
+    }
+
+    /*
+     * Method open()
+     *
+     * Purpose: Opens the binary file and starts the encoder and writer
+     *          threads.
+     * Pre-condition: binFilePath references a writable location.
+     * Post-condition: The file is empty and the pipeline is running.
+     */
+    @Override
+    public void open() throws IOException {
+        super.open();
+
+        for (int i = 0; i < encoders.length; i++) {
+            encoders[i] = new Thread(this::encodeBatches, "bin-encoder-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+
+        writer = new Thread(this::writeBlocks, "bin-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /*
+     * Method writeRecord(record)
+     *
+     * Purpose: Adds a record to the current batch and hands the batch to
+     *          the encoders once it is full, waiting if they are behind.
+     * Pre-condition: open() has been called.
+     * Post-condition: The record will be written after the previous one.
+     * Parameters: record - Record to write.
+     */
+    @Override
+    public void writeRecord(Record record) throws IOException {
+        if (batch == null) {
+            batch = new RecordBatch(nextSeq++);
+            batch.records = new ArrayList<Record>(Consts.PIPELINE_BATCH_RECORDS);
+        }
+
+        batch.records.add(record);
+
+        if (batch.records.size() == Consts.PIPELINE_BATCH_RECORDS) {
+            source.put(toEncode, batch);
+            batch = null;
+        }
+    }
+
+    /*
+     * Method encodeBatches()
+     *
+     * Purpose: Runs an encoder thread. Each batch is encoded into a pooled
+     *          block and passed to the writer. After an error, batches are
+     *          passed on unencoded so no thread is left waiting.
+     * Pre-condition: open() has been called.
+     * Post-condition: Every batch taken has been passed on, followed by END.
+     */
+    private void encodeBatches() {
+        RecordLayout layout = getLayout();
+
+        try {
+            RecordBatch next;
+
+            while ((next = encodeCounter.take(toEncode)) != RecordBatch.END) {
+                long begin = System.nanoTime();
+                next.numRecords = next.records.size();
+
+                if (error == null) {
+                    try {
+                        next.bytes = allocate(next.numRecords * layout.recordSize);
+                        if (isCollectingKeys())
+                            next.keys = new long[next.numRecords];
+
+                        for (int i = 0; i < next.numRecords; i++) {
+                            int recordStart = next.bytes.position();
+                            encode(next.bytes, next.records.get(i), layout);
+
+                            if (next.keys != null)
+                                next.keys[i] = IndexWriter.fingerprint(next.bytes,
+                                    recordStart + layout.entryOff, layout.entryLen);
+                        }
+
+                        next.bytes.flip();
+                    } catch (RuntimeException e) {
+                        fail(new IOException(e)); // e.g. a field wider than the layout
+                    }
+                }
+
+                next.records = null; // Let the records be collected
+                encodeCounter.work(next.numRecords,
+                                   next.bytes == null ? 0 : next.bytes.limit(),
+                                   System.nanoTime() - begin);
+                encodeCounter.put(toWrite, next);
+            }
+
+            encodeCounter.put(toWrite, RecordBatch.END);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /*
+     * Method allocate(size)
+     *
+     * Purpose: Takes a block from the pool, or allocates a new one if no
+     *          pooled block is large enough.
+     * Pre-condition: None.
+     * Post-condition: The block is owned by the caller.
+     * Parameters: size - Bytes needed
+     * Returns: A cleared direct buffer limited to size bytes.
+     */
+    private ByteBuffer allocate(int size) {
+        ByteBuffer block = free.poll();
+
+        if (block == null || block.capacity() < size)
+            block = ByteBuffer.allocateDirect(size);
+
+        block.clear().limit(size);
+        return block;
+    }
+
+    /*
+     * Method writeBlocks()
+     *
+     * Purpose: Runs the writer thread. Blocks from the encoders may arrive
+     *          out of order, so each is held until every earlier block
+     *          has been written.
+     * Pre-condition: open() has been called.
+     * Post-condition: Every block is written, or an error is recorded.
+     */
+    private void writeBlocks() {
+        HashMap<Long, RecordBatch> pending = new HashMap<Long, RecordBatch>(); // Early blocks
+        long nextWrite = 0;   // Number of the next block to write
+        int encodersDone = 0; // Encoders that have sent END
+
+        try {
+            while (encodersDone < encoders.length) {
+                RecordBatch next = writeCounter.take(toWrite);
+
+                if (next == RecordBatch.END) {
+                    encodersDone++;
+                    continue;
+                }
+
+                pending.put(next.seq, next);
+
+                while ((next = pending.remove(nextWrite)) != null) {
+                    long begin = System.nanoTime();
+                    long numBytes = 0;
+
+                    if (error == null && next.bytes != null) {
+                        numBytes = next.bytes.remaining();
+                        writeBlock(next.bytes);
+                    }
+
+                    // Keys are collected in write order, after their records
+                    if (error == null && next.keys != null) {
+                        for (long key : next.keys)
+                            addKey(key);
+                    }
+
+                    if (next.bytes != null)
+                        free.add(next.bytes);
+
+                    writeCounter.work(next.numRecords, numBytes, System.nanoTime() - begin);
+                    nextWrite++;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /*
+     * Method fail(e)
+     *
+     * Purpose: Records the first error raised by a pipeline thread.
+     * Pre-condition: None.
+     * Post-condition: error is set.
+     * Parameters: e - Error raised
+     */
+    private synchronized void fail(IOException e) {
+        if (error == null)
+            error = e;
+    }
+
+    /*
+     * Method drain()
+     *
+     * Purpose: Hands over the last partial batch, tells the encoders that
+     *          no batches remain, and waits for every block to be written.
+     * Pre-condition: open() has been called.
+     * Post-condition: The pipeline threads have finished; any error they
+     *                 raised is thrown.
+     */
+    private void drain() throws IOException {
+        if (writer == null)
+            return;
+
+        if (batch != null) {
+            source.put(toEncode, batch);
+            batch = null;
+        }
+
+        for (int i = 0; i < encoders.length; i++)
+            source.put(toEncode, RecordBatch.END);
+
+        long begin = System.nanoTime();
+
+        try {
+            for (Thread encoder : encoders)
+                encoder.join();
+            writer.join();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Interrupted while writing binary file");
+        } finally {
+            source.blocked(System.nanoTime() - begin);
+        }
+
+        writer = null;
+
+        if (error != null)
+            throw error;
+    }
+
+    /*
+     * Method writeLengths()
+     *
+     * Purpose: Waits for every record to be written, then writes the
+     *          layout footer.
+     * Pre-condition: open() has been called.
+     * Post-condition: The footer follows the last record.
+     */
+    @Override
+    public void writeLengths() throws IOException {
+        drain();
+        super.writeLengths();
+    }
+
+    /*
+     * The following methods return the counters of the pipeline's encode
+     * and write stages. All follow the same pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The StageCounter of the stage
+     */
+    public StageCounter getEncodeCounter() { return encodeCounter; }
+    public StageCounter getWriteCounter() { return writeCounter; }
+
+    /*
+     * Method close()
+     *
+     * Purpose: Waits for any records still in the pipeline, then closes
+     *          the binary file.
+     * Pre-condition: None.
+     * Post-condition: The file channel is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        drain();
+        super.close();
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the PipelinedCSVParser class, the front of the Prog1A
+ * ingest pipeline. A reader thread reads the CSV file in large blocks and
+ * cuts them into chunks of whole rows, a pool of parser threads turns
+ * each chunk into a batch of records, and the caller receives the batches
+ * in file order. Bounded queues connect the stages, so the reader never
+ * runs more than a few chunks ahead of the parsers, and the parsers never
+ * run more than a few batches ahead of the caller.
+ *
+ * The PipelinedCSVParser class performs the following responsibilities:
+ * 1. Reads the CSV file sequentially and cuts it on row boundaries,
+ *    never inside a quoted field.
+ * 2. Parses chunks concurrently on parser threads.
+ * 3. Returns the parsed batches in file order with the layout so far.
+ * 4. Counts the throughput of the read and parse stages.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac PipelinedCSVParser.java
+ *   Usage: Used by Prog1A when pipelined ingest is selected
+ *   Input: CSV file of bat cave records
+ *   Output: Batches of immutable Record objects and their RecordLayout
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Class: PipelinedCSVParser
+ * Author: Tom Giallanza
+ * Purpose: An object of this class parses a CSV file on a reader thread
+ *          and several parser threads while the caller consumes the
+ *          records. Unlike ParallelCSVParser it streams the file instead
+ *          of mapping it whole, and its output can be consumed before
+ *          the last row is parsed. Batches are numbered by the reader
+ *          and put back in that order for the caller, so records come
+ *          out exactly as a sequential CSVParser returns them.
+ * Inherits From: CSVParser
+ * Interfaces: None
+ * Constants: None
+ * Constructors: PipelinedCSVParser(File csvFilePath)
+ * Class Methods: None
+ * Inst. Methods: ArrayList<Record> parseBatch()
+ *                Record parseRecord()
+ *                ArrayList<Record> parseCSV()
+ *                void skipHeader()
+ *                RecordLayout getLayout()
+ *                StageCounter getReadCounter()
+ *                StageCounter getParseCounter()
+ *                void close()
+ */
+class PipelinedCSVParser extends CSVParser {
+
+    private FileChannel csvFileChannel;             // Input CSV file channel
+    private Thread reader;                          // Cuts the file into chunks
+    private Thread[] parsers;                       // Parse chunks into records
+    private volatile IOException readError;         // Error that stopped the reader
+
+    private ArrayBlockingQueue<RecordBatch> chunks; // Chunks waiting for a parser
+    private ArrayBlockingQueue<RecordBatch> parsed; // Batches waiting for the caller
+
+    private StageCounter readCounter;               // Counters of the reader thread
+    private StageCounter parseCounter;              // Counters of the parser threads
+
+    private HashMap<Long, RecordBatch> pending = new HashMap<Long, RecordBatch>();
+                                                    // Batches that finished early
+    private long nextSeq = 0;                       // Number of the next batch to return
+    private int parsersDone = 0;                    // Parsers that have sent END
+    private RecordLayout layout = RecordLayout.EMPTY; // Layout of the batches returned
+
+    private ArrayList<Record> batch;                // Batch being read by parseRecord()
+    private int batchPos;                           // Next record of that batch
+
+    /*
+     * Constructor PipelinedCSVParser(csvFilePath)
+     *
+     * Purpose: Opens the CSV file and starts the reader and parser threads.
+     * Pre-condition: csvFilePath references a valid, readable CSV file.
+     * Post-condition: The threads are running and the first batches are
+     *                 being parsed.
+     * Parameters: csvFilePath - Reference to the CSV file to be parsed.
+     */
+    PipelinedCSVParser(File csvFilePath) throws IOException {
+        int numParsers = Runtime.getRuntime().availableProcessors(); // One parser per core
+
+        csvFileChannel = FileChannel.open(csvFilePath.toPath(), StandardOpenOption.READ);
+        chunks = new ArrayBlockingQueue<RecordBatch>(Consts.PIPELINE_QUEUE_BATCHES);
+        parsed = new ArrayBlockingQueue<RecordBatch>(Consts.PIPELINE_QUEUE_BATCHES);
+        readCounter = new StageCounter("read", 1);
+        parseCounter = new StageCounter("parse", numParsers);
+
+        reader = new Thread(this::readChunks, "csv-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        parsers = new Thread[numParsers];
+        for (int i = 0; i < numParsers; i++) {
+            parsers[i] = new Thread(this::parseChunks, "csv-parser-" + i);
+            parsers[i].setDaemon(true);
+            parsers[i].start();
+        }
+    }
+
+    /*
+     * Method readChunks()
+     *
+     * Purpose: Runs the reader thread. The file is read into a block and
+     *          scanned once, tracking whether each byte is inside quotes;
+     *          everything up to the last unquoted newline becomes a chunk
+     *          and the partial row after it starts the next block. A block
+     *          that holds no complete row is doubled. The header row is
+     *          skipped, ignoring quotes, as CSVParser.skipHeader() does.
+     * Pre-condition: The channel is open.
+     * Post-condition: Every row after the header is in a chunk, and one
+     *                 END has been sent per parser thread.
+     */
+    private void readChunks() {
+        ByteBuffer block = ByteBuffer.allocate(Consts.CSV_MIN_CHUNK_BYTES);
+        long seq = 0;             // Number of the next chunk
+        int scanned = 0;          // Bytes of the block already scanned
+        int start = 0;            // Offset of the block's first row
+        int cut = 0;              // Offset just past the block's last complete row
+        boolean inHeader = true;  // The header row ends at its first newline
+        boolean inQuote = false;  // Whether the scan is inside quotes
+
+        try {
+            while (true) {
+                long begin = System.nanoTime();
+                int n = csvFileChannel.read(block);
+                boolean eof = n < 0;
+
+                for (; scanned < block.position(); scanned++) {
+                    byte b = block.get(scanned);
+
+                    if (b == '"' && !inHeader) {
+                        inQuote = !inQuote;
+                    }
+                    else if (b == '\n' && !inQuote) {
+                        cut = scanned + 1;
+
+                        if (inHeader) {
+                            start = cut;
+                            inHeader = false;
+                        }
+                    }
+                }
+
+                readCounter.work(0, Math.max(n, 0), System.nanoTime() - begin);
+
+                // Keep reading until the block is full or the file ends
+                if (!eof && block.hasRemaining())
+                    continue;
+
+                // A final row without a newline is still a row
+                if (eof && !inHeader)
+                    cut = block.position();
+
+                // No complete row fits; grow the block and read on
+                if (!eof && cut == 0) {
+                    ByteBuffer bigger = ByteBuffer.allocate(block.capacity() * 2);
+                    block.flip();
+                    bigger.put(block);
+                    block = bigger;
+                    continue;
+                }
+
+                if (cut > start) {
+                    RecordBatch chunk = new RecordBatch(seq++);
+                    chunk.bytes = ByteBuffer.wrap(block.array(), start, cut - start);
+                    readCounter.put(chunks, chunk);
+                }
+
+                if (eof)
+                    break;
+
+                // Carry the partial last row into a fresh block
+                int carried = block.position() - cut;
+                ByteBuffer next = ByteBuffer.allocate(
+                    Math.max(Consts.CSV_MIN_CHUNK_BYTES, carried * 2));
+                next.put(block.array(), cut, carried);
+
+                block = next;
+                scanned = carried;
+                start = 0;
+                cut = 0;
+            }
+        } catch (IOException e) {
+            readError = e;
+        }
+
+        // Tell every parser that no chunks remain
+        for (int i = 0; i < parsers.length; i++) {
+            try {
+                chunks.put(RecordBatch.END);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Method parseChunks()
+     *
+     * Purpose: Runs a parser thread. Each chunk is parsed in place by its
+     *          own CSVParser and handed on as a batch of records with its
+     *          layout; a parse error travels with the batch so the caller
+     *          sees it at the same row a sequential parse would.
+     * Pre-condition: The reader thread is running.
+     * Post-condition: Every chunk taken has been handed on, followed by END.
+     */
+    private void parseChunks() {
+        try {
+            RecordBatch chunk;
+
+            while ((chunk = parseCounter.take(chunks)) != RecordBatch.END) {
+                long begin = System.nanoTime();
+                int numBytes = chunk.bytes.remaining();
+
+                try {
+                    CSVParser parser = new CSVParser(chunk.bytes);
+                    chunk.records = parser.parseRecords();
+                    chunk.numRecords = chunk.records.size();
+                    chunk.layout = parser.getLayout();
+                } catch (IOException e) {
+                    chunk.error = e;
+                } catch (RuntimeException e) {
+                    chunk.error = new IOException(e); // e.g. a malformed coordinate
+                }
+
+                chunk.bytes = null; // Let the CSV text be collected
+                parseCounter.work(chunk.numRecords, numBytes, System.nanoTime() - begin);
+                parseCounter.put(parsed, chunk);
+            }
+
+            parseCounter.put(parsed, RecordBatch.END);
+        } catch (IOException e) {
+            // Interrupted by close(); the caller is no longer reading
+        }
+    }
+
+    /*
+     * Method parseBatch()
+     *
+     * Purpose: Returns the next batch of records in file order, waiting
+     *          for it to be parsed if necessary. Batches that finish
+     *          early are held until their turn.
+     * Pre-condition: None.
+     * Post-condition: getLayout() is wide enough for every record returned.
+     * Returns: The next batch, or null after the last row.
+     */
+    public ArrayList<Record> parseBatch() throws IOException {
+        RecordBatch next;
+
+        while ((next = pending.remove(nextSeq)) == null) {
+            if (parsersDone == parsers.length) {
+                if (readError != null)
+                    throw readError;
+
+                return null;
+            }
+
+            RecordBatch batch = take(parsed);
+
+            if (batch == RecordBatch.END)
+                parsersDone++;
+            else
+                pending.put(batch.seq, batch);
+        }
+
+        nextSeq++;
+
+        if (next.error != null)
+            throw next.error;
+
+        layout = layout.merge(next.layout);
+        return next.records;
+    }
+
+    /*
+     * Method take(queue)
+     *
+     * Purpose: Takes the next batch from a queue on the caller's thread.
+     * Pre-condition: None.
+     * Post-condition: The batch is removed from the queue.
+     * Parameters: queue - Queue to take from
+     * Returns: The batch taken.
+     */
+    private static RecordBatch take(BlockingQueue<RecordBatch> queue) throws IOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Interrupted while parsing CSV");
+        }
+    }
+
+    /*
+     * Method parseRecord()
+     *
+     * Purpose: Returns the next record in file order, one batch at a time.
+     * Pre-condition: None.
+     * Post-condition: The record is consumed.
+     * Returns: The next Record, or null after the last row.
+     */
+    @Override
+    public Record parseRecord() throws IOException {
+        while (batch == null || batchPos == batch.size()) {
+            batch = parseBatch();
+            batchPos = 0;
+
+            if (batch == null)
+                return null;
+        }
+
+        return batch.get(batchPos++);
+    }
+
+    /*
+     * Method parseCSV()
+     *
+     * Purpose: Collects every batch into one list in file order.
+     * Pre-condition: No batch has been consumed yet.
+     * Post-condition: The file and threads are closed.
+     * Returns: An ArrayList of Record objects, one per row
+     */
+    @Override
+    public ArrayList<Record> parseCSV() throws IOException {
+        ArrayList<Record> records = new ArrayList<Record>();
+        ArrayList<Record> next;
+
+        while ((next = parseBatch()) != null)
+            records.addAll(next);
+
+        close();
+
+        return records;
+    }
+
+    /*
+     * Method skipHeader()
+     *
+     * Purpose: Does nothing; the reader thread skips the header row.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     */
+    @Override
+    public void skipHeader() {
+    }
+
+    /*
+     * Method getLayout()
+     *
+     * Purpose: Returns the merged layout of the batches returned so far.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The RecordLayout of the records returned.
+     */
+    @Override
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /*
+     * The following methods return the counters of the pipeline's read
+     * and parse stages. All follow the same pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The StageCounter of the stage
+     */
+    public StageCounter getReadCounter() { return readCounter; }
+    public StageCounter getParseCounter() { return parseCounter; }
+
+    /*
+     * Method close()
+     *
+     * Purpose: Stops the reader and parser threads, which may be blocked
+     *          on a full queue if the caller stopped early, and closes the
+     *          CSV file.
+     * Pre-condition: None.
+     * Post-condition: The threads are stopping and the file is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.interrupt();
+        for (Thread parser : parsers)
+            parser.interrupt();
+
+        csvFileChannel.close();
+    }
+}
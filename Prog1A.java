@@ -28,12 +28,83 @@
  * padded with spaces to reach their maximum length, and numeric fields use
  * standard Java binary representations.
  *
+ * With the "--parallel" flag the CSV file is memory mapped and its rows
+ * are parsed in chunks on all available cores.
+ *
+ * With the "--external" or "--sort-mb=<MB>" flag the records are sorted
+ * with an external merge sort: runs of at most the given number of
+ * megabytes (default: a quarter of the heap) are sorted and spilled to
+ * temporary files, then merged into the binary file, so the input may be
+ * far larger than memory.
+ *
+ * With the "--pipeline" flag the conversion runs as a pipeline of stages
+ * connected by bounded queues of record batches: a reader thread and
+ * parser threads produce records, the sort consumes them as they arrive
+ * (spilling runs if a sort budget is also given), and encoder threads and
+ * a writer thread produce the binary file while the sort is still
+ * emitting records. A throughput report for each stage is printed at the
+ * end.
+ *
+ * With the "--index" flag the hash index (lhl.idx) is built in the same
+ * run: the writer fingerprints each record's Data.entry as it encodes it,
+ * and the index is built from those fingerprints and the record offsets
+ * without reading the binary file back, as Prog21 would. "--linear" and
+ * "--bulk" select the hashing scheme and bulk loading as for Prog21.
+ *
+ * With the "--append" or "--append=<Binary File Path>" flag the rows of
+ * the CSV file are added to an existing binary file (default:
+ * Dataset2.bin) instead of replacing it. If every new field fits the
+ * file's widths, the sorted new rows are written over the old footer and
+ * a new footer follows them, and their pointers are inserted into an
+ * existing lhl.idx, so the cost grows with the new rows only. The file is
+ * then its old sorted records followed by the sorted new ones. New rows
+ * that start below the old last key begin a new sorted run, and the
+ * first record of every run is then written after the footer so that
+ * SortedReader need not scan for them. If any new field is wider, the
+ * whole file is rewritten in sorted order with the wider layout and an
+ * existing lhl.idx is rebuilt in its current format.
+ *
+ * With the "--dict" flag the binary file is dictionary encoded: the
+ * distinct values of Biogeographical.realm, Continent, Biome,
+ * Country.record, and Species.name are gathered while parsing and stored
+ * once in the footer, and each record holds a 1, 2, or 4 byte code for
+ * each of them instead of the padded String. Records shrink accordingly,
+ * and BinReader decodes the codes only when a field is asked for. Rows
+ * appended to a dictionary-encoded file add their new values to its
+ * dictionaries, and the file is rewritten only if a code would outgrow
+ * its width.
+ *
+ * With the "--compress" flag the records are compressed in blocks of
+ * about 64 KB of whole records, and a block index follows the footer.
+ * Readers inflate only the block holding a record and cache recently
+ * used blocks, so random access by record offset is kept and lhl.idx is
+ * unchanged. Rows appended to a compressed file are merged by rewriting
+ * it, compressed again.
+ *
+ * With the "--paged" flag the records are packed into 8 KB slotted pages
+ * instead: each string field is stored as its length and its bytes
+ * without padding, and a slot directory in each page locates its
+ * records. A record's pointer in lhl.idx is its page's offset plus its
+ * slot. Rows appended to a paged file are merged by rewriting it, paged
+ * again. "--paged" cannot be combined with "--compress".
+ *
+ * With the "--columnar" flag the finished binary file is also exported
+ * to a columnar file with a ".col" extension, which stores each field of
+ * every record in one contiguous region and ends with a directory of
+ * those regions. A scan of a few fields through ColumnReader reads only
+ * their columns instead of every byte of every record.
+ *
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac Prog1A.java
- *   Execution: java Prog1A <CSV File Path>
+ *   Execution: java Prog1A [<CSV File Path>] [--parallel | --pipeline]
+ *                          [--external | --sort-mb=<MB>]
+ *                          [--index [--linear] [--bulk]]
+ *                          [--append[=<Binary File Path>]] [--dict]
+ *                          [--compress | --paged] [--columnar]
  *   Input: CSV file containing bat cave data (default: Dataset2.csv)
- *   Output: Fixed-width binary file with a .bin extension
+ *   Output: Fixed-width binary file with a .bin extension, the index
+ *           file with --index, and a .col file with --columnar
  */
 
 import java.io.*;
@@ -44,8 +115,9 @@ class Prog1A {
     /*
      * Determines the file system path of the input CSV file.
      *
-     * If a command-line argument is provided, it is used as the CSV file
-     * path. Otherwise, the program defaults to "Dataset2.csv". The method
+     * If a command-line argument other than an option flag is provided,
+     * it is used as the CSV file path. Otherwise, the program defaults to
+     * "Dataset2.csv". The method
      * validates that the file exists and is readable before returning it.
      *
      * @param args Command-line arguments
@@ -53,14 +125,13 @@ class Prog1A {
      * @throws IOException if file validation fails
      */
     public static File getCSVFilePath(String[] args) throws IOException {
-        File csvFilePath;   // Holds the CSV's OS file path
+        File csvFilePath = new File("Dataset2.csv"); // Holds the CSV's OS file path
 
-        // If an argument was provided, use it as the CSV file's path name
-        if (args.length > 0)
-            csvFilePath = new File(args[0]);
-        // Otherwise, default to Dataset2.csv
-        else
-            csvFilePath = new File("Dataset2.csv");
+        // If a path argument was provided, use it as the CSV file's path name
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                csvFilePath = new File(arg);
+        }
 
         // Validate that the CSV file exists
         if (!csvFilePath.exists()) {
@@ -77,6 +148,24 @@ class Prog1A {
         return csvFilePath;
     }
 
+    /*
+     * Selects the parser for the requested ingest mode.
+     *
+     * The "--parallel" flag selects the chunked ForkJoinPool parser.
+     * Otherwise, the file is parsed sequentially.
+     *
+     * @param args Command-line arguments
+     * @param csvFilePath File object referencing the CSV file
+     * @return CSVParser for the selected ingest mode
+     * @throws IOException if the CSV file cannot be opened
+     */
+    public static CSVParser getCSVParser(String[] args, File csvFilePath) throws IOException {
+        if (Arrays.asList(args).contains("--parallel"))
+            return new ParallelCSVParser(csvFilePath);
+
+        return new CSVParser(csvFilePath);
+    }
+
     /*
      * Parses the CSV file and converts each row into a Record object.
      *
@@ -84,13 +173,11 @@ class Prog1A {
      * sorts the resulting records in ascending order based on their
      * entry identifier field.
      *
-     * @param csvFilePath File object referencing the CSV file
+     * @param csvParser CSVParser opened on the CSV file
      * @return ArrayList of parsed and sorted Record objects
      * @throws IOException if CSV parsing fails
      */
-    public static ArrayList<Record> parseCSV(File csvFilePath) throws IOException {
-        CSVParser csvParser = new CSVParser(csvFilePath);   // CSVParser object for processing the CSV file
-
+    public static ArrayList<Record> parseCSV(CSVParser csvParser) throws IOException {
         // Parse the rows of the CSV and extract the records
         ArrayList<Record> records = csvParser.parseCSV();  // List of records from the CSV
 
@@ -109,15 +196,26 @@ class Prog1A {
      *
      * @param csvFilePath File object referencing the input CSV file
      * @param records List of parsed and sorted Record objects
+     * @param layout Field widths wide enough for every record
+     * @param collectKeys True to fingerprint every record for the index
+     * @param compress True to compress the records in blocks
+     * @param paged True to pack the records into slotted pages
+     * @return Key fingerprints in record order, or null if not collected
      * @throws IOException if binary file writing fails
      */
-    public static void writeBinaryFile(File csvFilePath, ArrayList<Record> records) throws IOException {
-        String filePrefix = csvFilePath
-                            .getName()
-                            .substring(0, csvFilePath.getName().lastIndexOf('.')); // Name of the file argument
+    public static long[] writeBinaryFile(File csvFilePath, ArrayList<Record> records,
+                                         RecordLayout layout, boolean collectKeys,
+                                         boolean compress, boolean paged)
+            throws IOException {
+        File binFilePath = getBinFilePath(csvFilePath);     // Reference to the binary output file
+        BinWriter binWriter = new BinWriter(binFilePath, layout); // Object for writing to the binary file
 
-        File binFilePath = new File(filePrefix + ".bin");   // Reference to the binary output file
-        BinWriter binWriter = new BinWriter(binFilePath);   // Object for writing to the binary file
+        if (collectKeys)
+            binWriter.collectKeys();
+        if (compress)
+            binWriter.compressBlocks();
+        if (paged)
+            binWriter.writePages();
 
         // Write the records to the binary file
         binWriter.writeRecords(records);
@@ -127,6 +225,431 @@ class Prog1A {
 
         // Close the binary file stream when done
         binWriter.close();
+
+        return binWriter.getKeys();
+    }
+
+    /*
+     * Selects whether the binary file is dictionary encoded.
+     *
+     * The "--dict" flag returns a DictionaryBuilder that gathers the
+     * distinct values of the encoded fields as the records are parsed.
+     *
+     * @param args Command-line arguments
+     * @return DictionaryBuilder, or null for the fixed-width format
+     */
+    public static DictionaryBuilder getDictionaryBuilder(String[] args) {
+        if (Arrays.asList(args).contains("--dict"))
+            return new DictionaryBuilder();
+
+        return null;
+    }
+
+    /*
+     * Determines the layout the binary file is written with.
+     *
+     * Without dictionaries this is the layout found while parsing.
+     * Otherwise the gathered values become the layout's dictionaries.
+     *
+     * @param widths Field widths found while parsing
+     * @param dictionaries Distinct values of the encoded fields, or null
+     * @return RecordLayout to write the binary file with
+     */
+    public static RecordLayout getOutputLayout(RecordLayout widths,
+                                               DictionaryBuilder dictionaries) {
+        if (dictionaries == null)
+            return widths;
+
+        return dictionaries.build(widths);
+    }
+
+    /*
+     * Determines the binary output file for a CSV file.
+     *
+     * The output binary file shares the same base name as the input CSV
+     * file, with a ".bin" extension, in the current working directory.
+     *
+     * @param csvFilePath File object referencing the input CSV file
+     * @return File object representing the binary file path
+     */
+    public static File getBinFilePath(File csvFilePath) {
+        String filePrefix = csvFilePath
+                            .getName()
+                            .substring(0, csvFilePath.getName().lastIndexOf('.')); // Name of the file argument
+
+        return new File(filePrefix + ".bin");
+    }
+
+    /*
+     * Determines the memory budget of the external merge sort.
+     *
+     * "--sort-mb=<MB>" sets the budget of one sorted run in megabytes.
+     * "--external" uses Consts.SORT_HEAP_FRACTION of the maximum heap.
+     * Without either flag the records are sorted in memory.
+     *
+     * @param args Command-line arguments
+     * @return Run budget in bytes, or 0 to sort in memory
+     */
+    public static long getSortBudget(String[] args) {
+        long budgetBytes = 0; // Run budget; 0 selects the in-memory sort
+
+        for (String arg : args) {
+            if (arg.equals("--external"))
+                budgetBytes = (long) (Runtime.getRuntime().maxMemory()
+                                      * Consts.SORT_HEAP_FRACTION);
+            else if (arg.startsWith("--sort-mb="))
+                budgetBytes = Long.parseLong(arg.substring("--sort-mb=".length())) << 20;
+        }
+
+        return budgetBytes;
+    }
+
+    /*
+     * Converts the CSV file with an external merge sort.
+     *
+     * Rows are parsed one at a time and handed to an ExternalSort, which
+     * spills a sorted run whenever its budget is reached and merges the
+     * runs into the binary file at the end.
+     *
+     * @param csvFilePath File object referencing the input CSV file
+     * @param budgetBytes Estimated heap bytes allowed per run
+     * @param collectKeys True to fingerprint every record for the index
+     * @param dictionaries Gathers the encoded fields' values, or null
+     * @param compress True to compress the records in blocks
+     * @param paged True to pack the records into slotted pages
+     * @return Key fingerprints in record order, or null if not collected
+     * @throws IOException if parsing, spilling, or merging fails
+     */
+    public static long[] externalSortCSV(File csvFilePath, long budgetBytes,
+                                         boolean collectKeys,
+                                         DictionaryBuilder dictionaries,
+                                         boolean compress, boolean paged)
+            throws IOException {
+        CSVParser csvParser = new CSVParser(csvFilePath); // Streams rows from the CSV file
+        ExternalSort sorter = new ExternalSort(getBinFilePath(csvFilePath), budgetBytes);
+        Record currRecord; // Holds the current record being processed
+
+        csvParser.skipHeader();
+
+        // The layout so far is wide enough for every record in a full run
+        while ((currRecord = csvParser.parseRecord()) != null) {
+            if (dictionaries != null)
+                dictionaries.add(currRecord);
+
+            if (sorter.add(currRecord))
+                sorter.spill(csvParser.getLayout());
+        }
+
+        csvParser.close();
+
+        BinWriter binWriter = new BinWriter(getBinFilePath(csvFilePath),
+                                            getOutputLayout(csvParser.getLayout(), dictionaries));
+        if (collectKeys)
+            binWriter.collectKeys();
+        if (compress)
+            binWriter.compressBlocks();
+        if (paged)
+            binWriter.writePages();
+
+        sorter.finish(binWriter);
+
+        return binWriter.getKeys();
+    }
+
+    /*
+     * Converts the CSV file with the staged ingest pipeline.
+     *
+     * Batches from a PipelinedCSVParser feed the run-generation stage, an
+     * ExternalSort that keeps everything in one run unless a budget was
+     * given. Its sorted output goes to a PipelinedBinWriter, so encoding
+     * and writing overlap with the sort and merge. The counters of every
+     * stage are printed when the file is complete.
+     *
+     * @param csvFilePath File object referencing the input CSV file
+     * @param budgetBytes Estimated heap bytes allowed per run, or 0
+     * @param collectKeys True to fingerprint every record for the index
+     * @param dictionaries Gathers the encoded fields' values, or null
+     * @param compress True to compress the records in blocks
+     * @param paged True to pack the records into slotted pages
+     * @return Key fingerprints in record order, or null if not collected
+     * @throws IOException if parsing, sorting, or writing fails
+     */
+    public static long[] pipelineCSV(File csvFilePath, long budgetBytes,
+                                     boolean collectKeys,
+                                     DictionaryBuilder dictionaries,
+                                     boolean compress, boolean paged)
+            throws IOException {
+        File binFilePath = getBinFilePath(csvFilePath); // Reference to the binary output file
+        PipelinedCSVParser csvParser = new PipelinedCSVParser(csvFilePath); // Read and parse stages
+        ExternalSort sorter = new ExternalSort(binFilePath,
+                                               budgetBytes > 0 ? budgetBytes : Long.MAX_VALUE);
+        StageCounter sortCounter = new StageCounter("sort", 1); // Run-generation stage counters
+        ArrayList<Record> batch; // Holds the current batch being sorted
+
+        // Generate runs as batches arrive; the layout so far fits every full run
+        while (true) {
+            long start = System.nanoTime();
+            batch = csvParser.parseBatch();
+            long parsed = System.nanoTime();
+            sortCounter.starved(parsed - start);
+
+            if (batch == null)
+                break;
+
+            if (dictionaries != null)
+                dictionaries.addAll(batch);
+
+            for (Record record : batch) {
+                if (sorter.add(record))
+                    sorter.spill(csvParser.getLayout());
+            }
+
+            sortCounter.work(batch.size(), 0, System.nanoTime() - parsed);
+        }
+
+        csvParser.close();
+
+        // Sort or merge the runs into the encode and write stages
+        PipelinedBinWriter binWriter =
+            new PipelinedBinWriter(binFilePath,
+                                   getOutputLayout(csvParser.getLayout(), dictionaries),
+                                   sortCounter);
+        if (collectKeys)
+            binWriter.collectKeys();
+        if (compress)
+            binWriter.compressBlocks();
+        if (paged)
+            binWriter.writePages();
+
+        long start = System.nanoTime();
+        long blocked = sortCounter.getBlockedNanos();
+
+        sorter.finish(binWriter);
+
+        sortCounter.work(0, 0, System.nanoTime() - start
+                               - (sortCounter.getBlockedNanos() - blocked));
+
+        System.out.println(csvParser.getReadCounter());
+        System.out.println(csvParser.getParseCounter());
+        System.out.println(sortCounter);
+        System.out.println(binWriter.getEncodeCounter());
+        System.out.println(binWriter.getWriteCounter());
+
+        return binWriter.getKeys();
+    }
+
+    /*
+     * Builds the hash index from the keys collected while writing.
+     *
+     * The pointer of record i is known from the binary file's footer, so
+     * the fingerprints alone describe every (key, pointer) pair. The
+     * resulting index file is the one Prog21 would build from the same
+     * binary file with the same flags.
+     *
+     * @param binFilePath File object referencing the binary data file
+     * @param keys Key fingerprint of each record, in record order
+     * @param args Command-line arguments selecting --linear and --bulk
+     * @throws IOException if the index cannot be written
+     */
+    public static void writeIndexFile(File binFilePath, long[] keys, String[] args)
+            throws IOException {
+        IndexWriter indexWriter = Arrays.asList(args).contains("--linear")
+                                ? new LinearIndexWriter() : new IndexWriter();
+
+        // Remove any previously stored index data
+        indexWriter.clearIndex();
+
+        // Open the index file; the binary file supplies only its layout
+        indexWriter.open(binFilePath);
+
+        // Populate the index from the collected keys
+        if (Arrays.asList(args).contains("--bulk"))
+            indexWriter.bulkLoadIndex(keys);
+        else
+            indexWriter.populateIndex(keys);
+
+        // Write the index directory and display the bucket stats
+        indexWriter.writeDirectory();
+        indexWriter.displayBucketStats();
+
+        indexWriter.close();
+    }
+
+    /*
+     * Exports a binary file to a columnar file.
+     *
+     * The columnar file shares the binary file's name, with a ".col"
+     * extension, and is written from one sequential pass over the
+     * mapped binary file.
+     *
+     * @param binFilePath File object referencing the binary data file
+     * @throws IOException if the binary file cannot be read or the
+     *         columnar file cannot be written
+     */
+    public static void writeColumnFile(File binFilePath) throws IOException {
+        String name = binFilePath.getPath();
+        File colFilePath = new File(name.substring(0, name.lastIndexOf('.')) + ".col");
+        BinReader binReader = new BinReader(binFilePath, true); // Reader of the finished file
+
+        new ColumnWriter(colFilePath).export(binReader);
+
+        binReader.close();
+    }
+
+    /*
+     * Determines the binary file that new rows are appended to.
+     *
+     * "--append" selects "Dataset2.bin" and "--append=<path>" selects the
+     * given file. The method validates that the file exists.
+     *
+     * @param args Command-line arguments
+     * @return File object for the binary file, or null if not appending
+     */
+    public static File getAppendFilePath(String[] args) {
+        File binFilePath = null; // Binary file to append to, if any
+
+        for (String arg : args) {
+            if (arg.equals("--append"))
+                binFilePath = new File(Consts.BIN_FILE_NAME);
+            else if (arg.startsWith("--append="))
+                binFilePath = new File(arg.substring("--append=".length()));
+        }
+
+        // Validate that the binary file exists
+        if (binFilePath != null && !binFilePath.exists()) {
+            System.out.println("Error: Binary file does not exist");
+            System.exit(-1);
+        }
+
+        return binFilePath;
+    }
+
+    /*
+     * Adds the rows of a CSV file to an existing binary file.
+     *
+     * The new rows are parsed and sorted on their own. When their layout
+     * fits the file's, they are written over the old footer, followed by
+     * a new footer and, if the file now holds more than one sorted run,
+     * the table of run starts; the fingerprints collected while writing
+     * them are inserted into the existing index at their new offsets.
+     * The new values of a dictionary-encoded file are added to its
+     * dictionaries, which keeps every old code. Otherwise the old
+     * records are read back, merged with the new ones, and the whole
+     * file is rewritten with the wider layout, and with dictionaries of
+     * all the values if it had dictionaries; the existing index is then
+     * rebuilt, since every offset may have moved. A compressed or paged
+     * file is always rewritten, and stays compressed or paged.
+     *
+     * @param csvFilePath File object referencing the CSV file of new rows
+     * @param binFilePath File object referencing the existing binary file
+     * @param args Command-line arguments selecting the parser
+     * @throws IOException if reading, writing, or indexing fails
+     */
+    public static void appendCSV(File csvFilePath, File binFilePath, String[] args)
+            throws IOException {
+        // Parse and sort the new rows
+        CSVParser csvParser = getCSVParser(args, csvFilePath); // CSVParser object for the new rows
+        ArrayList<Record> records = parseCSV(csvParser);
+        RecordLayout newLayout = csvParser.getLayout();
+
+        BinReader binReader = new BinReader(binFilePath, true); // Reader of the existing file
+        RecordLayout oldLayout = binReader.getLayout();
+        int numOld = binReader.getNumRecords();
+        boolean hasIndex = new File(Consts.INDEX_FILE_NAME).exists(); // Keep lhl.idx current
+        BinWriter binWriter; // Object for writing to the binary file
+        RecordLayout appendLayout = null; // Old layout with any new values; null to rewrite
+
+        if (numOld > 0 && oldLayout.fits(newLayout) && !binReader.isCompressed()
+            && !binReader.isPaged()) {
+            appendLayout = oldLayout;
+
+            // Codes are added after the old ones, unless they would need more bytes
+            if (oldLayout.hasDictionaries()) {
+                DictionaryBuilder dictionaries = new DictionaryBuilder();
+                dictionaries.addAll(records);
+                appendLayout = dictionaries.extend(oldLayout);
+            }
+        }
+
+        if (appendLayout != null) {
+            // The new rows start a run of their own if they begin below the old last key
+            int[] runStarts = binReader.getRunStarts(); // Sorted runs of the old records
+            String lastOld = binReader.readRecord(binReader.getRecordPointer(numOld - 1))
+                                      .getEntry().stripTrailing();
+            if (!records.isEmpty()
+                && records.get(0).getEntry().stripTrailing().compareTo(lastOld) < 0) {
+                runStarts = Arrays.copyOf(runStarts, runStarts.length + 1);
+                runStarts[runStarts.length - 1] = numOld;
+            }
+
+            binReader.close();
+
+            // Write the new rows where the old footer was
+            binWriter = new BinWriter(binFilePath, appendLayout);
+            if (hasIndex)
+                binWriter.collectKeys();
+
+            binWriter.openAppend(numOld, runStarts);
+            for (Record record : records)
+                binWriter.writeRecord(record);
+            binWriter.writeLengths();
+            binWriter.close();
+
+            // Insert only the new pointers into the index
+            if (hasIndex) {
+                IndexWriter indexWriter = IndexWriter.openExisting(binFilePath);
+                long[] keys = binWriter.getKeys();
+
+                for (int i = 0; i < keys.length; i++)
+                    indexWriter.insertPointer(keys[i], (numOld + i) * (long) oldLayout.recordSize);
+
+                indexWriter.writeDirectory();
+                indexWriter.close();
+            }
+
+            return;
+        }
+
+        // A new field is wider or the file is compressed or paged; read
+        // the old records back and rewrite
+        boolean compress = binReader.isCompressed(); // Keep the file compressed
+        boolean paged = binReader.isPaged();         // Keep the file paged
+        ArrayList<Record> allRecords = new ArrayList<Record>(numOld + records.size());
+        for (int i = 0; i < numOld; i++)
+            allRecords.add(binReader.readRecord(binReader.getRecordPointer(i)));
+        binReader.close();
+
+        // Old entries are padded, so compare them without the padding
+        allRecords.addAll(records);
+        allRecords.sort(Comparator.comparing((Record r) -> r.getEntry().stripTrailing()));
+
+        DictionaryBuilder dictionaries = null; // Values of every record, if encoded
+        if (oldLayout.hasDictionaries()) {
+            dictionaries = new DictionaryBuilder();
+            dictionaries.addAll(allRecords);
+        }
+
+        binWriter = new BinWriter(binFilePath,
+                                  getOutputLayout(oldLayout.merge(newLayout), dictionaries));
+        if (hasIndex)
+            binWriter.collectKeys();
+        if (compress)
+            binWriter.compressBlocks();
+        if (paged)
+            binWriter.writePages();
+
+        binWriter.writeRecords(allRecords);
+        binWriter.writeLengths();
+        binWriter.close();
+
+        // Every offset may have moved, so rebuild the index in its format
+        if (hasIndex) {
+            IndexWriter indexWriter = IndexWriter.openExisting(binFilePath);
+
+            indexWriter.populateIndex(binWriter.getKeys());
+            indexWriter.writeDirectory();
+            indexWriter.close();
+        }
     }
 
     /*
@@ -143,11 +666,61 @@ class Prog1A {
             // Get the CSV file Path
             File csvFilePath = getCSVFilePath(args);
 
-            // Parse the CSV
-            ArrayList<Record> records = parseCSV(csvFilePath);
+            // Add the rows to an existing binary file if requested
+            boolean exportColumns = Arrays.asList(args).contains("--columnar"); // Also write .col
+            File appendFilePath = getAppendFilePath(args);
+            if (appendFilePath != null) {
+                appendCSV(csvFilePath, appendFilePath, args);
+
+                if (exportColumns)
+                    writeColumnFile(appendFilePath);
+                return;
+            }
+
+            boolean buildIndex = Arrays.asList(args).contains("--index"); // Also write lhl.idx
+            DictionaryBuilder dictionaries = getDictionaryBuilder(args); // Set by --dict
+            boolean compress = Arrays.asList(args).contains("--compress"); // Compress in blocks
+            boolean paged = Arrays.asList(args).contains("--paged"); // Pack into slotted pages
+
+            if (compress && paged) {
+                System.out.println("Error: --compress and --paged cannot be combined");
+                System.exit(-1);
+            }
+
+            long[] keys; // Key fingerprints collected while writing
+
+            // Run the staged pipeline if requested, with any sort budget
+            long sortBudget = getSortBudget(args);
+            if (Arrays.asList(args).contains("--pipeline")) {
+                keys = pipelineCSV(csvFilePath, sortBudget, buildIndex, dictionaries,
+                                   compress, paged);
+            }
+            // Sort through temporary run files if a budget was given
+            else if (sortBudget > 0) {
+                keys = externalSortCSV(csvFilePath, sortBudget, buildIndex, dictionaries,
+                                       compress, paged);
+            }
+            else {
+                // Parse the CSV
+                CSVParser csvParser = getCSVParser(args, csvFilePath); // CSVParser object for processing the CSV file
+                ArrayList<Record> records = parseCSV(csvParser);
+
+                if (dictionaries != null)
+                    dictionaries.addAll(records);
+
+                // Write the binary file with the widths found while parsing
+                keys = writeBinaryFile(csvFilePath, records,
+                                       getOutputLayout(csvParser.getLayout(), dictionaries),
+                                       buildIndex, compress, paged);
+            }
+
+            // Build the index from the keys instead of rereading the file
+            if (buildIndex)
+                writeIndexFile(getBinFilePath(csvFilePath), keys, args);
 
-            // Write the binary file
-            writeBinaryFile(csvFilePath, records);
+            // Export the finished file column by column
+            if (exportColumns)
+                writeColumnFile(getBinFilePath(csvFilePath));
         } catch (IOException e) {
             System.out.println(e.getMessage());
             System.exit(-1);
@@ -15,9 +15,12 @@
  * The program performs the following operations when executed:
  * 1. Determines the path to the binary data file from the command-line
  *    arguments or defaults to "Dataset2.bin"
- * 2. Initializes an nndexWriter using the binary file
+ * 2. Initializes an IndexWriter for the selected hashing scheme
+ *    (extendible by default, or linear with --linear)
  * 3. Clears any existing index data
- * 4. Rebuilds the index from the contents of the binary file
+ * 4. Rebuilds the index from the contents of the binary file, either by
+ *    inserting records one at a time or, with --bulk, by sizing the
+ *    table up front and writing it in one sequential pass
  * 5. Writes the finalized index structure to disk
  * 6. Displays index bucket statistics, including:
  *      a) Number of buckets
@@ -32,7 +35,7 @@
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac Prog21.java
- *   Execution: java Prog21 <Binary File Path>
+ *   Execution: java Prog21 [<Binary File Path>] [--linear] [--bulk]
  *   Input: Fixed-width binary data file (default: Dataset2.bin)
  *   Output: Index file generated by IndexWriter
  */
@@ -45,39 +48,57 @@ class Prog21 {
     /*
      * Determines the file system path of the binary data file.
      *
-     * If a command-line argument is provided, it is interpreted as the
-     * path to the binary file. Otherwise, the program defaults to using
-     * "Dataset2.bin" in the current working directory.
+     * If a command-line argument other than an option flag is provided,
+     * it is interpreted as the path to the binary file. Otherwise, the
+     * program defaults to using "Dataset2.bin" in the current working
+     * directory.
      *
      * @param args Command-line arguments
      * @return File object representing the binary file path
      * @throws IOException if file handling fails
      */
     public static File getBinFilePath(String[] args) throws IOException {
-        File binFilePath;   // Stores the OS file path of the binary file
+        File binFilePath = new File("Dataset2.bin"); // Default binary file path
 
-        // If an argument was provided, use it as the binary file's path name
-        if (args.length > 0)
-            binFilePath = new File(args[0]);
-        // Otherwise, default to Dataset2.bin
-        else
-            binFilePath = new File("Dataset2.bin");
+        // If a path argument was provided, use it as the binary file's path name
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                binFilePath = new File(arg);
+        }
 
         return binFilePath;
     }
+
+    /*
+     * Selects the index writer for the requested hashing scheme.
+     *
+     * The "--linear" flag selects linear hashing. Otherwise, the index
+     * is built with extendible hashing.
+     *
+     * @param args Command-line arguments
+     * @return IndexWriter for the selected hashing scheme
+     */
+    public static IndexWriter getIndexWriter(String[] args) {
+        if (Arrays.asList(args).contains("--linear"))
+            return new LinearIndexWriter();
+
+        return new IndexWriter();
+    }
     
     /*
      * Creates and writes an index file for the specified binary data file.
      *
-     * This method initializes an IndexWriter object, clears any existing
-     * index data, rebuilds the index from the binary file contents, and
-     * writes the index to persistent storage.
+     * This method uses the given IndexWriter object to clear any existing
+     * index data, rebuild the index from the binary file contents, and
+     * write the index to persistent storage.
      *
      * @param binFilePath File object referencing the binary data file
+     * @param indexWriter IndexWriter for the selected hashing scheme
+     * @param bulkLoad    True to build the index with a single bulk load
      * @throws IOException if index creation or file access fails
      */
-    public static void writeIndexFile(File binFilePath) throws IOException {
-        IndexWriter indexWriter = new IndexWriter();
+    public static void writeIndexFile(File binFilePath, IndexWriter indexWriter,
+                                      boolean bulkLoad) throws IOException {
 
         // Remove any previously stored index data
         indexWriter.clearIndex();
@@ -86,10 +107,13 @@ class Prog21 {
         indexWriter.open(binFilePath);
 
         // Populate the index using records from the binary file
-        indexWriter.populateIndex();
+        if (bulkLoad)
+            indexWriter.bulkLoadIndex();
+        else
+            indexWriter.populateIndex();
 
-        // Write the index structure to disk
-        indexWriter.writeHashIter();
+        // Write the index directory to disk
+        indexWriter.writeDirectory();
 
         // Display the stats for the buckets
         indexWriter.displayBucketStats();
@@ -113,7 +137,8 @@ class Prog21 {
             File binFilePath = getBinFilePath(args);
 
             // Write the index file using the binary file
-            writeIndexFile(binFilePath);
+            writeIndexFile(binFilePath, getIndexWriter(args),
+                           Arrays.asList(args).contains("--bulk"));
         } catch (IOException e) {
             System.out.println("Error: " + e.getMessage());
         }
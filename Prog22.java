@@ -16,21 +16,30 @@
  * The Prog22 program performs the following responsibilities:
  * 1. Determines index and binary file paths from command-line input.
  * 2. Initializes an IndexReader for indexed access.
- * 3. Loads the hash iteration value from the index file.
+ * 3. Loads the hash directory from the index file.
  * 4. Prompts the user for Data.entry search keys.
- * 5. Retrieves and displays matching records using the index.
+ * 5. Retrieves and displays matching records using the index. A line of
+ *    several comma-separated values is looked up as one batch, which
+ *    reads the index and the binary file in file order.
  * 6. Terminates execution when a sentinel value is entered.
+ * 7. With "--pool-kb=<KB>", reads both files through a buffer pool of
+ *    that budget ("--pool" selects the default budget), and then reports
+ *    the pool's hits and misses.
+ * 8. With "--sorted", searches the sorted binary file by binary search
+ *    instead of the index, which also answers "<low>..<high>" ranges
+ *    and "<prefix>*" prefix queries with every matching record.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
  *   Compilation: javac Prog22.java
- *   Usage: java Prog22 <index file> <binary file>
+ *   Usage: java Prog22 [<index file> <binary file>] [--pool | --pool-kb=<KB>] [--sorted]
  *   Input: Index file and fixed-width binary data file
  *   Output: Matching records printed to standard output
  */
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.*;
 
 class Prog22 {
 
@@ -81,22 +90,59 @@ class Prog22 {
     }
 
     /*
-     * Method searchIndex(indexFilePath, binFilePath)
+     * Method getPoolBudget(args)
+     *
+     * Purpose: Determines the memory budget of the buffer pool that
+     *          lookups read through. "--pool-kb=<KB>" sets it in
+     *          kilobytes and "--pool" selects Consts.BUFFER_POOL_BYTES;
+     *          without either no pool is used.
+     * Pre-condition: args is not null.
+     * Post-condition: No state is modified.
+     * Parameters: args - Command-line arguments passed to the program.
+     * Returns: The budget in bytes, or 0 to read without a pool.
+     */
+    public static long getPoolBudget(String[] args) {
+        long budgetBytes = 0; // Budget from the command line, if any
+
+        for (String arg : args) {
+            if (arg.equals("--pool"))
+                budgetBytes = Consts.BUFFER_POOL_BYTES;
+            else if (arg.startsWith("--pool-kb="))
+                budgetBytes = Long.parseLong(arg.substring("--pool-kb=".length())) << 10;
+        }
+
+        return budgetBytes;
+    }
+
+    /*
+     * Method searchIndex(indexFilePath, binFilePath, poolBytes)
      *
      * Purpose: Performs interactive indexed searches on the binary
      *          dataset by prompting the user for Data.entry values
-     *          and retrieving matching records using the index.
+     *          and retrieving matching records using the index. Values
+     *          entered on one line separated by commas are fetched
+     *          together with IndexReader.fetchRecords.
      * Pre-condition: Index and binary files exist and are readable.
-     * Post-condition: Matching records are printed to standard output.
+     * Post-condition: Matching records are printed to standard output,
+     *                 followed by the buffer pool's counters if a
+     *                 budget was given.
      * Parameters: indexFilePath - Reference to the index file.
      *             binFilePath   - Reference to the binary data file.
+     *             poolBytes     - Buffer pool budget, or 0 for no pool.
      */
-    public static void searchIndex(File indexFilePath, File binFilePath) throws IOException {
+    public static void searchIndex(File indexFilePath, File binFilePath, long poolBytes)
+            throws IOException {
         IndexReader indexReader;    // Used to read and query the index
-        indexReader = new IndexReader(indexFilePath, binFilePath);
+        BufferPool pool = null;     // Pages shared by both files, if a budget was given
+
+        if (poolBytes > 0) {
+            pool = new BufferPool(poolBytes, Consts.PAGE_BYTES);
+            indexReader = new IndexReader(indexFilePath, binFilePath, pool);
+        }
+        else
+            indexReader = new IndexReader(indexFilePath, binFilePath);
 
         Scanner scanner = new Scanner(System.in);   // Reads console input
-        Record fetchRes;    // Holds lookup result
 
         // Repeatedly prompt the user for search keys
         while (true) {
@@ -108,32 +154,134 @@ class Prog22 {
             if (input.equals("-1000"))
                 break;
 
-            // Attempt to fetch the record using the index
-            fetchRes = indexReader.fetchRecord(input);
+            // Fetch several comma-separated values as one batch
+            if (input.contains(",")) {
+                String[] entryIDs = input.split(","); // Each value on the line
+                for (int i = 0; i < entryIDs.length; i++)
+                    entryIDs[i] = entryIDs[i].trim();
 
-            // Print the result of the fetch
-            if (fetchRes == null)
-                System.out.println("The target value " + input + " was not found.");
+                Record[] fetchRes = indexReader.fetchRecords(entryIDs); // Result of each value
+                for (int i = 0; i < entryIDs.length; i++)
+                    printResult(entryIDs[i], fetchRes[i]);
+            }
             else
-                System.out.println(fetchRes);
+                printResult(input, indexReader.fetchRecord(input));
         }
 
+        // Report how many lookups the pool served from memory
+        if (pool != null)
+            System.out.println(pool);
+
         // Close the file stream and the scanner when we're done
         indexReader.close();
         scanner.close();
     }
 
+    /*
+     * Method printResult(input, fetchRes)
+     *
+     * Purpose: Prints the record found for a search key, or a message
+     *          saying that none was found.
+     * Pre-condition: None.
+     * Post-condition: One line is printed to standard output.
+     * Parameters: input    - The search key entered.
+     *             fetchRes - The matching record, or null.
+     */
+    public static void printResult(String input, Record fetchRes) {
+        if (fetchRes == null)
+            System.out.println("The target value " + input + " was not found.");
+        else
+            System.out.println(fetchRes);
+    }
+
+    /*
+     * Method searchSorted(binFilePath, poolBytes)
+     *
+     * Purpose: Performs interactive searches on the binary dataset by
+     *          binary searching its Data.entry order. A value is looked
+     *          up alone; "<low>..<high>" prints every record from low to
+     *          high and "<prefix>*" every record whose value starts with
+     *          prefix, in Data.entry order.
+     * Pre-condition: The binary file exists and is readable.
+     * Post-condition: Matching records are printed to standard output,
+     *                 followed by the buffer pool's counters if a
+     *                 budget was given.
+     * Parameters: binFilePath - Reference to the binary data file.
+     *             poolBytes   - Buffer pool budget, or 0 for no pool.
+     */
+    public static void searchSorted(File binFilePath, long poolBytes) throws IOException {
+        SortedReader sortedReader;  // Searches the file
+        BufferPool pool = null;     // Pages of recent searches, if a budget was given
+
+        if (poolBytes > 0) {
+            pool = new BufferPool(poolBytes, Consts.PAGE_BYTES);
+            sortedReader = new SortedReader(binFilePath, pool);
+        }
+        else
+            sortedReader = new SortedReader(binFilePath);
+
+        Scanner scanner = new Scanner(System.in);   // Reads console input
+
+        // Repeatedly prompt the user for search keys
+        while (true) {
+            System.out.print("Enter a Data.entry value, <low>..<high>, <prefix>*,"
+                             + " or -1000 to stop searching: ");
+
+            String input = scanner.nextLine(); // User-entered search key
+
+            // Stop searching on sentinel value
+            if (input.equals("-1000"))
+                break;
+
+            int dots = input.indexOf(".."); // Separates the ends of a range
+            Stream<Record> matches;         // Records of a range or prefix query
+
+            if (dots >= 0)
+                matches = sortedReader.range(input.substring(0, dots), input.substring(dots + 2));
+            else if (input.endsWith("*"))
+                matches = sortedReader.prefix(input.substring(0, input.length() - 1));
+            else {
+                printResult(input, sortedReader.fetchRecord(input));
+                continue;
+            }
+
+            long numMatches = 0; // Records printed
+            for (Iterator<Record> it = matches.iterator(); it.hasNext(); numMatches++)
+                System.out.println(it.next());
+
+            System.out.println(numMatches + " records matched " + input + ".");
+        }
+
+        // Report how many lookups the pool served from memory
+        if (pool != null)
+            System.out.println(pool);
+
+        sortedReader.close();
+        scanner.close();
+    }
+
     public static void main(String[] args) {
         try {
+            // Separate the file paths from the option flags
+            ArrayList<String> paths = new ArrayList<String>(); // Arguments that are not flags
+            for (String arg : args) {
+                if (!arg.startsWith("--"))
+                    paths.add(arg);
+            }
+
             // Process the arguments
-            if (args.length != 0 && args.length != 2)
-                throw new IllegalArgumentException("Usage: <program> [<indexFilePath> <binaryFilePath>]");
+            if (paths.size() != 0 && paths.size() != 2)
+                throw new IllegalArgumentException("Usage: <program> [<indexFilePath> <binaryFilePath>]"
+                                                   + " [--pool | --pool-kb=<KB>] [--sorted]");
 
-            File indexFilePath = getIndexFilePath(args);
-            File binFilePath   = getBinaryFilePath(args);
+            File indexFilePath = getIndexFilePath(paths.toArray(new String[0]));
+            File binFilePath   = getBinaryFilePath(paths.toArray(new String[0]));
 
-            // Search the index
-            searchIndex(indexFilePath, binFilePath);
+            // Search the index, or the sorted file itself
+            if (Arrays.asList(args).contains("--sorted"))
+                searchSorted(binFilePath, getPoolBudget(args));
+            else
+                searchIndex(indexFilePath, binFilePath, getPoolBudget(args));
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -7,8 +7,8 @@
  * Due Date: 02-12-2026
  *
  * Description:
- * This file defines the Record and RecordLengths classes, which together
- * represent and describe individual entries in the bat cave dataset. 
+ * This file defines the Record class, which represents individual entries
+ * in the bat cave dataset. 
  *
  * The Record class is an immutable data object that stores all fields 
  * for a single dataset row, corresponding to a single bat cave observation. 
@@ -17,16 +17,11 @@
  * The class also includes utility methods for string normalization and 
  * formatted display of records.
  *
- * The RecordLengths class stores the maximum string lengths for each 
- * variable-length field across all dataset records. These values are used 
- * to define fixed-width binary record layouts when writing records to file.
- *
  * Responsibilities:
  * 1. Record stores immutable values for a single dataset entry.
  * 2. Provides getters for all fields.
  * 3. Provides comparators for sorting by entry or equatorial distance.
  * 4. Provides formatted string output with null/empty string handling.
- * 5. RecordLengths tracks maximum field sizes for binary serialization.
  *
  * Operational Requirements:
  *   Language: Java 25.0.1
@@ -225,45 +220,50 @@ class Record {
      * Method toString
      *
      * Purpose: Returns a formatted string representation of the Record
-     *          using selected fields and padField formatting.
+     *          using selected fields. Records read from a binary file
+     *          already hold their fields at the file's fixed widths.
      * Pre-condition: Record object has been fully initialized.
      * Post-condition: Record fields remain unchanged.
      * Returns: Formatted string representing the Record.
      */
     public String toString() {
-        return String.format(
-            "[%s][%s][%s]", nullIfEmpty(padField(seqID, RecordLengths.maxSeqIDLen)),
-                            nullIfEmpty(padField(country, RecordLengths.maxCountryLen)),
-                            nullIfEmpty(padField(cave, RecordLengths.maxCaveLen))
-        );
+        return format(seqID, country, cave);
     }
 
-}
+    /*
+     * Method toString(layout)
+     *
+     * Purpose: Returns a formatted string representation of the Record
+     *          with the selected fields padded to a dataset's widths.
+     * Pre-condition: Record object has been fully initialized.
+     * Post-condition: Record fields remain unchanged.
+     * Parameters:
+     *   layout - Field widths of the dataset the Record belongs to
+     * Returns: Formatted string representing the Record.
+     */
+    public String toString(RecordLayout layout) {
+        return format(padField(seqID, layout.seqIDLen),
+                      padField(country, layout.countryLen),
+                      padField(cave, layout.caveLen));
+    }
+
+    /*
+     * Method format
+     *
+     * Purpose: Formats the displayed fields of a record, showing empty
+     *          fields as "null".
+     * Pre-condition: None.
+     * Post-condition: The arguments are not modified.
+     * Parameters:
+     *   seqID   - Dataset sequence ID field
+     *   country - Country.record field
+     *   cave    - Cave.site field
+     * Returns: Formatted string representing the record.
+     */
+    static String format(String seqID, String country, String cave) {
+        return String.format("[%s][%s][%s]", nullIfEmpty(seqID),
+                                             nullIfEmpty(country),
+                                             nullIfEmpty(cave));
+    }
 
-/*
- * Class: RecordLengths
- * Author: Tom Giallanza
- * Purpose: A utility class that stores the maximum string lengths
- *          for each variable-length field across all records in
- *          the dataset. These values are computed while parsing
- *          the CSV file and are used to define the fixed-width
- *          binary record layout.
- *
- * Inherits From: None
- * Interfaces: None
- * Constants: None
- * Constructors: None
- * Class Methods: None
- * Inst. Methods: None
- */
-class RecordLengths {
-    static int maxSeqIDLen;             // Maximum length of Dataset sequence ID strings
-    static int maxEntryLen;             // Maximum length of Data.entry strings
-    static int maxSeriesLen;            // Maximum length of Data.series strings
-    static int maxRealmLen;             // Maximum length of Biogeographical.realm strings
-    static int maxContinentLen;         // Maximum length of Continent strings
-    static int maxBiomeLen;             // Maximum length of Biome strings
-    static int maxCountryLen;           // Maximum length of Country.record strings
-    static int maxCaveLen;              // Maximum length of Cave.site strings
-    static int maxSpeciesLen;           // Maximum length of Species.name strings
 }
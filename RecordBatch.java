@@ -0,0 +1,73 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the RecordBatch class, the unit of work passed
+ * between the stages of the Prog1A ingest pipeline. A batch starts as a
+ * chunk of CSV bytes or a list of records and is replaced stage by stage
+ * with the result of that stage.
+ *
+ * The RecordBatch class performs the following responsibilities:
+ * 1. Numbers each batch so a later stage can restore input order.
+ * 2. Carries the bytes, records, or layout produced by each stage.
+ * 3. Carries an error from a worker thread to the thread that consumes
+ *    the batch.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac RecordBatch.java
+ *   Usage: Used by PipelinedCSVParser and PipelinedBinWriter
+ *   Input: None
+ *   Output: None
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/*
+ * Class: RecordBatch
+ * Author: Tom Giallanza
+ * Purpose: An object of this class is one batch moving through the
+ *          pipeline. Stages run several threads, so batches may finish
+ *          out of order; the sequence number lets the consumer put them
+ *          back in order. Each batch is owned by one thread at a time,
+ *          and handing it over through a BlockingQueue publishes its
+ *          fields to the next owner.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: END
+ * Constructors: RecordBatch(long seq)
+ * Class Methods: None
+ * Inst. Methods: None
+ */
+class RecordBatch {
+
+    public static final RecordBatch END = new RecordBatch(-1);
+        // Marks the end of a queue's input; one is sent per consumer
+
+    final long seq;             // Position of the batch in the input
+    ByteBuffer bytes;           // CSV text or encoded records
+    ArrayList<Record> records;  // Parsed records
+    int numRecords;             // Records the batch holds or held
+    RecordLayout layout;        // Field widths of the parsed records
+    long[] keys;                // Entry fingerprints of the encoded records
+    IOException error;          // Error that stopped a stage, if any
+
+    /*
+     * Constructor RecordBatch(seq)
+     *
+     * Purpose: Creates an empty batch.
+     * Pre-condition: None.
+     * Post-condition: The batch holds nothing yet.
+     * Parameters: seq - Position of the batch in the input.
+     */
+    RecordBatch(long seq) {
+        this.seq = seq;
+    }
+}
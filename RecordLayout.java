@@ -0,0 +1,502 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the RecordLayout class, which describes the fixed-width
+ * record format of one binary dataset: the width of every string field and
+ * the byte offset of every field within a record. A layout is computed by
+ * CSVParser while parsing, written as the footer of the binary file by
+ * BinWriter, and read back from that footer by BinReader. A layout may
+ * also carry dictionaries for the low-cardinality string fields, which
+ * are then stored in each record as small integer codes.
+ *
+ * The RecordLayout class performs the following responsibilities:
+ * 1. Stores the maximum length of each variable-length field.
+ * 2. Precomputes the offset of each field and the size of one record.
+ * 3. Reads and writes the footer that records the field widths.
+ * 4. Combines the layouts of separately parsed parts of a dataset.
+ * 5. Holds the dictionaries of a dictionary-encoded dataset and writes
+ *    them into its footer.
+ * 6. Describes each field by number, for code that handles every field
+ *    alike, such as the columnar export.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac RecordLayout.java
+ *   Usage: Shared by CSVParser, BinWriter, BinReader, and RecordView
+ *   Input: Field widths from parsing or from a binary file footer
+ *   Output: Immutable layout objects and binary file footers
+ */
+
+import java.nio.*;
+
+/*
+ * Class: RecordLayout
+ * Author: Tom Giallanza
+ * Purpose: An immutable object of this class describes the fixed-width
+ *          layout of the records in one dataset. Each open dataset has
+ *          its own layout, so several datasets can be read in the same
+ *          JVM and parts of one dataset can be parsed independently.
+ *          In a dictionary-encoded layout, Biogeographical.realm,
+ *          Continent, Biome, Country.record, and Species.name each take
+ *          only the bytes of their dictionary's codes; the widths still
+ *          give the length of the decoded Strings. Such a footer is
+ *          followed by its own size and Consts.BIN_FORMAT_DICTIONARY.
+ *          Layouts without dictionaries keep the original footer, so
+ *          existing files read unchanged.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: FOOTER_BYTES
+ *            DICTIONARY_TRAILER_BYTES
+ *            EMPTY
+ *            SEQ_ID ... SPECIES
+ *            NUM_FIELDS
+ * Constructors: RecordLayout(int seqIDLen, int entryLen, int seriesLen,
+ *                            int realmLen, int continentLen, int biomeLen,
+ *                            int countryLen, int caveLen, int speciesLen)
+ * Class Methods: int footerSize(ByteBuffer tail)
+ *                RecordLayout read(ByteBuffer footer)
+ * Inst. Methods: RecordLayout withDictionaries(ColumnDictionary realmDict, ...)
+ *                boolean hasDictionaries()
+ *                int getFooterBytes()
+ *                int fieldOffset(int field)
+ *                int fieldBytes(int field)
+ *                int fieldWidth(int field)
+ *                ColumnDictionary fieldDictionary(int field)
+ *                RecordLayout merge(RecordLayout other)
+ *                boolean fits(RecordLayout other)
+ *                void put(ByteBuffer buf)
+ */
+class RecordLayout {
+
+    public static final int FOOTER_BYTES = Integer.BYTES * 9;
+        // Size of the footer holding the nine string field widths
+    public static final int DICTIONARY_TRAILER_BYTES = Integer.BYTES * 2;
+        // Size of the dictionary section size and format code that
+        // end the footer of a dictionary-encoded file
+    public static final RecordLayout EMPTY = new RecordLayout(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        // Layout of a dataset with no records
+
+    // Field numbers, in the order the fields are stored in a record
+    public static final int SEQ_ID = 0;
+    public static final int ENTRY = 1;
+    public static final int SERIES = 2;
+    public static final int REALM = 3;
+    public static final int CONTINENT = 4;
+    public static final int BIOME = 5;
+    public static final int COUNTRY = 6;
+    public static final int CAVE = 7;
+    public static final int LATITUDE = 8;
+    public static final int LONGITUDE = 9;
+    public static final int SPECIES = 10;
+    public static final int NUM_FIELDS = 11;
+        // Number of fields in a record
+
+    final int seqIDLen;      // Maximum length of Dataset sequence ID strings
+    final int entryLen;      // Maximum length of Data.entry strings
+    final int seriesLen;     // Maximum length of Data.series strings
+    final int realmLen;      // Maximum length of Biogeographical.realm strings
+    final int continentLen;  // Maximum length of Continent strings
+    final int biomeLen;      // Maximum length of Biome strings
+    final int countryLen;    // Maximum length of Country.record strings
+    final int caveLen;       // Maximum length of Cave.site strings
+    final int speciesLen;    // Maximum length of Species.name strings
+
+    final ColumnDictionary realmDict;     // Codes of Biogeographical.realm, or null
+    final ColumnDictionary continentDict; // Codes of Continent, or null
+    final ColumnDictionary biomeDict;     // Codes of Biome, or null
+    final ColumnDictionary countryDict;   // Codes of Country.record, or null
+    final ColumnDictionary speciesDict;   // Codes of Species.name, or null
+
+    final int seqIDOff;      // Offset of the sequence ID field
+    final int entryOff;      // Offset of the Data.entry field
+    final int seriesOff;     // Offset of the Data.series field
+    final int realmOff;      // Offset of the Biogeographical.realm field
+    final int continentOff;  // Offset of the Continent field
+    final int biomeOff;      // Offset of the Biome field
+    final int countryOff;    // Offset of the Country.record field
+    final int caveOff;       // Offset of the Cave.site field
+    final int latitudeOff;   // Offset of the latitude double
+    final int longitudeOff;  // Offset of the longitude double
+    final int speciesOff;    // Offset of the Species.name field
+    final int recordSize;    // Size of one record in bytes
+
+    /*
+     * Constructor RecordLayout(seqIDLen, ..., speciesLen)
+     *
+     * Purpose: Creates a layout from the width of each string field and
+     *          computes the offset of every field in record order.
+     * Pre-condition: All widths are non-negative.
+     * Post-condition: The layout is fully initialized and immutable.
+     * Parameters: The width in bytes of each string field, in the order
+     *             the fields are stored.
+     */
+    RecordLayout(int seqIDLen, int entryLen, int seriesLen,
+                 int realmLen, int continentLen, int biomeLen,
+                 int countryLen, int caveLen, int speciesLen) {
+        this(seqIDLen, entryLen, seriesLen, realmLen, continentLen, biomeLen,
+             countryLen, caveLen, speciesLen, null, null, null, null, null);
+    }
+
+    /*
+     * Constructor RecordLayout(seqIDLen, ..., speciesLen, realmDict, ...,
+     *                          speciesDict)
+     *
+     * Purpose: Creates a layout in which the fields with a dictionary are
+     *          stored as codes, and computes the offset of every field.
+     * Pre-condition: All widths are non-negative and the dictionaries are
+     *                either all present or all null.
+     * Post-condition: The layout is fully initialized and immutable.
+     * Parameters: The width in bytes of each string field, in the order
+     *             the fields are stored, then the dictionary of each
+     *             encoded field.
+     */
+    private RecordLayout(int seqIDLen, int entryLen, int seriesLen,
+                         int realmLen, int continentLen, int biomeLen,
+                         int countryLen, int caveLen, int speciesLen,
+                         ColumnDictionary realmDict, ColumnDictionary continentDict,
+                         ColumnDictionary biomeDict, ColumnDictionary countryDict,
+                         ColumnDictionary speciesDict) {
+        this.seqIDLen     = seqIDLen;
+        this.entryLen     = entryLen;
+        this.seriesLen    = seriesLen;
+        this.realmLen     = realmLen;
+        this.continentLen = continentLen;
+        this.biomeLen     = biomeLen;
+        this.countryLen   = countryLen;
+        this.caveLen      = caveLen;
+        this.speciesLen   = speciesLen;
+
+        this.realmDict     = realmDict;
+        this.continentDict = continentDict;
+        this.biomeDict     = biomeDict;
+        this.countryDict   = countryDict;
+        this.speciesDict   = speciesDict;
+
+        seqIDOff     = 0;
+        entryOff     = seqIDOff     + seqIDLen;
+        seriesOff    = entryOff     + entryLen;
+        realmOff     = seriesOff    + seriesLen;
+        continentOff = realmOff     + storedLen(realmLen, realmDict);
+        biomeOff     = continentOff + storedLen(continentLen, continentDict);
+        countryOff   = biomeOff     + storedLen(biomeLen, biomeDict);
+        caveOff      = countryOff   + storedLen(countryLen, countryDict);
+        latitudeOff  = caveOff      + caveLen;
+        longitudeOff = latitudeOff  + Double.BYTES;
+        speciesOff   = longitudeOff + Double.BYTES;
+        recordSize   = speciesOff   + storedLen(speciesLen, speciesDict);
+    }
+
+    /*
+     * Method storedLen(len, dict)
+     *
+     * Purpose: Returns the bytes a field occupies in each record.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Parameters: len  - Width of the field's Strings
+     *             dict - Dictionary of the field, or null
+     * Returns: The width, or the size of one code if the field is encoded.
+     */
+    private static int storedLen(int len, ColumnDictionary dict) {
+        return dict == null ? len : dict.getCodeBytes();
+    }
+
+    /*
+     * Method footerSize(tail)
+     *
+     * Purpose: Determines the size of a binary file's footer from its
+     *          last FOOTER_BYTES bytes, which always hold the format code
+     *          and, in a dictionary-encoded file, the dictionaries' size.
+     * Pre-condition: tail holds the last FOOTER_BYTES bytes of the file,
+     *                starting at its position.
+     * Post-condition: The buffer position is unchanged.
+     * Parameters: tail - Buffer holding the end of the file
+     * Returns: The number of bytes read(footer) requires.
+     */
+    public static int footerSize(ByteBuffer tail) {
+        int end = tail.position() + FOOTER_BYTES;
+
+        if (tail.getInt(end - Integer.BYTES) != Consts.BIN_FORMAT_DICTIONARY)
+            return FOOTER_BYTES;
+
+        return FOOTER_BYTES + tail.getInt(end - DICTIONARY_TRAILER_BYTES)
+             + DICTIONARY_TRAILER_BYTES;
+    }
+
+    /*
+     * Method read(footer)
+     *
+     * Purpose: Decodes a layout from the footer of a binary file,
+     *          including any dictionaries that follow the widths.
+     * Pre-condition: footer has exactly the number of bytes footerSize()
+     *                reported remaining.
+     * Post-condition: The buffer position advances past the footer.
+     * Parameters: footer - Buffer holding the footer
+     * Returns: The layout the footer describes.
+     */
+    public static RecordLayout read(ByteBuffer footer) {
+        RecordLayout widths = new RecordLayout(
+            footer.getInt(), footer.getInt(), footer.getInt(),
+            footer.getInt(), footer.getInt(), footer.getInt(),
+            footer.getInt(), footer.getInt(), footer.getInt()
+        );
+
+        if (!footer.hasRemaining())
+            return widths;
+
+        RecordLayout layout = widths.withDictionaries(
+            ColumnDictionary.read(footer, widths.realmLen),
+            ColumnDictionary.read(footer, widths.continentLen),
+            ColumnDictionary.read(footer, widths.biomeLen),
+            ColumnDictionary.read(footer, widths.countryLen),
+            ColumnDictionary.read(footer, widths.speciesLen)
+        );
+
+        footer.position(footer.position() + DICTIONARY_TRAILER_BYTES);
+        return layout;
+    }
+
+    /*
+     * Method withDictionaries(realmDict, ..., speciesDict)
+     *
+     * Purpose: Creates a layout with the same widths that stores the
+     *          dictionary-encoded fields as codes.
+     * Pre-condition: Each dictionary holds every value of its field.
+     * Post-condition: This layout is not modified.
+     * Parameters: The dictionary of each encoded field, in record order
+     * Returns: The dictionary-encoded layout.
+     */
+    public RecordLayout withDictionaries(ColumnDictionary realmDict,
+                                         ColumnDictionary continentDict,
+                                         ColumnDictionary biomeDict,
+                                         ColumnDictionary countryDict,
+                                         ColumnDictionary speciesDict) {
+        return new RecordLayout(seqIDLen, entryLen, seriesLen, realmLen,
+                                continentLen, biomeLen, countryLen, caveLen,
+                                speciesLen, realmDict, continentDict, biomeDict,
+                                countryDict, speciesDict);
+    }
+
+    /*
+     * Method hasDictionaries()
+     *
+     * Purpose: Reports whether records of this layout are dictionary
+     *          encoded.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if the encoded fields are stored as codes.
+     */
+    public boolean hasDictionaries() {
+        return realmDict != null;
+    }
+
+    /*
+     * Method getDictionaryBytes()
+     *
+     * Purpose: Returns the size of the dictionaries in the footer.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: Bytes of dictionary data, or 0 without dictionaries.
+     */
+    private int getDictionaryBytes() {
+        if (!hasDictionaries())
+            return 0;
+
+        return realmDict.getFooterBytes() + continentDict.getFooterBytes()
+             + biomeDict.getFooterBytes() + countryDict.getFooterBytes()
+             + speciesDict.getFooterBytes();
+    }
+
+    /*
+     * Method getFooterBytes()
+     *
+     * Purpose: Returns the size of the footer put() writes.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: FOOTER_BYTES, plus the dictionaries and their trailer in
+     *          a dictionary-encoded layout.
+     */
+    public int getFooterBytes() {
+        if (!hasDictionaries())
+            return FOOTER_BYTES;
+
+        return FOOTER_BYTES + getDictionaryBytes() + DICTIONARY_TRAILER_BYTES;
+    }
+
+    /*
+     * Method fieldOffset(field)
+     *
+     * Purpose: Returns the offset of a field within a record.
+     * Pre-condition: 0 <= field < NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as LATITUDE
+     * Returns: Offset of the field's first byte.
+     */
+    public int fieldOffset(int field) {
+        switch (field) {
+            case SEQ_ID:    return seqIDOff;
+            case ENTRY:     return entryOff;
+            case SERIES:    return seriesOff;
+            case REALM:     return realmOff;
+            case CONTINENT: return continentOff;
+            case BIOME:     return biomeOff;
+            case COUNTRY:   return countryOff;
+            case CAVE:      return caveOff;
+            case LATITUDE:  return latitudeOff;
+            case LONGITUDE: return longitudeOff;
+            case SPECIES:   return speciesOff;
+            default: throw new IllegalArgumentException("Error: No field " + field);
+        }
+    }
+
+    /*
+     * Method fieldBytes(field)
+     *
+     * Purpose: Returns the bytes a field occupies in each record, which
+     *          is its code width if the field is dictionary encoded.
+     * Pre-condition: 0 <= field < NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as LATITUDE
+     * Returns: Stored size of the field.
+     */
+    public int fieldBytes(int field) {
+        int end = field == SPECIES ? recordSize : fieldOffset(field + 1);
+
+        return end - fieldOffset(field);
+    }
+
+    /*
+     * Method fieldWidth(field)
+     *
+     * Purpose: Returns the width of a field's decoded values.
+     * Pre-condition: 0 <= field < NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as LATITUDE
+     * Returns: Length of the field's Strings, or Double.BYTES for the
+     *          coordinates.
+     */
+    public int fieldWidth(int field) {
+        switch (field) {
+            case SEQ_ID:    return seqIDLen;
+            case ENTRY:     return entryLen;
+            case SERIES:    return seriesLen;
+            case REALM:     return realmLen;
+            case CONTINENT: return continentLen;
+            case BIOME:     return biomeLen;
+            case COUNTRY:   return countryLen;
+            case CAVE:      return caveLen;
+            case LATITUDE:  return Double.BYTES;
+            case LONGITUDE: return Double.BYTES;
+            case SPECIES:   return speciesLen;
+            default: throw new IllegalArgumentException("Error: No field " + field);
+        }
+    }
+
+    /*
+     * Method fieldDictionary(field)
+     *
+     * Purpose: Returns the dictionary a field is encoded with.
+     * Pre-condition: 0 <= field < NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: field - Field number, such as COUNTRY
+     * Returns: The field's dictionary, or null if it is stored as is.
+     */
+    public ColumnDictionary fieldDictionary(int field) {
+        switch (field) {
+            case REALM:     return realmDict;
+            case CONTINENT: return continentDict;
+            case BIOME:     return biomeDict;
+            case COUNTRY:   return countryDict;
+            case SPECIES:   return speciesDict;
+            default:        return null;
+        }
+    }
+
+    /*
+     * Method merge(other)
+     *
+     * Purpose: Combines this layout with the layout of another part of
+     *          the same dataset by taking the wider of each field. The
+     *          result has no dictionaries.
+     * Pre-condition: other is not null.
+     * Post-condition: Neither layout is modified.
+     * Parameters: other - Layout of another part of the dataset
+     * Returns: A layout wide enough for the records of both parts.
+     */
+    public RecordLayout merge(RecordLayout other) {
+        return new RecordLayout(
+            Math.max(seqIDLen,     other.seqIDLen),
+            Math.max(entryLen,     other.entryLen),
+            Math.max(seriesLen,    other.seriesLen),
+            Math.max(realmLen,     other.realmLen),
+            Math.max(continentLen, other.continentLen),
+            Math.max(biomeLen,     other.biomeLen),
+            Math.max(countryLen,   other.countryLen),
+            Math.max(caveLen,      other.caveLen),
+            Math.max(speciesLen,   other.speciesLen)
+        );
+    }
+
+    /*
+     * Method fits(other)
+     *
+     * Purpose: Reports whether records of another layout can be written
+     *          with this one, which holds when no field of the other
+     *          layout is wider. Dictionaries are not compared.
+     * Pre-condition: other is not null.
+     * Post-condition: Neither layout is modified.
+     * Parameters: other - Layout of the records to write
+     * Returns: True if every field of other fits in this layout.
+     */
+    public boolean fits(RecordLayout other) {
+        return other.seqIDLen     <= seqIDLen
+            && other.entryLen     <= entryLen
+            && other.seriesLen    <= seriesLen
+            && other.realmLen     <= realmLen
+            && other.continentLen <= continentLen
+            && other.biomeLen     <= biomeLen
+            && other.countryLen   <= countryLen
+            && other.caveLen      <= caveLen
+            && other.speciesLen   <= speciesLen;
+    }
+
+    /*
+     * Method put(buf)
+     *
+     * Purpose: Encodes the footer describing this layout, which BinReader
+     *          requires to parse the records that precede it. The widths
+     *          come first in both formats; a dictionary-encoded footer
+     *          follows them with the dictionaries, their total size, and
+     *          the format code.
+     * Pre-condition: buf has getFooterBytes() bytes remaining.
+     * Post-condition: The buffer position advances past the footer.
+     * Parameters: buf - Destination of the footer
+     */
+    public void put(ByteBuffer buf) {
+        buf.putInt(seqIDLen);
+        buf.putInt(entryLen);
+        buf.putInt(seriesLen);
+        buf.putInt(realmLen);
+        buf.putInt(continentLen);
+        buf.putInt(biomeLen);
+        buf.putInt(countryLen);
+        buf.putInt(caveLen);
+        buf.putInt(speciesLen);
+
+        if (hasDictionaries()) {
+            realmDict.put(buf);
+            continentDict.put(buf);
+            biomeDict.put(buf);
+            countryDict.put(buf);
+            speciesDict.put(buf);
+
+            buf.putInt(getDictionaryBytes());
+            buf.putInt(Consts.BIN_FORMAT_DICTIONARY);
+        }
+    }
+}
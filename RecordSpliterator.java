@@ -0,0 +1,257 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the RecordSpliterator class, which scans a range of
+ * the records of a binary file in file order for BinReader.stream(). It
+ * reads the file in large chunks and asks for the next chunk before it
+ * decodes the current one, so the disk and the consumer work at once,
+ * and it splits its range at chunk boundaries so a parallel stream can
+ * scan one part of the file on each core.
+ *
+ * The RecordSpliterator class performs the following responsibilities:
+ * 1. Reads the chunks of its range in order, each into one of two
+ *    buffers, reading the next chunk ahead while the current is used.
+ * 2. Decodes each chunk and yields its records in file order.
+ * 3. Splits its range into two on a chunk boundary, which is always a
+ *    record boundary, for parallel streams.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac RecordSpliterator.java
+ *   Usage: Created by BinReader.stream()
+ *   Input: Chunks of a binary file written by BinWriter
+ *   Output: Records
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/*
+ * Class: RecordSpliterator
+ * Author: Tom Giallanza
+ * Purpose: An object of this class yields the records fromRecord up to
+ *          toRecord of a BinReader's file. The reader divides its file
+ *          into chunks (see BinReader.chunkOf); a chunk is read whole
+ *          from the reader's asynchronous scan channel, so a scan makes
+ *          one large aligned read per chunk and never goes through the
+ *          reader's mapping or buffer pool. When a chunk is loaded, the
+ *          read of the next chunk of the range is started into the other
+ *          buffer, and it is waited for only when the records of the
+ *          current chunk run out. A spliterator splits only before its
+ *          first record is taken, which is when a stream splits it.
+ * Inherits From: None
+ * Interfaces: Spliterator<Record>
+ * Constants: None
+ * Constructors: RecordSpliterator(BinReader reader, int fromRecord, int toRecord)
+ * Class Methods: None
+ * Inst. Methods: boolean tryAdvance(Consumer<? super Record> action)
+ *                Spliterator<Record> trySplit()
+ *                long estimateSize()
+ *                int characteristics()
+ */
+class RecordSpliterator implements Spliterator<Record> {
+
+    private final BinReader reader;     // Reader of the file scanned
+    private final RecordView view;      // View each record is loaded into
+    private int nextRecord;             // Number of the next record to yield
+    private final int toRecord;         // Number one past the last record
+
+    private final ByteBuffer[] buffers = new ByteBuffer[2]; // Stored bytes of two chunks
+    private int current = 0;            // Buffer of the loaded chunk
+    private int chunk = -1;             // Loaded chunk, or -1 before the first
+    private int chunkEnd;               // First record after the loaded chunk
+    private ByteBuffer records;         // Decoded bytes of the loaded chunk
+
+    private Future<Integer> pending;    // Read ahead of chunk + 1, or null
+
+    /*
+     * Constructor RecordSpliterator(reader, fromRecord, toRecord)
+     *
+     * Purpose: Creates a spliterator over a range of records. No chunk is
+     *          read until the first record is asked for.
+     * Pre-condition: reader.cacheLengths() has been executed and
+     *                0 <= fromRecord <= toRecord <= reader.getNumRecords().
+     * Post-condition: The spliterator is positioned at fromRecord.
+     * Parameters: reader     - Reader of the file to scan
+     *             fromRecord - Number of the first record
+     *             toRecord   - Number one past the last record
+     */
+    RecordSpliterator(BinReader reader, int fromRecord, int toRecord) {
+        this.reader = reader;
+        this.view = reader.newView();
+        this.nextRecord = fromRecord;
+        this.toRecord = toRecord;
+    }
+
+    /*
+     * Method tryAdvance(action)
+     *
+     * Purpose: Passes the next record of the range to an action, loading
+     *          the next chunk first if the current one is used up.
+     * Pre-condition: None.
+     * Post-condition: The spliterator is past the record passed.
+     * Parameters: action - Action to perform on the record
+     * Returns: False if the range has no records left. An error reading
+     *          a chunk is thrown as an UncheckedIOException, since a
+     *          Stream cannot throw an IOException.
+     */
+    public boolean tryAdvance(Consumer<? super Record> action) {
+        if (nextRecord >= toRecord)
+            return false;
+
+        try {
+            if (chunk < 0 || nextRecord >= chunkEnd)
+                load(chunk < 0 ? reader.chunkOf(nextRecord) : chunk + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        reader.readChunkRecord(records, chunk, nextRecord, view);
+        nextRecord++;
+        action.accept(view.toRecord());
+
+        return true;
+    }
+
+    /*
+     * Method load(nextChunk)
+     *
+     * Purpose: Makes a chunk the loaded chunk, taking it from the read
+     *          ahead if that was started for it, and starts reading the
+     *          chunk after it if the range continues past it.
+     * Pre-condition: nextChunk holds nextRecord.
+     * Post-condition: records holds the decoded chunk; at most one read
+     *                 is in progress, into the buffer not in use.
+     * Parameters: nextChunk - Number of the chunk to load
+     */
+    private void load(int nextChunk) throws IOException {
+        AsynchronousFileChannel channel = reader.getScanChannel();
+
+        if (pending != null && nextChunk == chunk + 1) {
+            current = 1 - current;
+            finish(channel, pending, buffers[current], reader.chunkStart(nextChunk));
+        }
+        else {
+            ByteBuffer buf = buffer(current, reader.chunkBytes(nextChunk));
+            finish(channel, channel.read(buf, reader.chunkStart(nextChunk)), buf,
+                   reader.chunkStart(nextChunk));
+        }
+
+        pending = null;
+        chunk = nextChunk;
+        chunkEnd = reader.chunkFirstRecord(nextChunk + 1);
+        records = reader.decodeChunk(nextChunk, buffers[current]);
+
+        if (chunkEnd < toRecord) {
+            ByteBuffer ahead = buffer(1 - current, reader.chunkBytes(nextChunk + 1));
+            pending = channel.read(ahead, reader.chunkStart(nextChunk + 1));
+        }
+    }
+
+    /*
+     * Method buffer(index, bytes)
+     *
+     * Purpose: Returns one of the two chunk buffers, cleared and limited
+     *          to a chunk's size, growing it if the chunk is larger.
+     * Pre-condition: No read is in progress into the buffer.
+     * Post-condition: The buffer holds at least bytes bytes.
+     * Parameters: index - Which buffer, 0 or 1
+     *             bytes - Stored bytes of the chunk to read into it
+     * Returns: The buffer, positioned at 0 with its limit at bytes.
+     */
+    private ByteBuffer buffer(int index, int bytes) {
+        if (buffers[index] == null || buffers[index].capacity() < bytes)
+            buffers[index] = ByteBuffer.allocate(bytes);
+
+        return buffers[index].clear().limit(bytes);
+    }
+
+    /*
+     * Method finish(channel, read, buf, position)
+     *
+     * Purpose: Waits for a read of a chunk, then reads whatever part of
+     *          the chunk it fell short of.
+     * Pre-condition: read was started into buf at position.
+     * Post-condition: buf is full and flipped to its first byte.
+     * Parameters: channel  - Channel the read was started on
+     *             read     - The read in progress
+     *             buf      - Buffer being read into
+     *             position - File offset of the chunk
+     */
+    private static void finish(AsynchronousFileChannel channel, Future<Integer> read,
+                               ByteBuffer buf, long position) throws IOException {
+        try {
+            while (true) {
+                if (read.get() < 0)
+                    throw new EOFException("Unexpected end of file at offset "
+                                           + (position + buf.position()));
+                if (!buf.hasRemaining())
+                    break;
+
+                read = channel.read(buf, position + buf.position());
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Interrupted while scanning binary file");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException("Error: Scan of binary file failed", e.getCause());
+        }
+
+        buf.flip();
+    }
+
+    /*
+     * Method trySplit()
+     *
+     * Purpose: Gives the first half of the range's chunks to a new
+     *          spliterator and keeps the rest, splitting at the first
+     *          record of a chunk.
+     * Pre-condition: None.
+     * Post-condition: This spliterator starts at the split point.
+     * Returns: A spliterator over the records before the split point,
+     *          or null if the range lies in one chunk or the scan has
+     *          started.
+     */
+    public Spliterator<Record> trySplit() {
+        if (chunk >= 0 || nextRecord >= toRecord)
+            return null;
+
+        int firstChunk = reader.chunkOf(nextRecord);
+        int lastChunk = reader.chunkOf(toRecord - 1);
+
+        if (firstChunk == lastChunk)
+            return null;
+
+        int split = reader.chunkFirstRecord((firstChunk + lastChunk + 1) / 2);
+        Spliterator<Record> prefix = new RecordSpliterator(reader, nextRecord, split);
+        nextRecord = split;
+
+        return prefix;
+    }
+
+    /*
+     * The following methods describe the records left to the Stream that
+     * uses the spliterator. All follow the same pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: No state is modified
+     * Parameters: None
+     * Returns: The exact number of records left, or the characteristics
+     *          of the records: in file order, counted exactly in this
+     *          spliterator and any split from it, never null, and not
+     *          changed by the scan
+     */
+    public long estimateSize() { return toRecord - nextRecord; }
+    public int characteristics() { return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE; }
+}
@@ -0,0 +1,268 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the RecordView class, a reusable cursor over the raw
+ * bytes of one fixed-width binary record. Where a Record decodes all nine
+ * string fields up front, a RecordView decodes nothing until a field is
+ * asked for, so scans and index builds that only need Data.entry can
+ * process every record with the same object and buffer.
+ *
+ * The RecordView class performs the following responsibilities:
+ * 1. Holds the bytes of the record most recently loaded into it.
+ * 2. Locates each field using the offsets of the dataset's RecordLayout.
+ * 3. Decodes latitude and longitude in place.
+ * 4. Compares and fingerprints Data.entry without building a String.
+ * 5. Builds field Strings or a full Record only on demand.
+ * 6. Exposes the codes of dictionary-encoded fields, so equality filters
+ *    can compare ints, and decodes a code only when its String is asked
+ *    for.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac RecordView.java
+ *   Usage: Filled by BinReader and read by IndexWriter and IndexReader
+ *   Input: Fixed-width record bytes from the binary data file
+ *   Output: Field values, comparisons, and Record objects
+ */
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Class: RecordView
+ * Author: Tom Giallanza
+ * Purpose: An object of this class is a flyweight over one fixed-width
+ *          record. BinReader copies a record's bytes into the view's
+ *          buffer and the accessors decode fields from that buffer
+ *          directly. Loading another record overwrites the buffer, so
+ *          Strings must be taken from the view before it is reused.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: RecordView(RecordLayout layout)
+ * Class Methods: None
+ * Inst. Methods: byte[] getBytes()
+ *                String getSeqID() ... String getSpecies()
+ *                int getRealmCode() ... int getSpeciesCode()
+ *                double getLatitude()
+ *                double getLongitude()
+ *                long getEntryFingerprint()
+ *                int compareEntry(String key)
+ *                boolean entryEquals(String key)
+ *                Record toRecord()
+ *                String toString()
+ */
+class RecordView {
+
+    private final RecordLayout layout; // Field widths and offsets of the dataset
+    private final byte[] bytes;        // Bytes of the current record
+
+    /*
+     * Constructor RecordView(layout)
+     *
+     * Purpose: Allocates a record buffer sized for the given layout.
+     * Pre-condition: layout describes the records that will be loaded.
+     * Post-condition: The view is ready to be filled by BinReader.
+     * Parameters: layout - Layout of the dataset's records.
+     */
+    RecordView(RecordLayout layout) {
+        this.layout = layout;
+        this.bytes = new byte[layout.recordSize];
+    }
+
+    /*
+     * Method getBytes()
+     *
+     * Purpose: Exposes the record buffer so a reader can fill it.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The buffer backing this view.
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /*
+     * Method getString(offset, len)
+     *
+     * Purpose: Decodes one fixed-width field as a US-ASCII String.
+     * Pre-condition: offset and len describe a field of the record.
+     * Post-condition: No state is modified.
+     * Parameters: offset - Offset of the field
+     *             len    - Width of the field
+     * Returns: The field, including its padding.
+     */
+    private String getString(int offset, int len) {
+        return new String(bytes, offset, len, StandardCharsets.US_ASCII);
+    }
+
+    /*
+     * Method getField(offset, len, dict)
+     *
+     * Purpose: Decodes a field that may be dictionary encoded, looking
+     *          its code up only now that the String is needed.
+     * Pre-condition: offset and len describe a field of the record.
+     * Post-condition: No state is modified.
+     * Parameters: offset - Offset of the field
+     *             len    - Width of the field's Strings
+     *             dict   - Dictionary of the field, or null
+     * Returns: The field, including its padding.
+     */
+    private String getField(int offset, int len, ColumnDictionary dict) {
+        if (dict == null)
+            return getString(offset, len);
+
+        return dict.get(dict.getCode(bytes, offset));
+    }
+
+    /*
+     * Method getDouble(offset)
+     *
+     * Purpose: Decodes a big-endian double, as written by
+     *          RandomAccessFile.writeDouble, at the given offset.
+     * Pre-condition: offset is the start of a double field.
+     * Post-condition: No state is modified.
+     * Parameters: offset - Offset of the field
+     * Returns: The decoded value.
+     */
+    private double getDouble(int offset) {
+        long bits = 0;
+
+        for (int i = 0; i < Double.BYTES; i++)
+            bits = (bits << 8) | (bytes[offset + i] & 0xff);
+
+        return Double.longBitsToDouble(bits);
+    }
+
+    /*
+     * The following getter methods decode the fields of the current
+     * record. All getters follow the same pattern:
+     *
+     * Pre-conditions: A record has been loaded into the view
+     * Post-conditions: The view is unchanged
+     * Parameters: None
+     * Returns: The value of the specified field, as Record would hold it
+     */
+    public String getSeqID() { return getString(layout.seqIDOff, layout.seqIDLen); }
+    public String getEntry() { return getString(layout.entryOff, layout.entryLen); }
+    public String getSeries() { return getString(layout.seriesOff, layout.seriesLen); }
+    public String getRealm() { return getField(layout.realmOff, layout.realmLen, layout.realmDict); }
+    public String getContinent() { return getField(layout.continentOff, layout.continentLen, layout.continentDict); }
+    public String getBiome() { return getField(layout.biomeOff, layout.biomeLen, layout.biomeDict); }
+    public String getCountry() { return getField(layout.countryOff, layout.countryLen, layout.countryDict); }
+    public String getCave() { return getString(layout.caveOff, layout.caveLen); }
+    public double getLatitude() { return getDouble(layout.latitudeOff); }
+    public double getLongitude() { return getDouble(layout.longitudeOff); }
+    public String getSpecies() { return getField(layout.speciesOff, layout.speciesLen, layout.speciesDict); }
+
+    /*
+     * The following getter methods return the codes of the dictionary
+     * encoded fields of the current record. A filter compares them with
+     * the code the layout's dictionary gives its value, for example
+     * view.getRealmCode() == layout.realmDict.codeOf("Nearctic"), instead
+     * of decoding and comparing Strings. All getters follow the same
+     * pattern:
+     *
+     * Pre-conditions: A record has been loaded into the view and the
+     *                 layout has dictionaries
+     * Post-conditions: The view is unchanged
+     * Parameters: None
+     * Returns: The code of the specified field
+     */
+    public int getRealmCode() { return layout.realmDict.getCode(bytes, layout.realmOff); }
+    public int getContinentCode() { return layout.continentDict.getCode(bytes, layout.continentOff); }
+    public int getBiomeCode() { return layout.biomeDict.getCode(bytes, layout.biomeOff); }
+    public int getCountryCode() { return layout.countryDict.getCode(bytes, layout.countryOff); }
+    public int getSpeciesCode() { return layout.speciesDict.getCode(bytes, layout.speciesOff); }
+
+    /*
+     * Method getEntryFingerprint()
+     *
+     * Purpose: Fingerprints the trimmed Data.entry field in place.
+     * Pre-condition: A record has been loaded into the view.
+     * Post-condition: No state is modified.
+     * Returns: The same value as IndexWriter.fingerprint(getEntry().trim()).
+     */
+    public long getEntryFingerprint() {
+        return IndexWriter.fingerprint(bytes, layout.entryOff, layout.entryLen);
+    }
+
+    /*
+     * Method compareEntry(key)
+     *
+     * Purpose: Compares the trimmed Data.entry field against a key
+     *          character by character, without decoding the field.
+     * Pre-condition: A record has been loaded into the view.
+     * Post-condition: No state is modified.
+     * Parameters: key - Trimmed Data.entry value to compare against
+     * Returns: The sign of getEntry().trim().compareTo(key).
+     */
+    public int compareEntry(String key) {
+        int start = layout.entryOff;                   // First byte kept by trim()
+        int end = layout.entryOff + layout.entryLen;   // One past the last byte kept
+
+        while (start < end && (bytes[start] & 0xff) <= ' ')
+            start++;
+        while (end > start && (bytes[end - 1] & 0xff) <= ' ')
+            end--;
+
+        int len = end - start;
+        int n = Math.min(len, key.length());
+
+        for (int i = 0; i < n; i++) {
+            // US-ASCII decoding maps bytes above 0x7f to U+FFFD
+            char c = bytes[start + i] >= 0 ? (char) bytes[start + i] : '\ufffd';
+
+            if (c != key.charAt(i))
+                return c - key.charAt(i);
+        }
+
+        return len - key.length();
+    }
+
+    /*
+     * Method entryEquals(key)
+     *
+     * Purpose: Tests whether the trimmed Data.entry field equals a key.
+     * Pre-condition: A record has been loaded into the view.
+     * Post-condition: No state is modified.
+     * Parameters: key - Trimmed Data.entry value to compare against
+     * Returns: True if getEntry().trim().equals(key).
+     */
+    public boolean entryEquals(String key) {
+        return compareEntry(key) == 0;
+    }
+
+    /*
+     * Method toRecord()
+     *
+     * Purpose: Decodes every field of the current record into an
+     *          immutable Record that outlives the view.
+     * Pre-condition: A record has been loaded into the view.
+     * Post-condition: No state is modified.
+     * Returns: A Record holding the current record's values.
+     */
+    public Record toRecord() {
+        return new Record(getSeqID(), getEntry(), getSeries(), getRealm(),
+                          getContinent(), getBiome(), getCountry(), getCave(),
+                          getLatitude(), getLongitude(), getSpecies());
+    }
+
+    /*
+     * Method toString
+     *
+     * Purpose: Formats the current record exactly as Record.toString
+     *          does, decoding only the three fields it displays.
+     * Pre-condition: A record has been loaded into the view.
+     * Post-condition: No state is modified.
+     * Returns: Formatted string representing the record.
+     */
+    public String toString() {
+        return Record.format(getSeqID(), getCountry(), getCave());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the RunMerge class, which merges several runs of
+ * records, each already in Data.entry order, into one sequence in
+ * Data.entry order. It is the k-way merge of the external sort's run
+ * files and of the sorted runs a sorted search finds in an appended file.
+ *
+ * The RunMerge class performs the following responsibilities:
+ * 1. Holds the next record of every run that has records left in a heap
+ *    ordered by Data.entry.
+ * 2. Yields the smallest record and refills the heap from its run, so
+ *    each record costs O(log k) comparisons for k runs.
+ * 3. Breaks ties by run order, so records of equal keys keep the order
+ *    of the runs they came from.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac RunMerge.java
+ *   Usage: Used by ExternalSort and SortedReader
+ *   Input: One iterator of sorted records per run
+ *   Output: The records of every run, in Data.entry order
+ */
+
+import java.util.*;
+
+/*
+ * Class: RunMerge
+ * Author: Tom Giallanza
+ * Purpose: An object of this class merges sorted runs of records. A
+ *          priority queue holds the head of every run with records left.
+ *          Data.entry is stored padded with trailing spaces, so the
+ *          padding is removed before comparing to match the order of
+ *          Record.compareEntry. No run is read until the merge is first
+ *          asked for a record, so a merge can be built before it is
+ *          used. A run that fails to read throws whatever its iterator
+ *          throws, such as an UncheckedIOException.
+ * Inherits From: None
+ * Interfaces: Iterator<Record>
+ * Constants: None
+ * Constructors: RunMerge(List<Iterator<Record>> runs)
+ * Class Methods: None
+ * Inst. Methods: boolean hasNext()
+ *                Record next()
+ */
+class RunMerge implements Iterator<Record> {
+
+    private final List<Iterator<Record>> runs; // Records of each run, in run order
+    private PriorityQueue<RunHead> heads;      // Runs with records left; null until started
+
+    /*
+     * Constructor RunMerge(runs)
+     *
+     * Purpose: Creates a merge of the given runs without reading them.
+     * Pre-condition: Each iterator yields its run in Data.entry order.
+     * Post-condition: The merge is positioned before its first record.
+     * Parameters: runs - Records of each run; earlier runs win ties.
+     */
+    RunMerge(List<Iterator<Record>> runs) {
+        this.runs = runs;
+    }
+
+    /*
+     * Method hasNext()
+     *
+     * Purpose: Reports whether any run has records left, loading the
+     *          first record of every run on the first call.
+     * Pre-condition: None.
+     * Post-condition: heads holds every run with records left.
+     * Returns: True if a record is left.
+     */
+    @Override
+    public boolean hasNext() {
+        if (heads == null) {
+            heads = new PriorityQueue<RunHead>();
+
+            for (int i = 0; i < runs.size(); i++) {
+                RunHead head = new RunHead(i, runs.get(i));
+                if (head.advance())
+                    heads.add(head);
+            }
+        }
+
+        return !heads.isEmpty();
+    }
+
+    /*
+     * Method next()
+     *
+     * Purpose: Takes the smallest head and moves its run to its next
+     *          record.
+     * Pre-condition: None.
+     * Post-condition: The run of the record returned is advanced.
+     * Returns: The record of the smallest key left.
+     */
+    @Override
+    public Record next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        RunHead head = heads.poll();
+        Record record = head.record;
+
+        if (head.advance())
+            heads.add(head);
+
+        return record;
+    }
+
+    /*
+     * Class: RunHead
+     * Author: Tom Giallanza
+     * Purpose: The next unmerged record of one run.
+     * Inherits From: None
+     * Interfaces: Comparable<RunHead>
+     * Constants: None
+     * Constructors: RunHead(int runNum, Iterator<Record> records)
+     * Class Methods: None
+     * Inst. Methods: boolean advance()
+     *                int compareTo(RunHead other)
+     */
+    private static class RunHead implements Comparable<RunHead> {
+
+        private final int runNum;               // Position of the run, for stable ties
+        private final Iterator<Record> records; // Records of the run
+
+        Record record;                          // Current record of the run
+        String key;                             // Unpadded Data.entry of the record
+
+        RunHead(int runNum, Iterator<Record> records) {
+            this.runNum = runNum;
+            this.records = records;
+        }
+
+        /*
+         * Method advance()
+         *
+         * Purpose: Loads the run's next record.
+         * Pre-condition: None.
+         * Post-condition: record and key hold the next record, if any.
+         * Returns: False if the run is exhausted.
+         */
+        boolean advance() {
+            if (!records.hasNext())
+                return false;
+
+            record = records.next();
+            key = record.getEntry().stripTrailing();
+
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunHead other) {
+            int cmp = key.compareTo(other.key);
+
+            return cmp != 0 ? cmp : Integer.compare(runNum, other.runNum);
+        }
+    }
+}
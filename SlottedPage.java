@@ -0,0 +1,275 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the SlottedPage class, which packs records into the
+ * fixed-size pages of a paged binary file and unpacks them again. A page
+ * stores each record with its string fields cut to their length and
+ * prefixed by it, so a record takes only the bytes its values need, and
+ * a slot directory at the front of the page locates every record.
+ *
+ * The SlottedPage class performs the following responsibilities:
+ * 1. Packs fixed-width records into a page until the page is full.
+ * 2. Maintains the slot count and slot directory of the page.
+ * 3. Reports the number of records in a page that has been written.
+ * 4. Unpacks one slot of a page back into the fixed-width record bytes
+ *    that a RecordView reads.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac SlottedPage.java
+ *   Usage: Used by BinWriter to write, and BinReader to read, paged files
+ *   Input: Fixed-width records encoded by BinWriter.encode, or pages
+ *   Output: Pages of packed records, or fixed-width record bytes
+ */
+
+import java.nio.*;
+import java.util.*;
+
+/*
+ * Class: SlottedPage
+ * Author: Tom Giallanza
+ * Purpose: An object of this class is the page a BinWriter is filling.
+ *          Records are packed from the end of the page towards its
+ *          front, and the slot directory grows from the front towards
+ *          them:
+ *
+ *            [slot count][offset of slot 0][offset of slot 1]...
+ *            ...free space...[record of slot 1][record of slot 0]
+ *
+ *          Counts and offsets are unsigned shorts. Each string field of
+ *          a record is its length, in one byte if the field is at most
+ *          255 wide and in two otherwise, followed by the field with its
+ *          trailing padding removed. Dictionary codes and coordinates
+ *          keep their fixed size. Unpacking pads the strings again, so
+ *          a reader gets exactly the bytes of the fixed-width format and
+ *          a record is addressed by its page and slot alone.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: HEADER_BYTES
+ *            SLOT_BYTES
+ * Constructors: SlottedPage(RecordLayout layout, int pageBytes)
+ * Class Methods: int getNumSlots(ByteBuffer pages, int pageStart)
+ *                void load(ByteBuffer pages, int pageStart, int slot,
+ *                          RecordLayout layout, byte[] dest)
+ * Inst. Methods: boolean add(ByteBuffer records, int offset)
+ *                int getNumSlots()
+ *                boolean isEmpty()
+ *                ByteBuffer getPage()
+ *                void clear()
+ */
+class SlottedPage {
+
+    public static final int HEADER_BYTES = Short.BYTES;
+        // Bytes of the slot count at the start of every page
+
+    public static final int SLOT_BYTES = Short.BYTES;
+        // Bytes of each slot directory entry: the offset of its record
+
+    private final RecordLayout layout;  // Field widths of the records packed
+    private final ByteBuffer page;      // Bytes of the page being filled
+    private final byte[] bytes;         // Array backing page
+    private int numSlots = 0;           // Records in the page
+    private int freeEnd;                // Offset of the most recently packed record
+    private final int[] lengths = new int[RecordLayout.NUM_FIELDS]; // Stored bytes of each field
+
+    /*
+     * Constructor SlottedPage(layout, pageBytes)
+     *
+     * Purpose: Allocates an empty page.
+     * Pre-condition: pageBytes is at most 65536.
+     * Post-condition: The page has no slots.
+     * Parameters: layout    - Layout of the records to pack
+     *             pageBytes - Size of the page
+     */
+    SlottedPage(RecordLayout layout, int pageBytes) {
+        this.layout = layout;
+        this.page = ByteBuffer.allocate(pageBytes);
+        this.bytes = page.array();
+        this.freeEnd = pageBytes;
+    }
+
+    /*
+     * Method isPacked(layout, field)
+     *
+     * Purpose: Reports whether a field is stored as a length and its
+     *          unpadded bytes, rather than at its fixed size.
+     * Pre-condition: 0 <= field < RecordLayout.NUM_FIELDS.
+     * Post-condition: No state is modified.
+     * Parameters: layout - Layout of the records
+     *             field  - Field number
+     * Returns: True for a string field without a dictionary.
+     */
+    private static boolean isPacked(RecordLayout layout, int field) {
+        return field != RecordLayout.LATITUDE && field != RecordLayout.LONGITUDE
+            && layout.fieldDictionary(field) == null;
+    }
+
+    /*
+     * Method add(records, offset)
+     *
+     * Purpose: Packs one fixed-width record into the page and adds its
+     *          slot, if the page has room for both.
+     * Pre-condition: A record encoded with the page's layout starts at
+     *                offset in records.
+     * Post-condition: The record is the page's last slot, or the page is
+     *                 unchanged if it is full.
+     * Parameters: records - Buffer holding the record
+     *             offset  - Absolute offset of the record in records
+     * Returns: True if the record was added.
+     */
+    public boolean add(ByteBuffer records, int offset) {
+        int size = 0; // Packed size of the record
+
+        for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+            int fieldBytes = layout.fieldBytes(field);
+            int start = offset + layout.fieldOffset(field);
+
+            if (isPacked(layout, field)) {
+                int len = fieldBytes;
+                while (len > 0 && records.get(start + len - 1) == ' ')
+                    len--;
+
+                lengths[field] = len;
+                size += (fieldBytes > 0xff ? 2 : 1) + len;
+            } else {
+                lengths[field] = fieldBytes;
+                size += fieldBytes;
+            }
+        }
+
+        if (HEADER_BYTES + (numSlots + 1) * SLOT_BYTES + size > freeEnd)
+            return false;
+
+        freeEnd -= size;
+        int pos = freeEnd; // Next byte of the packed record
+
+        for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+            int start = offset + layout.fieldOffset(field);
+
+            if (isPacked(layout, field)) {
+                if (layout.fieldBytes(field) > 0xff)
+                    bytes[pos++] = (byte) (lengths[field] >>> 8);
+                bytes[pos++] = (byte) lengths[field];
+            }
+
+            records.get(start, bytes, pos, lengths[field]);
+            pos += lengths[field];
+        }
+
+        page.putShort(HEADER_BYTES + numSlots * SLOT_BYTES, (short) freeEnd);
+        numSlots++;
+
+        return true;
+    }
+
+    /*
+     * Method getNumSlots()
+     *
+     * Purpose: Returns the number of records packed into the page.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The slot count.
+     */
+    public int getNumSlots() {
+        return numSlots;
+    }
+
+    /*
+     * Method isEmpty()
+     *
+     * Purpose: Reports whether the page holds no records.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: True if the page has no slots.
+     */
+    public boolean isEmpty() {
+        return numSlots == 0;
+    }
+
+    /*
+     * Method getPage()
+     *
+     * Purpose: Stores the slot count and returns the whole page, ready
+     *          to be written.
+     * Pre-condition: None.
+     * Post-condition: The page's bytes are final until clear().
+     * Returns: The page, positioned at its first byte.
+     */
+    public ByteBuffer getPage() {
+        page.putShort(0, (short) numSlots);
+        return page.clear();
+    }
+
+    /*
+     * Method clear()
+     *
+     * Purpose: Empties the page, zeroing it so that no bytes of the old
+     *          records are written in the free space of the next page.
+     * Pre-condition: None.
+     * Post-condition: The page has no slots.
+     */
+    public void clear() {
+        Arrays.fill(bytes, (byte) 0);
+        numSlots = 0;
+        freeEnd = bytes.length;
+    }
+
+    /*
+     * Method getNumSlots(pages, pageStart)
+     *
+     * Purpose: Reads the slot count of a written page.
+     * Pre-condition: A page starts at pageStart in pages.
+     * Post-condition: The buffer's position is unchanged.
+     * Parameters: pages     - Buffer holding the page
+     *             pageStart - Absolute offset of the page in pages
+     * Returns: The number of records in the page.
+     */
+    public static int getNumSlots(ByteBuffer pages, int pageStart) {
+        return pages.getShort(pageStart) & 0xffff;
+    }
+
+    /*
+     * Method load(pages, pageStart, slot, layout, dest)
+     *
+     * Purpose: Unpacks the record of one slot into fixed-width bytes,
+     *          padding each string field with spaces to its width.
+     * Pre-condition: A page written with layout starts at pageStart in
+     *                pages, slot < getNumSlots(pages, pageStart), and
+     *                dest holds layout.recordSize bytes.
+     * Post-condition: dest holds the record as BinWriter.encode would
+     *                 encode it. The buffer's position is unchanged.
+     * Parameters: pages     - Buffer holding the page
+     *             pageStart - Absolute offset of the page in pages
+     *             slot      - Slot of the record
+     *             layout    - Layout the page was written with
+     *             dest      - Destination of the record's bytes
+     */
+    public static void load(ByteBuffer pages, int pageStart, int slot,
+                            RecordLayout layout, byte[] dest) {
+        int pos = pageStart + (pages.getShort(pageStart + HEADER_BYTES + slot * SLOT_BYTES)
+                               & 0xffff); // Next byte of the packed record
+
+        for (int field = 0; field < RecordLayout.NUM_FIELDS; field++) {
+            int fieldBytes = layout.fieldBytes(field);
+            int start = layout.fieldOffset(field);
+            int len = fieldBytes;
+
+            if (isPacked(layout, field)) {
+                len = pages.get(pos++) & 0xff;
+                if (fieldBytes > 0xff)
+                    len = (len << 8) | (pages.get(pos++) & 0xff);
+
+                Arrays.fill(dest, start + len, start + fieldBytes, (byte) ' ');
+            }
+
+            pages.get(pos, dest, start, len);
+            pos += len;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the SortedReader class, which searches a binary
+ * dataset through the Data.entry order Prog1A writes its records in.
+ * Unlike the hash index it can answer range and prefix queries: a search
+ * finds where a key range starts and ends, and the records in between
+ * are streamed in order, so a query reads O(log n + k) records instead of
+ * scanning the file. A sparse fence index of every Consts.FENCE_INTERVAL
+ * key, read as searches need it and kept in memory, narrows each search
+ * to one short block of records that is fetched in a single read.
+ *
+ * The SortedReader class performs the following responsibilities:
+ * 1. Takes the sorted runs of the binary file from the run table Prog1A
+ *    writes after the footer of an appended file: one run for a file
+ *    Prog1A wrote or rewrote, and one more for each append that started
+ *    below the old last key. Opening a reader reads no records.
+ * 2. Places the fence index: the first record of each run and every
+ *    Consts.FENCE_INTERVAL-th record after it. The key of a fence is
+ *    read the first time a search needs it and kept after that.
+ * 3. Finds the lower and upper bound of a key in each run by searching
+ *    the fences and then reading one block between fences.
+ * 4. Retrieves a record by its Data.entry value.
+ * 5. Streams the records of a key range or a key prefix in Data.entry
+ *    order, merging the runs when there are several.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac SortedReader.java
+ *   Usage: Used by Prog22 to search without the hash index
+ *   Input: Binary data file written by Prog1A
+ *   Output: Record objects and streams of records in Data.entry order
+ */
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+/*
+ * Class: SortedReader
+ * Author: Tom Giallanza
+ * Purpose: An object of this class searches a binary file by Data.entry
+ *          without an index. Prog1A sorts the records of the file, but
+ *          an append whose rows fit the file's widths writes its own
+ *          sorted rows after the old ones, so a file is a sequence of
+ *          sorted runs. The append records where each run starts in a
+ *          table after the file's footer, which BinReader loads with the
+ *          footer, and every search is made in each run.
+ *          A fence is the first record of each run and every
+ *          FENCE_INTERVAL-th one after it, about 1/FENCE_INTERVAL of the
+ *          keys in all, so its record number is computed from the run
+ *          starts; its key is read with one record read the first time
+ *          a search compares against it and cached. A search of a run
+ *          binary searches its fences, which costs O(log n) reads until
+ *          the fences it visits are cached and none after, and leaves
+ *          the records after one fence, up to and including the next, as
+ *          the only ones the bound can fall on; those are fetched with
+ *          one batched read. A warm lookup therefore costs one read per
+ *          run and a range O(1 + k) reads, and the hash index is not
+ *          needed in memory. Keys compare as the trimmed Data.entry
+ *          values do with String.compareTo, the order Prog1A sorts by.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: SortedReader(File binFilePath)
+ *               SortedReader(File binFilePath, BufferPool pool)
+ * Class Methods: None
+ * Inst. Methods: int getNumRuns()
+ *                int getRunStart(int run)
+ *                int getNumFences()
+ *                int lowerBound(int run, String key)
+ *                int upperBound(int run, String key)
+ *                Record fetchRecord(String entryID)
+ *                Stream<Record> range(String low, String high)
+ *                Stream<Record> prefix(String prefix)
+ *                void close()
+ */
+class SortedReader {
+
+    private final BinReader binReader;  // Reader of the binary file
+    private final int[] runStarts;      // First record of each run, then the record count
+    private final int[] runFences;      // First fence of each run, then the fence count
+    private final String[] fenceKeys;   // Trimmed key of each fence, or null until read
+    private final int[] fenceRecords;   // Record number of each fence, then the record count
+
+    /*
+     * Constructor SortedReader(binFilePath)
+     *
+     * Purpose: Opens a binary file for sorted searches, reading records
+     *          straight from the file.
+     * Pre-condition: binFilePath references a valid binary data file.
+     * Post-condition: The file is open and its runs are found.
+     * Parameters: binFilePath - Reference to the binary data file.
+     */
+    public SortedReader(File binFilePath) throws IOException {
+        this(new BinReader(binFilePath));
+    }
+
+    /*
+     * Constructor SortedReader(binFilePath, pool)
+     *
+     * Purpose: Opens a binary file for sorted searches, reading the
+     *          records of each search through a buffer pool.
+     * Pre-condition: binFilePath references a valid binary data file.
+     * Post-condition: The file is open, registered with the pool, and
+     *                 its runs are found.
+     * Parameters: binFilePath - Reference to the binary data file.
+     *             pool        - Buffer pool to read the file through.
+     */
+    public SortedReader(File binFilePath, BufferPool pool) throws IOException {
+        this(new BinReader(binFilePath, pool));
+    }
+
+    /*
+     * Constructor SortedReader(binReader)
+     *
+     * Purpose: Loads the runs of an open binary file from its footer and
+     *          places its fences. No record is read until a search needs
+     *          a fence key.
+     * Pre-condition: binReader.cacheLengths() has been executed.
+     * Post-condition: runStarts holds the first record of every run, and
+     *                 the fence arrays every fence of every run, with
+     *                 no keys read.
+     * Parameters: binReader - Reader of the binary file.
+     */
+    private SortedReader(BinReader binReader) {
+        this.binReader = binReader;
+
+        // The run starts, then the record count as the end of the last run
+        int[] starts = binReader.getRunStarts(); // First record of each run
+        runStarts = Arrays.copyOf(starts, starts.length + 1);
+        runStarts[starts.length] = binReader.getNumRecords();
+
+        // Fences restart with each run, so no block spans two
+        int numRuns = runStarts.length - 1; // Number of runs
+        runFences = new int[numRuns + 1];
+        for (int run = 0; run < numRuns; run++)
+            runFences[run + 1] = runFences[run] + (runStarts[run + 1] - runStarts[run]
+                                                   + Consts.FENCE_INTERVAL - 1) / Consts.FENCE_INTERVAL;
+
+        fenceRecords = new int[runFences[numRuns] + 1];
+        for (int run = 0; run < numRuns; run++)
+            for (int fence = runFences[run]; fence < runFences[run + 1]; fence++)
+                fenceRecords[fence] = runStarts[run]
+                                      + (fence - runFences[run]) * Consts.FENCE_INTERVAL;
+        fenceRecords[runFences[numRuns]] = binReader.getNumRecords();
+
+        fenceKeys = new String[runFences[numRuns]];
+    }
+
+    /*
+     * The following methods describe the runs of the file and its fence
+     * index. All follow the same pattern:
+     *
+     * Pre-conditions: 0 <= run <= getNumRuns()
+     * Post-conditions: No state is modified
+     * Parameters: run - Number of a run
+     * Returns: The number of runs, the first record of a run (run
+     *          getNumRuns() starts at the record count), or the number
+     *          of fences, whether or not their keys have been read
+     */
+    public int getNumRuns() { return runStarts.length - 1; }
+    public int getRunStart(int run) { return runStarts[run]; }
+    public int getNumFences() { return fenceKeys.length; }
+
+    /*
+     * The following methods find where a key belongs in one run with at
+     * most one read, of the block of records the fences leave. Both
+     * follow the same pattern:
+     *
+     * Pre-conditions: 0 <= run < getNumRuns()
+     * Post-conditions: The keys of the fences compared are cached
+     * Parameters: run - Number of the run to search
+     *             key - Trimmed Data.entry value
+     * Returns: The first record of the run whose key is at least key
+     *          (lowerBound) or greater than key (upperBound), or the end
+     *          of the run if there is none
+     */
+    public int lowerBound(int run, String key) throws IOException {
+        return bound(run, key, false);
+    }
+    public int upperBound(int run, String key) throws IOException {
+        return bound(run, key, true);
+    }
+
+    /*
+     * Method bound(run, key, upper)
+     *
+     * Purpose: Performs the search of lowerBound and upperBound: the
+     *          fence search, then a scan of the block it leaves.
+     * Pre-condition: 0 <= run < getNumRuns().
+     * Post-condition: The keys of the fences compared are cached.
+     * Parameters: run   - Number of the run to search
+     *             key   - Trimmed Data.entry value
+     *             upper - True to skip the records equal to key
+     * Returns: The bound, between the run's first record and its end.
+     */
+    private int bound(int run, String key, boolean upper) throws IOException {
+        int fence = fenceBelow(run, key, upper);
+        if (fence < 0)
+            return runStarts[run]; // The run's first key is already past the bound
+
+        Record[] block = readBlock(run, fence);
+        int first = fenceRecords[fence] + 1; // Record number of block[0]
+
+        for (int i = 0; i < block.length; i++) {
+            int cmp = block[i].getEntry().trim().compareTo(key);
+            if (cmp > 0 || (!upper && cmp == 0))
+                return first + i;
+        }
+
+        return first + block.length;
+    }
+
+    /*
+     * Method fenceBelow(run, key, upper)
+     *
+     * Purpose: Binary searches the fences of a run for the last one
+     *          whose key is below key, or not above it if upper is set.
+     *          The bound lies after that fence and no later than the
+     *          next.
+     * Pre-condition: 0 <= run < getNumRuns().
+     * Post-condition: The keys of the fences compared are cached.
+     * Parameters: run   - Number of the run to search
+     *             key   - Trimmed Data.entry value
+     *             upper - True to count fences equal to key as below it
+     * Returns: The fence, or -1 if the run's first key is past the bound.
+     */
+    private int fenceBelow(int run, String key, boolean upper) throws IOException {
+        int lo = runFences[run];     // Every fence before lo is below the key
+        int hi = runFences[run + 1]; // Every fence from hi on is not
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = fenceKey(mid).compareTo(key);
+
+            if (cmp < 0 || (upper && cmp == 0))
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo > runFences[run] ? lo - 1 : -1;
+    }
+
+    /*
+     * Method fenceKey(fence)
+     *
+     * Purpose: Returns the key of a fence, reading its record the first
+     *          time. Readers racing on the same fence read and store the
+     *          same key, and a String is safe to share once stored.
+     * Pre-condition: 0 <= fence < getNumFences().
+     * Post-condition: The fence's key is cached.
+     * Parameters: fence - Number of the fence
+     * Returns: The trimmed Data.entry value of the fence record.
+     */
+    private String fenceKey(int fence) throws IOException {
+        String key = fenceKeys[fence]; // Cached key, or null
+
+        if (key == null) {
+            key = binReader.readRecord(binReader.getRecordPointer(fenceRecords[fence]))
+                           .getEntry().trim();
+            fenceKeys[fence] = key;
+        }
+
+        return key;
+    }
+
+    /*
+     * Method readBlock(run, fence)
+     *
+     * Purpose: Reads the records after a fence, up to and including the
+     *          next fence of the run, as one batch. The records are
+     *          contiguous, so the batch is merged into a single read.
+     * Pre-condition: fence is one of the run's fences.
+     * Post-condition: No shared state is modified.
+     * Parameters: run   - Number of the run
+     *             fence - Fence the block follows
+     * Returns: The records of the block in file order.
+     */
+    private Record[] readBlock(int run, int fence) throws IOException {
+        int from = fenceRecords[fence] + 1; // First record of the block
+        int to = Math.min(fenceRecords[fence + 1] + 1, runStarts[run + 1]); // One past its last
+
+        return readSlice(from, to);
+    }
+
+    /*
+     * Method readSlice(from, to)
+     *
+     * Purpose: Reads a run of consecutive records as one batch with
+     *          BinReader.readRecords, which merges them into as few reads
+     *          as it can and goes through the reader's buffer pool, if
+     *          it has one.
+     * Pre-condition: 0 <= from <= to <= the record count.
+     * Post-condition: No shared state is modified.
+     * Parameters: from - Number of the first record
+     *             to   - Number one past the last record
+     * Returns: The records in file order.
+     */
+    private Record[] readSlice(int from, int to) throws IOException {
+        long[] recordPtrs = new long[to - from];
+
+        for (int i = 0; i < recordPtrs.length; i++)
+            recordPtrs[i] = binReader.getRecordPointer(from + i);
+
+        return binReader.readRecords(recordPtrs);
+    }
+
+    /*
+     * Method readRange(from, to)
+     *
+     * Purpose: Gives the records of one run's part of a range as a
+     *          stream. Up to Consts.SORTED_BATCH_RECORDS records are read
+     *          at once with readSlice, which touches only the pages they
+     *          lie on and counts in the buffer pool; a longer range is
+     *          streamed in large chunks as it is used, which is cheaper
+     *          per record and does not hold the range in memory.
+     * Pre-condition: 0 <= from <= to <= the record count.
+     * Post-condition: No shared state is modified.
+     * Parameters: from - Number of the first record
+     *             to   - Number one past the last record
+     * Returns: A stream of the records in file order.
+     */
+    private Stream<Record> readRange(int from, int to) throws IOException {
+        if (to - from > Consts.SORTED_BATCH_RECORDS)
+            return binReader.stream(from, to);
+
+        return Arrays.stream(readSlice(from, to));
+    }
+
+    /*
+     * Method fetchRecord(entryID)
+     *
+     * Purpose: Retrieves a record whose Data.entry matches entryID by
+     *          searching each run in file order. The block the fences
+     *          leave in a run holds the record if the run does, so each
+     *          run costs at most one read once its fences are cached.
+     * Pre-condition: The reader is open.
+     * Post-condition: The keys of the fences compared are cached.
+     * Parameters: entryID - Data.entry value to search for.
+     * Returns: The first matching Record in file order; null otherwise.
+     */
+    public Record fetchRecord(String entryID) throws IOException {
+        String key = entryID.trim(); // Keys are stored padded, compared trimmed
+
+        for (int run = 0; run < getNumRuns(); run++) {
+            int fence = fenceBelow(run, key, false);
+
+            // Below every other fence, only the run's first record can match
+            if (fence < 0) {
+                if (runFences[run] < runFences[run + 1] && fenceKey(runFences[run]).equals(key))
+                    return binReader.readRecord(binReader.getRecordPointer(runStarts[run]));
+                continue;
+            }
+
+            for (Record record : readBlock(run, fence)) {
+                int cmp = record.getEntry().trim().compareTo(key);
+
+                if (cmp == 0)
+                    return record;
+                if (cmp > 0)
+                    break;
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Method range(low, high)
+     *
+     * Purpose: Streams every record whose key lies between low and high,
+     *          both included, in Data.entry order. The part of the range
+     *          in each run is read as readRange decides: short parts
+     *          before this returns, long parts as the stream is used.
+     * Pre-condition: The reader is open.
+     * Post-condition: No shared state is modified.
+     * Parameters: low  - Smallest Data.entry value to include
+     *             high - Largest Data.entry value to include
+     * Returns: A stream of the matching records.
+     */
+    public Stream<Record> range(String low, String high) throws IOException {
+        ArrayList<Stream<Record>> parts = new ArrayList<Stream<Record>>(); // Range of each run
+
+        for (int run = 0; run < getNumRuns(); run++) {
+            int from = lowerBound(run, low.trim()); // First record of the range in the run
+            int to = upperBound(run, high.trim());  // One past its last; below from if low > high
+
+            parts.add(readRange(from, Math.max(from, to)));
+        }
+
+        return merge(parts);
+    }
+
+    /*
+     * Method prefix(prefix)
+     *
+     * Purpose: Streams every record whose key starts with prefix, such as
+     *          "BC 1" for the entries in the BC 1xxxxxx block, in
+     *          Data.entry order, reading each run's part as range does.
+     * Pre-condition: The reader is open.
+     * Post-condition: No shared state is modified.
+     * Parameters: prefix - Leading characters of the keys to include
+     * Returns: A stream of the matching records.
+     */
+    public Stream<Record> prefix(String prefix) throws IOException {
+        // Every key with the prefix is below the prefix with its last
+        // character increased; a prefix of
+        // only '\uffff' characters has no such bound
+        String end = prefix;
+        while (!end.isEmpty() && end.charAt(end.length() - 1) == '\uffff')
+            end = end.substring(0, end.length() - 1);
+        if (!end.isEmpty())
+            end = end.substring(0, end.length() - 1) + (char) (end.charAt(end.length() - 1) + 1);
+
+        ArrayList<Stream<Record>> parts = new ArrayList<Stream<Record>>(); // Range of each run
+
+        for (int run = 0; run < getNumRuns(); run++)
+            parts.add(readRange(lowerBound(run, prefix),
+                                end.isEmpty() ? runStarts[run + 1] : lowerBound(run, end)));
+
+        return merge(parts);
+    }
+
+    /*
+     * Method merge(parts)
+     *
+     * Purpose: Combines the ranges found in each run into one stream in
+     *          Data.entry order. A single run's range already is in
+     *          order; ranges from several runs are merged by a RunMerge
+     *          as they are read, so only one record per run is held in
+     *          memory. Records of equal keys come out in file order.
+     * Pre-condition: parts holds one stream per run, in run order.
+     * Post-condition: No state is modified until the stream is used.
+     * Parameters: parts - Stream of the range of each run
+     * Returns: The combined stream; closing it closes every part.
+     */
+    private Stream<Record> merge(ArrayList<Stream<Record>> parts) {
+        if (parts.size() == 1)
+            return parts.get(0);
+
+        ArrayList<Iterator<Record>> runs = new ArrayList<Iterator<Record>>(); // Records of each part
+        for (Stream<Record> part : parts)
+            runs.add(part.iterator());
+
+        Stream<Record> merged = StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(new RunMerge(runs),
+                                                Spliterator.ORDERED | Spliterator.NONNULL),
+            false);
+
+        for (Stream<Record> part : parts)
+            merged = merged.onClose(part::close);
+
+        return merged;
+    }
+
+    /*
+     * Method close()
+     *
+     * Purpose: Closes the binary file.
+     * Pre-condition: The reader is open.
+     * Post-condition: The file is closed.
+     */
+    public void close() throws IOException {
+        binReader.close();
+    }
+}
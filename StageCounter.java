@@ -0,0 +1,174 @@
+/*
+ * Author: Tom Giallanza
+ * Course: CSC 460 Database Design
+ * Assignment: Program 2
+ * Instructor: Dr. McCann
+ * TAs: Jianwei Shen and Muhammad Bilal
+ * Due Date: 02-12-2026
+ *
+ * Description:
+ * This file defines the StageCounter class, which measures one stage of
+ * the Prog1A ingest pipeline. Every stage counts the records and bytes it
+ * handles, the time its threads spend working, the time they sit idle
+ * waiting for input, and the time they are held back by a full queue to
+ * the next stage.
+ *
+ * The StageCounter class performs the following responsibilities:
+ * 1. Accumulates the work done by a stage's threads.
+ * 2. Times blocking takes from and puts to the queues between stages.
+ * 3. Formats a one-line throughput report for the stage.
+ *
+ * Operational Requirements:
+ *   Language: Java 25.0.1
+ *   Compilation: javac StageCounter.java
+ *   Usage: Used by PipelinedCSVParser, PipelinedBinWriter, and Prog1A
+ *   Input: Timings reported by pipeline threads
+ *   Output: Stage throughput reports
+ */
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/*
+ * Class: StageCounter
+ * Author: Tom Giallanza
+ * Purpose: An object of this class holds thread-safe counters for one
+ *          pipeline stage. The slowest stage shows mostly busy time,
+ *          stages before it are blocked by backpressure, and stages
+ *          after it are starved for input.
+ * Inherits From: None
+ * Interfaces: None
+ * Constants: None
+ * Constructors: StageCounter(String name, int numThreads)
+ * Class Methods: None
+ * Inst. Methods: void work(long records, long bytes, long nanos)
+ *                void starved(long nanos)
+ *                void blocked(long nanos)
+ *                <T> T take(BlockingQueue<T> queue)
+ *                <T> void put(BlockingQueue<T> queue, T item)
+ *                long getBlockedNanos()
+ *                String toString()
+ */
+class StageCounter {
+
+    private final String name;        // Name of the stage in reports
+    private final int numThreads;     // Threads that run the stage
+
+    private final AtomicLong records = new AtomicLong();      // Records handled
+    private final AtomicLong bytes = new AtomicLong();        // Bytes handled
+    private final AtomicLong busyNanos = new AtomicLong();    // Time spent working
+    private final AtomicLong starvedNanos = new AtomicLong(); // Time waiting for input
+    private final AtomicLong blockedNanos = new AtomicLong(); // Time waiting for queue space
+
+    /*
+     * Constructor StageCounter(name, numThreads)
+     *
+     * Purpose: Creates zeroed counters for a stage.
+     * Pre-condition: numThreads is positive.
+     * Post-condition: All counters are zero.
+     * Parameters: name       - Name of the stage in reports.
+     *             numThreads - Threads that run the stage.
+     */
+    StageCounter(String name, int numThreads) {
+        this.name = name;
+        this.numThreads = numThreads;
+    }
+
+    /*
+     * The following methods add to the stage's counters. All follow the
+     * same pattern:
+     *
+     * Pre-conditions: None
+     * Post-conditions: The counter is increased; any thread may call them
+     * Parameters: The records and bytes handled, and the elapsed nanoseconds
+     * Returns: None
+     */
+    public void work(long records, long bytes, long nanos) {
+        this.records.addAndGet(records);
+        this.bytes.addAndGet(bytes);
+        busyNanos.addAndGet(nanos);
+    }
+    public void starved(long nanos) { starvedNanos.addAndGet(nanos); }
+    public void blocked(long nanos) { blockedNanos.addAndGet(nanos); }
+
+    /*
+     * Method getBlockedNanos()
+     *
+     * Purpose: Returns the time the stage has spent blocked by a full queue.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: Blocked time in nanoseconds.
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.get();
+    }
+
+    /*
+     * Method take(queue)
+     *
+     * Purpose: Takes the next item from the queue before this stage,
+     *          counting the wait as starved time.
+     * Pre-condition: None.
+     * Post-condition: The item is removed from the queue.
+     * Parameters: queue - Queue feeding this stage
+     * Returns: The item taken.
+     */
+    public <T> T take(BlockingQueue<T> queue) throws IOException {
+        long start = System.nanoTime();
+
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Pipeline stage " + name + " interrupted");
+        } finally {
+            starved(System.nanoTime() - start);
+        }
+    }
+
+    /*
+     * Method put(queue, item)
+     *
+     * Purpose: Hands an item to the next stage, counting any wait for
+     *          space as blocked time. A full queue is what slows a fast
+     *          stage down to the pace of the stage after it.
+     * Pre-condition: None.
+     * Post-condition: The item is in the queue.
+     * Parameters: queue - Queue feeding the next stage
+     *             item  - Item to hand over
+     */
+    public <T> void put(BlockingQueue<T> queue, T item) throws IOException {
+        long start = System.nanoTime();
+
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Error: Pipeline stage " + name + " interrupted");
+        } finally {
+            blocked(System.nanoTime() - start);
+        }
+    }
+
+    /*
+     * Method toString()
+     *
+     * Purpose: Formats the stage's counters as one report line. The rate
+     *          is records per second of busy time per thread, which is
+     *          what the stage could sustain if it never had to wait.
+     * Pre-condition: None.
+     * Post-condition: No state is modified.
+     * Returns: The report line.
+     */
+    public String toString() {
+        double busyMs = busyNanos.get() / 1e6;
+        double rate = busyNanos.get() == 0 ? 0
+                    : records.get() * 1e9 * numThreads / busyNanos.get();
+
+        return String.format("%-7s %2d thread(s) %,11d records %,9.1f MB"
+                             + "  busy %,9.1f ms  starved %,9.1f ms  blocked %,9.1f ms"
+                             + "  %,12.0f records/s",
+                             name, numThreads, records.get(), bytes.get() / 1048576.0,
+                             busyMs, starvedNanos.get() / 1e6, blockedNanos.get() / 1e6,
+                             rate);
+    }
+}